@@ -33,6 +33,8 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
     private COLDPRegion region;
     private COLDPReference reference;
 
+    private ChangeTracker tracker;
+
     public COLDPDistribution() {
     }
 
@@ -42,6 +44,7 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
 
     public void setTaxonID(String taxonID) {
         if (taxon == null) {
+            trackChange("taxonID", this.taxonID, taxonID);
             this.taxonID = taxonID;
         } else {
             LOG.error("Attempted to set taxonID to " + taxonID + " when distribution associated with taxon " + taxon);
@@ -54,31 +57,45 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
 
     public void setTaxon(COLDPTaxon taxon) {
         if (!Objects.equals(this.taxon, taxon)) {
-            if (this.taxon != null) {
-                this.taxon.deregisterDistribution(this);
-            }
+            deregisterLinks();
+            trackChange("taxonID", this.taxon, taxon);
             this.taxon = taxon;
             taxonID = null;
-            
-            // Defer registration until we have both the region and the taxon
-            // Both are needed for the insertion into the TreeSet.
             handleRegistrations();
         }
     }
     
+    /*
+     * The taxon and region each index every row linked to them, but only
+     * show rows linked to both, since the taxon sorts them by region and 
+     * the region by taxon. Both are deregistered before either link changes
+     * so the sorted sets can find the row under its old key.
+     */
     private void handleRegistrations() {
-        if (taxon != null && region != null) {
+        if (taxon != null) {
             taxon.registerDistribution(this);
+        }
+        if (region != null) {
             region.registerDistribution(this);
         }
     }
 
+    private void deregisterLinks() {
+        if (taxon != null) {
+            taxon.deregisterDistribution(this);
+        }
+        if (region != null) {
+            region.deregisterDistribution(this);
+        }
+    }
+
     public String getArea() {
         return region == null ? area : region.getID();
     }
 
     public void setArea(String area) {
         if (region == null) {
+            trackChange("area", this.area, area);
             this.area = area;
         } else {
             LOG.error("Attempted to set area to " + area + " when distribution associated with region " + region);
@@ -91,14 +108,10 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
 
     public void setRegion(COLDPRegion region) {
         if (!Objects.equals(this.region, region)) {
-            if (this.region != null) {
-                this.region.deregisterDistribution(this);
-            }
+            deregisterLinks();
+            trackChange("area", this.region, region);
             this.region = region;
             area = null;
-            
-            // Defer registration until we have both the region and the taxon
-            // Both are needed for the insertion into the TreeSet.
             handleRegistrations();
         }
     }
@@ -108,6 +121,7 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
     }
 
     public void setGazetteer(String gazetteer) {
+        trackChange("gazetteer", this.gazetteer, gazetteer);
         this.gazetteer = gazetteer;
     }
 
@@ -116,6 +130,7 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
     }
 
     public void setStatus(String status) {
+        trackChange("status", this.status, status);
         this.status = status;
     }
 
@@ -125,6 +140,7 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
 
     public void setReferenceID(String referenceID) {
         if (reference == null) {
+            trackChange("referenceID", this.referenceID, referenceID);
             this.referenceID = referenceID;
         } else {
             LOG.error("Attempted to set referenceID to " + referenceID + " when distribution associated with reference " + reference);
@@ -140,6 +156,7 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
             if (this.reference != null) {
                 this.reference.deregisterDistribution(this);
             }
+            trackChange("referenceID", this.reference, reference);
             this.reference = reference;
             referenceID = null;
             if (reference != null) {
@@ -153,9 +170,48 @@ public class COLDPDistribution implements Comparable<COLDPDistribution>, TreeRen
     }
 
     public void setRemarks(String remarks) {
+        trackChange("remarks", this.remarks, remarks);
         this.remarks = remarks;
     }
 
+    void linkTaxon(COLDPTaxon taxon) {
+        if (taxon != null) {
+            this.taxon = taxon;
+            taxonID = null;
+        }
+    }
+
+    void linkRegion(COLDPRegion region) {
+        if (region != null) {
+            this.region = region;
+            area = null;
+        }
+    }
+
+    void linkReference(COLDPReference reference) {
+        if (reference != null) {
+            this.reference = reference;
+            referenceID = null;
+        }
+    }
+
+    void registerLinks() {
+        handleRegistrations();
+        if (reference != null) {
+            reference.registerDistribution(this);
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.DISTRIBUTION, this, column, oldValue, newValue);
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
@@ -56,6 +56,8 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     private List<COLDPSynonym> synonyms;
     private COLDPTypeMaterial typeMaterial;
 
+    private ChangeTracker tracker;
+
     public COLDPName() {
     }
 
@@ -64,6 +66,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setID(String ID) {
+        trackIdentifierChange(this.ID, ID);
         this.ID = ID;
     }
 
@@ -73,6 +76,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
 
     public void setBasionymID(String basionymID) {
         if (basionym == null) {
+            trackChange("basionymID", this.basionymID, basionymID);
             this.basionymID = basionymID;
         } else {
             LOG.error("Attempted to set basionymID to " + basionymID + " when name associated with basionym " + basionym);
@@ -89,6 +93,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
             if (this.basionym != null && !this.basionym.equals(this)) {
                 this.basionym.deregisterCombination(this);
             }
+            trackChange("basionymID", this.basionym, basionym);
             this.basionym = basionym;
             basionymID = null;
             if (basionym != null && !basionym.equals(this)) {
@@ -129,7 +134,11 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setScientificName(String scientificName) {
+        trackChange("scientificName", this.scientificName, scientificName);
         this.scientificName = scientificName;
+        if (taxon != null) {
+            taxon.nameChanged();
+        }
     }
 
     public String getAuthorship() {
@@ -137,7 +146,11 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setAuthorship(String authorship) {
+        trackChange("authorship", this.authorship, authorship);
         this.authorship = authorship;
+        if (taxon != null) {
+            taxon.nameChanged();
+        }
     }
 
     public String getRank() {
@@ -145,6 +158,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
     
     public void setRank(String rank) {
+        trackChange("rank", this.rank, rank);
         this.rank = rank;
         if (rank != null) {
             try {
@@ -171,6 +185,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setUninomial(String uninomial) {
+        trackChange("uninomial", this.uninomial, uninomial);
         this.uninomial = uninomial;
     }
 
@@ -179,19 +194,20 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setGenus(String genus) {
+        trackChange("genus", this.genus, genus);
         this.genus = genus;
     }
 
     public void fixGenus(String newGenus) {
         RankEnum currentRank = getRankEnum();
         if (currentRank.inSpeciesGroup() && !Objects.equals(genus, newGenus)) {
-            genus = newGenus;
-            scientificName = genus + " " 
+            setGenus(newGenus);
+            setScientificName(genus + " " 
                     + (infragenericEpithet != null && infragenericEpithet.length() > 0 ? "(" + infragenericEpithet + ") " : "")
                     + specificEpithet
                     + (currentRank.infraspecific()
                         ? " " + currentRank.getInfraspecificMarker() + " " + infraspecificEpithet
-                    : "");
+                    : ""));
         }
     }
 
@@ -200,6 +216,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setInfragenericEpithet(String infragenericEpithet) {
+        trackChange("infragenericEpithet", this.infragenericEpithet, infragenericEpithet);
         this.infragenericEpithet = infragenericEpithet;
     }
     
@@ -208,6 +225,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setSpecificEpithet(String specificEpithet) {
+        trackChange("specificEpithet", this.specificEpithet, specificEpithet);
         this.specificEpithet = specificEpithet;
     }
 
@@ -216,6 +234,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setInfraspecificEpithet(String infraspecificEpithet) {
+        trackChange("infraspecificEpithet", this.infraspecificEpithet, infraspecificEpithet);
         this.infraspecificEpithet = infraspecificEpithet;
     }
 
@@ -225,6 +244,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
 
     public void setReferenceID(String referenceID) {
         if (reference == null) {
+            trackChange("referenceID", this.referenceID, referenceID);
             this.referenceID = referenceID;
         } else {
             LOG.error("Attempted to set referenceID to " + referenceID + " when name associated with reference " + reference);
@@ -241,6 +261,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
             if (this.reference != null) {
                 this.reference.deregisterName(this);
             }
+            trackChange("referenceID", this.reference, reference);
             this.reference = reference;
             referenceID = null;
             if (reference != null) {
@@ -254,6 +275,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setPublishedInPage(String publishedInPage) {
+        trackChange("publishedInPage", this.publishedInPage, publishedInPage);
         this.publishedInPage = publishedInPage;
     }
 
@@ -262,6 +284,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setPublishedInYear(String publishedInYear) {
+        trackChange("publishedInYear", this.publishedInYear, publishedInYear);
         this.publishedInYear = publishedInYear;
     }
 
@@ -270,6 +293,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setCode(String code) {
+        trackChange("code", this.code, code);
         this.code = code;
     }
 
@@ -278,6 +302,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setStatus(String status) {
+        trackChange("status", this.status, status);
         this.status = status;
     }
 
@@ -286,6 +311,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setRemarks(String remarks) {
+        trackChange("remarks", this.remarks, remarks);
         this.remarks = remarks;
     }
 
@@ -294,10 +320,14 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
 
     public void setLink(String link) {
+        trackChange("link", this.link, link);
         this.link = link;
     }
 
     public List<COLDPNameReference> getNameReferences() {
+        if (tracker != null) {
+            tracker.require(TableEnum.NAMEREFERENCE);
+        }
         return nameReferences;
     }
 
@@ -317,6 +347,9 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
  
     public List<COLDPNameRelation> getNameRelations() {
+        if (tracker != null) {
+            tracker.require(TableEnum.NAMERELATION);
+        }
         return nameRelations;
     }
 
@@ -336,6 +369,9 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
  
     public List<COLDPNameRelation> getRelatedNameRelations() {
+        if (tracker != null) {
+            tracker.require(TableEnum.NAMERELATION);
+        }
         return relatedNameRelations;
     }
 
@@ -388,7 +424,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
     }
     
     public COLDPNameReference getRedundantNameReference(boolean allFields) {
-        if (reference != null && nameReferences != null) {
+        if (reference != null && getNameReferences() != null) {
             for (COLDPNameReference nr : nameReferences) {
                 if (!nr.getReference().equals(reference)) continue;
                 
@@ -472,6 +508,45 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
         return ID + " " + scientificName + " " + authorship;
     }
 
+    void linkBasionym(COLDPName basionym) {
+        if (basionym != null) {
+            this.basionym = basionym;
+            basionymID = null;
+        }
+    }
+
+    void linkReference(COLDPReference reference) {
+        if (reference != null) {
+            this.reference = reference;
+            referenceID = null;
+        }
+    }
+
+    void registerLinks() {
+        if (basionym != null && !basionym.equals(this)) {
+            basionym.registerCombination(this);
+        }
+        if (reference != null) {
+            reference.registerName(this);
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.NAME, this, column, oldValue, newValue);
+        }
+    }
+
+    private void trackIdentifierChange(String oldID, String newID) {
+        if (tracker != null && !Objects.equals(oldID, newID)) {
+            tracker.identifierChanged(TableEnum.NAME, this, newID);
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
@@ -558,7 +633,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
         String indent = context.getIndent();
         writer.println(indent + renderType.openNode("Name") + formatted);
 
-        if (nameReferences != null) {
+        if (getNameReferences() != null) {
             for (COLDPNameReference nameReference : nameReferences) {
                 if (nameReference.getReference() == null) {
                     LOG.error("Reference missing for NameReference: " + nameReference.toString());
@@ -567,7 +642,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
             }
         }
 
-        if (nameRelations != null) {
+        if (getNameRelations() != null) {
             nameRelations.stream().sorted(Comparator.comparing(COLDPNameRelation::getSortString))
                     .forEach(nameRelation ->  {
                                 if (nameRelation.getReference() != null) {
@@ -577,7 +652,7 @@ public class COLDPName implements Comparable<COLDPName>, TreeRenderable {
                             });
         }
 
-        if (relatedNameRelations != null) {
+        if (getRelatedNameRelations() != null) {
             relatedNameRelations.stream().sorted(Comparator.comparing(COLDPNameRelation::getSortString))
                     .forEach(relatedNameRelation ->  {
                                 if (relatedNameRelation.getReference() != null) {
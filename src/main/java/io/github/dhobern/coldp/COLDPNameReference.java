@@ -30,6 +30,8 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
     private COLDPName name;
     private COLDPReference reference;
 
+    private ChangeTracker tracker;
+
     public COLDPNameReference() {
     }
 
@@ -39,6 +41,7 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
 
     public void setNameID(String nameID) {
         if (name == null) {
+            trackChange("nameID", this.nameID, nameID);
             this.nameID = nameID;
         } else {
             LOG.error("Attempted to set nameID to " + nameID + " when nameReference associated with name " + name);
@@ -54,6 +57,7 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
             if (this.name != null) {
                 this.name.deregisterNameReference(this);
             }
+            trackChange("nameID", this.name, name);
             this.name = name;
             nameID = null;
             if (name != null) {
@@ -68,6 +72,7 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
 
     public void setReferenceID(String referenceID) {
         if (reference == null) {
+            trackChange("referenceID", this.referenceID, referenceID);
             this.referenceID = referenceID;
         } else {
             LOG.error("Attempted to set referenceID to " + referenceID + " when nameReference associated with reference " + reference);
@@ -83,6 +88,7 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
             if (this.reference != null) {
                 this.reference.deregisterNameReference(this);
             }
+            trackChange("referenceID", this.reference, reference);
             this.reference = reference;
             referenceID = null;
             if (reference != null) {
@@ -96,6 +102,7 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
     }
 
     public void setPage(String page) {
+        trackChange("page", this.page, page);
         this.page = page;
     }
 
@@ -104,6 +111,7 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
     }
 
     public void setLink(String link) {
+        trackChange("link", this.link, link);
         this.link = link;
     }
 
@@ -112,9 +120,43 @@ public class COLDPNameReference implements Comparable<COLDPNameReference>, TreeR
     }
 
     public void setRemarks(String remarks) {
+        trackChange("remarks", this.remarks, remarks);
         this.remarks = remarks;
     }
 
+    void linkName(COLDPName name) {
+        if (name != null) {
+            this.name = name;
+            nameID = null;
+        }
+    }
+
+    void linkReference(COLDPReference reference) {
+        if (reference != null) {
+            this.reference = reference;
+            referenceID = null;
+        }
+    }
+
+    void registerLinks() {
+        if (name != null) {
+            name.registerNameReference(this);
+        }
+        if (reference != null) {
+            reference.registerNameReference(this);
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.NAMEREFERENCE, this, column, oldValue, newValue);
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 3;
@@ -30,6 +30,8 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
     private COLDPName relatedName;
     private COLDPReference reference;
 
+    private ChangeTracker tracker;
+
     public COLDPNameRelation() {
     }
 
@@ -39,6 +41,7 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
 
     public void setNameID(String nameID) {
         if (name == null) {
+            trackChange("nameID", this.nameID, nameID);
             this.nameID = nameID;
         } else {
             LOG.error("Attempted to set nameID to " + nameID + " when nameRelation associated with name " + name);
@@ -54,6 +57,7 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
             if (this.name != null) {
                 this.name.deregisterNameRelation(this);
             }
+            trackChange("nameID", this.name, name);
             this.name = name;
             nameID = null;
             if (name != null) {
@@ -68,6 +72,7 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
 
     public void setRelatedNameID(String relatedNameID) {
         if (relatedName == null) {
+            trackChange("relatedNameID", this.relatedNameID, relatedNameID);
             this.relatedNameID = relatedNameID;
         } else {
             LOG.error("Attempted to set relatedNameID to " + relatedNameID + " when nameRelation associated with relatedName " + relatedName);
@@ -83,6 +88,7 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
             if (this.relatedName != null) {
                 this.relatedName.deregisterRelatedNameRelation(this);
             }
+            trackChange("relatedNameID", this.relatedName, relatedName);
             this.relatedName = relatedName;
             relatedNameID = null;
             if (relatedName != null) {
@@ -96,6 +102,7 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
     }
 
     public void setType(String type) {
+        trackChange("type", this.type, type);
         this.type = type;
     }
 
@@ -105,6 +112,7 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
 
     public void setReferenceID(String referenceID) {
         if (reference == null) {
+            trackChange("referenceID", this.referenceID, referenceID);
             this.referenceID = referenceID;
         } else {
             LOG.error("Attempted to set referenceID to " + referenceID + " when nameRelation associated with reference " + reference);
@@ -120,6 +128,7 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
             if (this.reference != null) {
                 this.reference.deregisterNameRelation(this);
             }
+            trackChange("referenceID", this.reference, reference);
             this.reference = reference;
             referenceID = null;
             if (reference != null) {
@@ -133,9 +142,53 @@ public class COLDPNameRelation implements Comparable<COLDPNameRelation>, TreeRen
     }
 
     public void setRemarks(String remarks) {
+        trackChange("remarks", this.remarks, remarks);
         this.remarks = remarks;
     }
 
+    void linkName(COLDPName name) {
+        if (name != null) {
+            this.name = name;
+            nameID = null;
+        }
+    }
+
+    void linkRelatedName(COLDPName relatedName) {
+        if (relatedName != null) {
+            this.relatedName = relatedName;
+            relatedNameID = null;
+        }
+    }
+
+    void linkReference(COLDPReference reference) {
+        if (reference != null) {
+            this.reference = reference;
+            referenceID = null;
+        }
+    }
+
+    void registerLinks() {
+        if (name != null) {
+            name.registerNameRelation(this);
+        }
+        if (relatedName != null) {
+            relatedName.registerRelatedNameRelation(this);
+        }
+        if (reference != null) {
+            reference.registerNameRelation(this);
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.NAMERELATION, this, column, oldValue, newValue);
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 3;
@@ -44,6 +44,8 @@ public class COLDPReference implements TreeRenderable {
     private List<COLDPDistribution> distributions;
     private List<COLDPSpeciesInteraction> speciesInteractions;
 
+    private ChangeTracker tracker;
+
     public COLDPReference() {
     }
 
@@ -52,6 +54,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setID(String ID) {
+        trackIdentifierChange(this.ID, ID);
         this.ID = ID;
     }
 
@@ -60,6 +63,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setAuthor(String author) {
+        trackChange("author", this.author, author);
         this.author = author;
     }
 
@@ -68,6 +72,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setTitle(String title) {
+        trackChange("title", this.title, title);
         this.title = title;
     }
 
@@ -76,6 +81,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setIssued(String issued) {
+        trackChange("issued", this.issued, issued);
         this.issued = issued;
     }
 
@@ -84,6 +90,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setContainerTitle(String containerTitle) {
+        trackChange("containerTitle", this.containerTitle, containerTitle);
         this.containerTitle = containerTitle;
     }
 
@@ -92,6 +99,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setVolume(String volume) {
+        trackChange("volume", this.volume, volume);
         this.volume = volume;
     }
 
@@ -100,6 +108,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setIssue(String issue) {
+        trackChange("issue", this.issue, issue);
         this.issue = issue;
     }
 
@@ -108,6 +117,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setPage(String page) {
+        trackChange("page", this.page, page);
         this.page = page;
     }
 
@@ -116,6 +126,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setLink(String link) {
+        trackChange("link", this.link, link);
         this.link = link;
     }
 
@@ -124,6 +135,7 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public void setCitation(String citation) {
+        trackChange("citation", this.citation, citation);
         this.citation = citation;
     }
 
@@ -147,6 +159,9 @@ public class COLDPReference implements TreeRenderable {
     }
  
     public List<COLDPNameReference> getNameReferences() {
+        if (tracker != null) {
+            tracker.require(TableEnum.NAMEREFERENCE);
+        }
         return nameReferences;
     }
 
@@ -166,6 +181,9 @@ public class COLDPReference implements TreeRenderable {
     }
  
     public List<COLDPNameRelation> getNameRelations() {
+        if (tracker != null) {
+            tracker.require(TableEnum.NAMERELATION);
+        }
         return nameRelations;
     }
 
@@ -238,6 +256,9 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public List<COLDPDistribution> getDistributions() {
+        if (tracker != null) {
+            tracker.require(TableEnum.DISTRIBUTION);
+        }
         return distributions;
     }
 
@@ -278,9 +299,28 @@ public class COLDPReference implements TreeRenderable {
     }
 
     public List<COLDPSpeciesInteraction> getSpeciesInteractions() {
+        if (tracker != null) {
+            tracker.require(TableEnum.SPECIESINTERACTION);
+        }
         return speciesInteractions;
     }
 
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.REFERENCE, this, column, oldValue, newValue);
+        }
+    }
+
+    private void trackIdentifierChange(String oldID, String newID) {
+        if (tracker != null && !Objects.equals(oldID, newID)) {
+            tracker.identifierChanged(TableEnum.REFERENCE, this, newID);
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 3;
@@ -9,7 +9,9 @@ import io.github.dhobern.utils.StringUtils;
 import static io.github.dhobern.utils.StringUtils.upperFirst;
 import java.io.PrintWriter;
 import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
@@ -29,6 +31,9 @@ public class COLDPRegion implements TreeRenderable {
     private String name;
     
     private Set<COLDPDistribution> distributions;
+    private List<COLDPDistribution> distributionRows;
+
+    private ChangeTracker tracker;
 
     public COLDPRegion() {
     }
@@ -38,6 +43,7 @@ public class COLDPRegion implements TreeRenderable {
     }
 
     public void setID(String ID) {
+        trackIdentifierChange(this.ID, ID);
         this.ID = ID;
     }
 
@@ -46,25 +52,65 @@ public class COLDPRegion implements TreeRenderable {
     }
 
     public void setName(String name) {
+        trackChange("name", this.name, name);
         this.name = name;
     }
 
     public Set<COLDPDistribution> getDistributions() {
+        if (tracker != null) {
+            tracker.require(TableEnum.DISTRIBUTION);
+        }
         return distributions;
     }
 
+    /*
+     * Every row linked to the region, including rows with no taxon and rows
+     * equal to another, for use as an index by RelationQuery
+     */
+    List<COLDPDistribution> getDistributionRows() {
+        if (tracker != null) {
+            tracker.require(TableEnum.DISTRIBUTION);
+        }
+        return distributionRows;
+    }
+
     void registerDistribution(COLDPDistribution distribution) {
         if (distribution != null) {
-            if (distributions == null) {
-                distributions = new HashSet<>();
+            if (distributionRows == null) {
+                distributionRows = new ArrayList<>();
+            }
+            distributionRows.add(distribution);
+            if (distribution.getTaxon() != null) {
+                if (distributions == null) {
+                    distributions = new HashSet<>();
+                }
+                distributions.add(distribution);
             }
-            distributions.add(distribution);
         }
     }
  
     void deregisterDistribution(COLDPDistribution distribution) {
-        if (distribution != null && distributions != null) {
-            distributions.remove(distribution);
+        if (distribution != null && distributionRows != null) {
+            RelationQuery.removeIdentical(distributionRows, distribution);
+            if (distributions != null && distribution.getTaxon() != null) {
+                distributions.remove(distribution);
+            }
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.REGION, this, column, oldValue, newValue);
+        }
+    }
+
+    private void trackIdentifierChange(String oldID, String newID) {
+        if (tracker != null && !Objects.equals(oldID, newID)) {
+            tracker.identifierChanged(TableEnum.REGION, this, newID);
         }
     }
 
@@ -113,7 +159,7 @@ public class COLDPRegion implements TreeRenderable {
         writer.println(context.getIndent() + renderType.openNodeWithID("Region", "region-" + ID));
         writer.println(childContext.getIndent() + renderType.openNode("Name") + name + renderType.closeNode());
 
-        if (distributions != null) {
+        if (getDistributions() != null) {
             renderDistributions(writer,  childContext, renderType);
         }
         
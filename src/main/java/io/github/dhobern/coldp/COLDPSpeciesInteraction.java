@@ -44,6 +44,8 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     private COLDPTaxon relatedTaxon;
     private COLDPReference reference;
 
+    private ChangeTracker tracker;
+
     public COLDPSpeciesInteraction() {
     }
 
@@ -53,6 +55,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
 
     public void setTaxonID(String taxonID) {
         if (taxon == null) {
+            trackChange("taxonID", this.taxonID, taxonID);
             this.taxonID = taxonID;
         } else {
             LOG.error("Attempted to set taxonID to " + taxonID + " when speciesInteraction associated with taxon " + taxon);
@@ -68,6 +71,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
             if (this.taxon != null) {
                 this.taxon.deregisterSpeciesInteraction(this);
             }
+            trackChange("taxonID", this.taxon, taxon);
             this.taxon = taxon;
             taxonID = null;
             if (taxon != null) {
@@ -82,6 +86,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
 
     public void setRelatedTaxonID(String relatedTaxonID) {
         if (relatedTaxon == null) {
+            trackChange("relatedTaxonID", this.relatedTaxonID, relatedTaxonID);
             this.relatedTaxonID = relatedTaxonID;
         } else {
             LOG.error("Attempted to set relatedTaxonID to " + relatedTaxonID + " when speciesInteraction associated with relatedTaxon " + relatedTaxon);
@@ -97,6 +102,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
             if (this.relatedTaxon != null) {
                 relatedTaxon.deregisterRelatedSpeciesInteraction(this);
             }
+            trackChange("relatedTaxonID", this.relatedTaxon, relatedTaxon);
             this.relatedTaxon = relatedTaxon;
             relatedTaxonID = null;
             if (relatedTaxon != null) {
@@ -110,6 +116,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setRelatedTaxonScientificName(String relatedTaxonScientificName) {
+        trackChange("relatedTaxonScientificName", this.relatedTaxonScientificName, relatedTaxonScientificName);
         this.relatedTaxonScientificName = relatedTaxonScientificName;
     }
 
@@ -118,6 +125,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setType(String type) {
+        trackChange("type", this.type, type);
         this.type = type;
     }
 
@@ -126,6 +134,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setRelatedTaxonLink(String relatedTaxonLink) {
+        trackChange("relatedTaxonLink", this.relatedTaxonLink, relatedTaxonLink);
         this.relatedTaxonLink = relatedTaxonLink;
     }
 
@@ -134,6 +143,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setRelatedTaxonOrder(String relatedTaxonOrder) {
+        trackChange("relatedTaxonOrder", this.relatedTaxonOrder, relatedTaxonOrder);
         this.relatedTaxonOrder = relatedTaxonOrder;
     }
 
@@ -142,6 +152,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setRelatedTaxonFamily(String relatedTaxonFamily) {
+        trackChange("relatedTaxonFamily", this.relatedTaxonFamily, relatedTaxonFamily);
         this.relatedTaxonFamily = relatedTaxonFamily;
     }
 
@@ -150,6 +161,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setRelatedTaxonFullName(String relatedTaxonFullName) {
+        trackChange("relatedTaxonFullName", this.relatedTaxonFullName, relatedTaxonFullName);
         this.relatedTaxonFullName = relatedTaxonFullName;
     }
 
@@ -158,6 +170,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setRelatedTaxonHTMLName(String relatedTaxonHTMLName) {
+        trackChange("relatedTaxonHTMLName", this.relatedTaxonHTMLName, relatedTaxonHTMLName);
         this.relatedTaxonHTMLName = relatedTaxonHTMLName;
     }
 
@@ -167,6 +180,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
 
     public void setReferenceID(String referenceID) {
         if (reference == null) {
+            trackChange("referenceID", this.referenceID, referenceID);
             this.referenceID = referenceID;
         } else {
             LOG.error("Attempted to set referenceID to " + referenceID + " when speciesInteraction associated with reference " + reference);
@@ -182,6 +196,7 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
             if (this.reference != null) {
                 this.reference.deregisterSpeciesInteraction(this);
             }
+            trackChange("referenceID", this.reference, reference);
             this.reference = reference;
             referenceID = null;
             if (reference != null) {
@@ -195,9 +210,53 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
     }
 
     public void setRemarks(String remarks) {
+        trackChange("remarks", this.remarks, remarks);
         this.remarks = remarks;
     }
 
+    void linkTaxon(COLDPTaxon taxon) {
+        if (taxon != null) {
+            this.taxon = taxon;
+            taxonID = null;
+        }
+    }
+
+    void linkRelatedTaxon(COLDPTaxon relatedTaxon) {
+        if (relatedTaxon != null) {
+            this.relatedTaxon = relatedTaxon;
+            relatedTaxonID = null;
+        }
+    }
+
+    void linkReference(COLDPReference reference) {
+        if (reference != null) {
+            this.reference = reference;
+            referenceID = null;
+        }
+    }
+
+    void registerLinks() {
+        if (taxon != null) {
+            taxon.registerSpeciesInteraction(this);
+        }
+        if (relatedTaxon != null) {
+            relatedTaxon.registerRelatedSpeciesInteraction(this);
+        }
+        if (reference != null) {
+            reference.registerSpeciesInteraction(this);
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.SPECIESINTERACTION, this, column, oldValue, newValue);
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
@@ -339,11 +398,11 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
             COLClient client = new COLClient();
             NameUsageSearchResponse response = client.searchForNameUsage(relatedTaxonScientificName);
             if (response != null && response.getResult() != null) {
-                relatedTaxonFullName = null;
-                relatedTaxonHTMLName = null;
-                relatedTaxonLink = null;
-                relatedTaxonOrder = null;
-                relatedTaxonFamily = null;
+                setRelatedTaxonFullName(null);
+                setRelatedTaxonHTMLName(null);
+                setRelatedTaxonLink(null);
+                setRelatedTaxonOrder(null);
+                setRelatedTaxonFamily(null);
                 List<NameUsageSearchResult> usages 
                         = response.getResult().stream().filter(u 
                                 -> u.getUsage().getName().getScientificName()
@@ -355,26 +414,26 @@ public class COLDPSpeciesInteraction implements Comparable<COLDPSpeciesInteracti
                 if (usages.size() == 1) {
                     NameUsageSearchResult result = response.getResult().get(0);
                     if (result.getUsage().getAccepted() != null) {
-                        relatedTaxonLink = client.getWebUrlForTaxonKey(result.getUsage().getAccepted().getId());
-                        relatedTaxonFullName = result.getUsage().getAccepted().getLabel();
-                        relatedTaxonHTMLName = result.getUsage().getAccepted().getLabelHtml();
+                        setRelatedTaxonLink(client.getWebUrlForTaxonKey(result.getUsage().getAccepted().getId()));
+                        setRelatedTaxonFullName(result.getUsage().getAccepted().getLabel());
+                        setRelatedTaxonHTMLName(result.getUsage().getAccepted().getLabelHtml());
                     } else {
-                        relatedTaxonLink = client.getWebUrlForTaxonKey(result.getId());
-                        relatedTaxonFullName = result.getUsage().getLabel();
-                        relatedTaxonHTMLName = result.getUsage().getLabelHtml();
+                        setRelatedTaxonLink(client.getWebUrlForTaxonKey(result.getId()));
+                        setRelatedTaxonFullName(result.getUsage().getLabel());
+                        setRelatedTaxonHTMLName(result.getUsage().getLabelHtml());
                     }
                     if (result.getClassification() != null) {
                         for (Classification classification : result.getClassification()) {
                             switch (classification.getRank()) {
-                                case "order": relatedTaxonOrder = classification.getName(); break;
-                                case "family": relatedTaxonFamily = classification.getName(); break;
+                                case "order": setRelatedTaxonOrder(classification.getName()); break;
+                                case "family": setRelatedTaxonFamily(classification.getName()); break;
                             }
                         }
                     }
                 } else {
                     LOG.error("COL search for " + relatedTaxonScientificName + " returned " + response.getResult().size() + " matches");
                     if (usages.size() > 0) {
-                        relatedTaxonLink = "https://www.catalogueoflife.org/data/search?q=" + relatedTaxonScientificName;
+                        setRelatedTaxonLink("https://www.catalogueoflife.org/data/search?q=" + relatedTaxonScientificName);
                     }
                 }
             } else {
@@ -34,6 +34,8 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
     
     private String equalityString = null;
 
+    private ChangeTracker tracker;
+
     public COLDPSynonym() {
     }
 
@@ -43,6 +45,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
 
     public void setTaxonID(String taxonID) {
         if (taxon == null) {
+            trackChange("taxonID", this.taxonID, taxonID);
             this.taxonID = taxonID;
         } else {
             LOG.error("Attempted to set taxonID to " + taxonID + " when synonym associated with taxon " + taxon);
@@ -55,6 +58,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
 
     public void setTaxon(COLDPTaxon taxon) {
         if (!Objects.equals(this.taxon, taxon)) {
+            trackChange("taxonID", this.taxon, taxon);
             if (this.taxon != null) {
                 this.taxon.deregisterSynonym(this);
             }
@@ -74,6 +78,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
 
     public void setNameID(String nameID) {
         if (name == null) {
+            trackChange("nameID", this.nameID, nameID);
             this.nameID = nameID;
         } else {
             LOG.error("Attempted to set nameID to " + nameID + " when synonym associated with name " + name);
@@ -89,6 +94,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
             if (this.name != null) {
                 this.name.deregisterSynonym(this);
             }
+            trackChange("nameID", this.name, name);
             this.name = name;
             nameID = null;
             if (name != null) {
@@ -114,6 +120,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
     }
 
     public void setStatus(String status) {
+        trackChange("status", this.status, status);
         this.status = status;
     }
 
@@ -123,6 +130,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
 
     public void setReferenceID(String referenceID) {
         if (reference == null) {
+            trackChange("referenceID", this.referenceID, referenceID);
             this.referenceID = referenceID;
         } else {
             LOG.error("Attempted to set referenceID to " + referenceID + " when synonym associated with reference " + reference);
@@ -134,6 +142,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
     }
 
     public void setAccordingToID(String accordingToID) {
+        trackChange("accordingToID", this.accordingToID, accordingToID);
         this.accordingToID = accordingToID;
     }
 
@@ -146,6 +155,7 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
             if (this.reference != null) {
                 this.reference.deregisterSynonym(this);
             }
+            trackChange("referenceID", this.reference, reference);
             this.reference = reference;
             referenceID = null;
             if (reference != null) {
@@ -159,9 +169,55 @@ public class COLDPSynonym implements Comparable<COLDPSynonym>, TreeRenderable {
     }
 
     public void setRemarks(String remarks) {
+        trackChange("remarks", this.remarks, remarks);
         this.remarks = remarks;
     }
 
+    void linkTaxon(COLDPTaxon taxon) {
+        if (taxon != null) {
+            this.taxon = taxon;
+            taxonID = null;
+            updateEqualityString();
+        }
+    }
+
+    void linkName(COLDPName name) {
+        if (name != null) {
+            this.name = name;
+            nameID = null;
+            updateEqualityString();
+        }
+    }
+
+    void linkReference(COLDPReference reference) {
+        if (reference != null) {
+            this.reference = reference;
+            referenceID = null;
+        }
+    }
+
+    void registerLinks() {
+        if (taxon != null) {
+            taxon.registerSynonym(this);
+        }
+        if (name != null) {
+            name.registerSynonym(this);
+        }
+        if (reference != null) {
+            reference.registerSynonym(this);
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.SYNONYM, this, column, oldValue, newValue);
+        }
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
@@ -11,7 +11,9 @@ import io.github.dhobern.coldp.TreeRenderProperties.TreeRenderType;
 import static io.github.dhobern.utils.StringUtils.*;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -27,6 +29,26 @@ import org.slf4j.LoggerFactory;
 public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     
     private static final Logger LOG = LoggerFactory.getLogger(COLDPTaxon.class);
+
+    private static final int KINGDOM = 0;
+    private static final int PHYLUM = 1;
+    private static final int CLASS = 2;
+    private static final int ORDER = 3;
+    private static final int SUPERFAMILY = 4;
+    private static final int FAMILY = 5;
+    private static final int SUBFAMILY = 6;
+    private static final int TRIBE = 7;
+    private static final int GENUS = 8;
+    private static final int UNINOMIAL = 9;
+    private static final int SPECIES = 10;
+
+    private static final String[] CLASSIFICATION_COLUMNS = { "kingdom", 
+        "phylum", "class", "order", "superfamily", "family", "subfamily", 
+        "tribe", "genus", "uninomial", "species" };
+    private static final RankEnum[] CLASSIFICATION_RANKS = { RankEnum.kingdom,
+        RankEnum.phylum, RankEnum.clazz, RankEnum.order, RankEnum.superfamily,
+        RankEnum.family, RankEnum.subfamily, RankEnum.tribe, RankEnum.genus,
+        null, RankEnum.species };
    
     private String ID;
     private String parentID;
@@ -37,17 +59,8 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     private boolean extinct;
     private String temporalRangeEnd;
     private String lifezone;
-    private String kingdom;
-    private String phylum;
-    private String clazz;
-    private String order;
-    private String superfamily;
-    private String family;
-    private String subfamily;
-    private String tribe;
-    private String genus;
-    private String uninomial;
-    private String species;
+    private String[] classification = new String[CLASSIFICATION_COLUMNS.length];
+    private boolean compactClassification = false;
     private String remarks;
     private boolean provisional;
     
@@ -57,9 +70,16 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     private COLDPReference reference;
     private List<COLDPSynonym> synonyms;
     private Set<COLDPDistribution> distributions;
+    private List<COLDPDistribution> distributionRows;
     private List<COLDPSpeciesInteraction> speciesInteractions;
     private List<COLDPSpeciesInteraction> relatedSpeciesInteractions;
-    
+
+    private String nameWithAuthorship;
+    private List<COLDPTaxon> childrenSorted;
+    private Set<COLDPTaxon> childrenSortedSet;
+
+    private ChangeTracker tracker;
+
     public COLDPTaxon() {
     }
 
@@ -68,6 +88,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setID(String ID) {
+        trackIdentifierChange(this.ID, ID);
         this.ID = ID;
     }
 
@@ -77,6 +98,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
 
     public void setParentID(String parentID) {
         if (parent == null) {
+            trackChange("parentID", this.parentID, parentID);
             this.parentID = parentID;
         } else {
             LOG.error("Attempted to set parentID to " + parentID + " when nameRelation associated with parent " + parent);
@@ -89,21 +111,34 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
 
     public void setParent(COLDPTaxon parent) {
         if (!Objects.equals(this.parent, parent)) {
-            if (name != null 
-                    && parent != null 
-                    && parent.getName() != null
-                    && !name.getRankEnum().isLowerThan(parent.getName().getRankEnum())) {
-                LOG.error("Can only set higher-ranked taxon as parent: " + this.getName().getScientificName() + " -> " + parent.getName().getScientificName());
-            }
+            checkParentRank(parent);
+
+            // A compact taxon that loses its parent keeps the values it
+            // derived until now
+            String[] values = (compactClassification && parent == null) 
+                    ? getClassification() : null;
 
             if (this.parent != null) {
                 this.parent.deregisterChild(this);
             }
+            trackChange("parentID", this.parent, parent);
             this.parent = parent;
             parentID = null;
             if (parent != null) {
                 parent.registerChild(this);
            }
+            if (compactClassification) {
+                classification = values;
+            }
+        }
+    }
+    
+    private void checkParentRank(COLDPTaxon parent) {
+        if (name != null 
+                && parent != null 
+                && parent.getName() != null
+                && !name.getRankEnum().isLowerThan(parent.getName().getRankEnum())) {
+            LOG.error("Can only set higher-ranked taxon as parent: " + this.getName().getScientificName() + " -> " + parent.getName().getScientificName());
         }
     }
     
@@ -121,7 +156,11 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
             RankEnum rank = name.getRankEnum();
             RankEnum parentRank = parent.getName().getRankEnum();
             
-            if (rank.isLowerThan(RankEnum.unknown)
+            if (compactClassification) {
+                if (fixName && rank.inSpeciesGroup()) {
+                    name.fixGenus(getGenus());
+                }
+            } else if (rank.isLowerThan(RankEnum.unknown)
                 && parentRank.isLowerThan(RankEnum.unknown)) {
 
                 if (!rank.isHigherThan(RankEnum.kingdom)) {
@@ -159,7 +198,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
                 if (!rank.isHigherThan(RankEnum.genus)) {
                     setGenus((parent.getGenus() == null || parent.getGenus().length() == 0)
                                     ? parent.getUninomial() : parent.getGenus());
-                    if (genus == null || genus.length() == 0) {
+                    if (getGenus() == null || getGenus().length() == 0) {
                         LOG.error("Parent of species-rank taxon set to suprageneric " + parent.toString());
                         setGenus("<Unknown genus>");
                     }
@@ -171,7 +210,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
                 if (!rank.isHigherThan(RankEnum.species)) {
                     setSpecies(rank.isLowerThan(RankEnum.species)
                                     ? parent.getSpecies() : name.getScientificName());
-                    if (species == null || species.length() == 0) {
+                    if (getSpecies() == null || getSpecies().length() == 0) {
                         LOG.error("Parent of infraspecific taxon set to supraspecific " + parent.toString());
                         setSpecies("<Unknown species>");
                     }
@@ -180,7 +219,10 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
                 }
             }
             
-            if (fixChildren && children != null) {
+            // Compact descendants derive their classification, so only 
+            // their names need visiting
+            if (fixChildren && children != null 
+                    && (!compactClassification || fixChildNames)) {
                 for (COLDPTaxon child : children) {
                     child.fixHierarchy(fixChildNames, true, fixChildNames);
                 }
@@ -192,12 +234,42 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
         return children;
     }
     
+    /**
+     * @return the children ordered by scientific name and authorship, as an
+     * unmodifiable set which is kept until a child is added or removed or a
+     * child's name changes
+     */
     public Set<COLDPTaxon> getChildrenSorted() {
-        TreeSet<COLDPTaxon> sorted = new TreeSet<>(new AlphabeticalSortByScientificName());
-        if (children != null) {
-            sorted.addAll(children);
+        sortChildren();
+        return childrenSortedSet;
+    }
+
+    /**
+     * @return the children in the same order as getChildrenSorted(), as an
+     * unmodifiable list
+     */
+    public List<COLDPTaxon> getChildrenSortedList() {
+        sortChildren();
+        return childrenSorted;
+    }
+
+    private void sortChildren() {
+        if (childrenSorted == null) {
+            if (children == null) {
+                childrenSorted = Collections.emptyList();
+                childrenSortedSet = Collections.emptySet();
+            } else {
+                List<COLDPTaxon> sorted = new ArrayList<>(children);
+                sorted.sort(new AlphabeticalSortByScientificName());
+                childrenSorted = Collections.unmodifiableList(sorted);
+                childrenSortedSet = Collections.unmodifiableSet(new LinkedHashSet<>(sorted));
+            }
         }
-        return sorted;
+    }
+
+    private void clearSortedChildren() {
+        childrenSorted = null;
+        childrenSortedSet = null;
     }
 
     void registerChild(COLDPTaxon child) {
@@ -206,12 +278,26 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
                 children = new TreeSet<>();
             }
             children.add(child);
+            clearSortedChildren();
         }
     }
  
     void deregisterChild(COLDPTaxon child) {
         if (child != null && children != null) {
             children.remove(child);
+            clearSortedChildren();
+        }
+    }
+
+    /*
+     * Called when the name is replaced or its scientific name or authorship
+     * is edited, so the cached sort key and the parent's sorted children are
+     * rebuilt
+     */
+    void nameChanged() {
+        nameWithAuthorship = null;
+        if (parent != null) {
+            parent.clearSortedChildren();
         }
     }
 
@@ -231,10 +317,16 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
     
     public List<COLDPSpeciesInteraction> getSpeciesInteractions() {
+        if (tracker != null) {
+            tracker.require(TableEnum.SPECIESINTERACTION);
+        }
         return speciesInteractions;
     }
     
     public List<COLDPSpeciesInteraction> getRelatedSpeciesInteractions() {
+        if (tracker != null) {
+            tracker.require(TableEnum.SPECIESINTERACTION);
+        }
         return relatedSpeciesInteractions;
     }
 
@@ -259,6 +351,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
 
     public void setNameID(String nameID) {
         if (name == null) {
+            trackChange("nameID", this.nameID, nameID);
             this.nameID = nameID;
         } else {
             LOG.error("Attempted to set nameID to " + nameID + " when nameRelation associated with name " + name);
@@ -271,11 +364,13 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
 
     public void setName(COLDPName name) {
         if (!Objects.equals(this.name, name)) {
+            trackChange("nameID", this.name, name);
             this.name = name;
             nameID = null;
             if (name != null) {
                 name.setTaxon(this);
             }
+            nameChanged();
         }
     }
 
@@ -284,6 +379,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setScrutinizer(String scrutinizer) {
+        trackChange("scrutinizer", this.scrutinizer, scrutinizer);
         this.scrutinizer = scrutinizer;
     }
 
@@ -292,6 +388,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setScrutinizerDate(String scrutinizerDate) {
+        trackChange("scrutinizerDate", this.scrutinizerDate, scrutinizerDate);
         this.scrutinizerDate = scrutinizerDate;
     }
 
@@ -300,11 +397,12 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setProvisional(boolean provisional) {
+        trackChange("provisional", this.provisional, provisional);
         this.provisional = provisional;
     }
 
     public void setProvisional(String provisional) {
-        this.provisional = provisional.equalsIgnoreCase("true");
+        setProvisional(provisional.equalsIgnoreCase("true"));
     }
 
     public String getReferenceID() {
@@ -313,6 +411,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
 
     public void setReferenceID(String referenceID) {
         if (reference == null) {
+            trackChange("referenceID", this.referenceID, referenceID);
             this.referenceID = referenceID;
         } else {
             LOG.error("Attempted to set referenceID to " + referenceID + " when taxon associated with reference " + reference);
@@ -328,6 +427,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
             if (this.reference != null) {
                 this.reference.deregisterTaxon(this);
             }
+            trackChange("referenceID", this.reference, reference);
             this.reference = reference;
             referenceID = null;
             if (reference != null) {
@@ -341,10 +441,11 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setExtinct(String extinct) {
-        this.extinct = extinct.equalsIgnoreCase("true");
+        setExtinct(extinct.equalsIgnoreCase("true"));
     }
 
     public void setExtinct(boolean extinct) {
+        trackChange("extinct", this.extinct, extinct);
         this.extinct = extinct;
     }
 
@@ -353,6 +454,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setTemporalRangeEnd(String temporalRangeEnd) {
+        trackChange("temporalRangeEnd", this.temporalRangeEnd, temporalRangeEnd);
         this.temporalRangeEnd = temporalRangeEnd;
     }
 
@@ -361,95 +463,155 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setLifezone(String lifezone) {
+        trackChange("lifezone", this.lifezone, lifezone);
         this.lifezone = lifezone;
     }
 
+    /*
+     * In compact mode a taxon with a parent holds no classification of its
+     * own. Each value is the taxon's own name where its rank matches the 
+     * column, the parent's value where the taxon ranks below the column, 
+     * and otherwise empty, so a move needs no copying. Root taxa keep the
+     * values for the ranks above them, and uninomial is taken from the name.
+     * Setting a value on a taxon with a parent first fills an array with the
+     * values derived until then, which the taxon holds until it is moved.
+     */
+    private String getClassification(int column) {
+        if (!compactClassification || (parent != null && classification != null)) {
+            return classification[column];
+        }
+        RankEnum rank = (name == null) ? null : name.getRankEnum();
+        if (column == UNINOMIAL) {
+            return (rank == null || rank.inSpeciesGroup()) ? null : name.getUninomial();
+        }
+        if (rank == CLASSIFICATION_RANKS[column]) {
+            return name.getScientificName();
+        }
+        if (rank != null && !rank.isLowerThan(CLASSIFICATION_RANKS[column])) {
+            return null;
+        }
+        if (parent != null) {
+            return parent.getClassification(column);
+        }
+        return classification == null ? null : classification[column];
+    }
+
+    private void setClassification(int column, String value) {
+        if (classification == null) {
+            if (Objects.equals(getClassification(column), value)) {
+                return;
+            }
+            classification = getClassification();
+        }
+        trackChange(CLASSIFICATION_COLUMNS[column], classification[column], value);
+        classification[column] = value;
+    }
+
+    private String[] getClassification() {
+        String[] values = new String[CLASSIFICATION_COLUMNS.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getClassification(i);
+        }
+        return values;
+    }
+
+    /**
+     * Switch to deriving the classification columns from the parent and
+     * name. Values held by taxa with a parent are dropped.
+     */
+    void compactClassification() {
+        compactClassification = true;
+        if (parent != null) {
+            classification = null;
+        }
+    }
+
     public String getKingdom() {
-        return kingdom;
+        return getClassification(KINGDOM);
     }
 
     public void setKingdom(String kingdom) {
-        this.kingdom = kingdom;
+        setClassification(KINGDOM, kingdom);
     }
 
     public String getPhylum() {
-        return phylum;
+        return getClassification(PHYLUM);
     }
 
     public void setPhylum(String phylum) {
-        this.phylum = phylum;
+        setClassification(PHYLUM, phylum);
     }
 
     public String getClazz() {
-        return clazz;
+        return getClassification(CLASS);
     }
 
     public void setClazz(String _clazz) {
-        this.clazz = _clazz;
+        setClassification(CLASS, _clazz);
     }
 
     public String getOrder() {
-        return order;
+        return getClassification(ORDER);
     }
 
     public void setOrder(String order) {
-        this.order = order;
+        setClassification(ORDER, order);
     }
 
     public String getSuperfamily() {
-        return superfamily;
+        return getClassification(SUPERFAMILY);
     }
 
     public void setSuperfamily(String superfamily) {
-        this.superfamily = superfamily;
+        setClassification(SUPERFAMILY, superfamily);
     }
 
     public String getFamily() {
-        return family;
+        return getClassification(FAMILY);
     }
 
     public void setFamily(String family) {
-        this.family = family;
+        setClassification(FAMILY, family);
     }
 
     public String getSubfamily() {
-        return subfamily;
+        return getClassification(SUBFAMILY);
     }
 
     public void setSubfamily(String subfamily) {
-        this.subfamily = subfamily;
+        setClassification(SUBFAMILY, subfamily);
     }
 
     public String getTribe() {
-        return tribe;
+        return getClassification(TRIBE);
     }
 
     public void setTribe(String tribe) {
-        this.tribe = tribe;
+        setClassification(TRIBE, tribe);
     }
 
     public String getGenus() {
-        return genus;
+        return getClassification(GENUS);
     }
 
     public void setGenus(String genus) {
-        this.genus = genus;
+        setClassification(GENUS, genus);
     }
 
     public String getUninomial() {
-        return uninomial;
+        return getClassification(UNINOMIAL);
     }
 
     public void setUninomial(String uninomial) {
-        this.uninomial = uninomial;
+        setClassification(UNINOMIAL, uninomial);
     }
 
     public String getSpecies() {
-        return species;
+        return getClassification(SPECIES);
     }
 
     public void setSpecies(String species) {
-        this.species = species;
+        setClassification(SPECIES, species);
     }
 
     public String getRemarks() {
@@ -457,6 +619,7 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public void setRemarks(String remarks) {
+        trackChange("remarks", this.remarks, remarks);
         this.remarks = remarks;
     }
 
@@ -498,21 +661,95 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
 
     public Set<COLDPDistribution> getDistributions() {
+        if (tracker != null) {
+            tracker.require(TableEnum.DISTRIBUTION);
+        }
         return distributions;
     }
 
+    /*
+     * Every row linked to the taxon, including rows with no region and rows
+     * which share a region, for use as an index by RelationQuery
+     */
+    List<COLDPDistribution> getDistributionRows() {
+        if (tracker != null) {
+            tracker.require(TableEnum.DISTRIBUTION);
+        }
+        return distributionRows;
+    }
+
     void registerDistribution(COLDPDistribution distribution) {
         if (distribution != null) {
-            if (distributions == null) {
-                distributions = new TreeSet<>(new RegionSort());
+            if (distributionRows == null) {
+                distributionRows = new ArrayList<>();
+            }
+            distributionRows.add(distribution);
+            if (distribution.getRegion() != null) {
+                if (distributions == null) {
+                    distributions = new TreeSet<>(new RegionSort());
+                }
+                distributions.add(distribution);
             }
-            distributions.add(distribution);
         }
     }
  
     void deregisterDistribution(COLDPDistribution distribution) {
-        if (distribution != null && distributions != null) {
-            distributions.remove(distribution);
+        if (distribution != null && distributionRows != null) {
+            RelationQuery.removeIdentical(distributionRows, distribution);
+            if (distributions != null && distribution.getRegion() != null) {
+                distributions.remove(distribution);
+            }
+        }
+    }
+
+    void linkName(COLDPName name) {
+        if (name != null) {
+            this.name = name;
+            nameID = null;
+            nameChanged();
+        }
+    }
+
+    void linkParent(COLDPTaxon parent) {
+        if (parent != null) {
+            this.parent = parent;
+            parentID = null;
+        }
+    }
+
+    void linkReference(COLDPReference reference) {
+        if (reference != null) {
+            this.reference = reference;
+            referenceID = null;
+        }
+    }
+
+    void registerLinks() {
+        if (name != null) {
+            name.setTaxon(this);
+        }
+        if (parent != null) {
+            checkParentRank(parent);
+            parent.registerChild(this);
+        }
+        if (reference != null) {
+            reference.registerTaxon(this);
+        }
+    }
+
+    void setTracker(ChangeTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    private void trackChange(String column, Object oldValue, Object newValue) {
+        if (tracker != null && !Objects.equals(oldValue, newValue)) {
+            tracker.modified(TableEnum.TAXON, this, column, oldValue, newValue);
+        }
+    }
+
+    private void trackIdentifierChange(String oldID, String newID) {
+        if (tracker != null && !Objects.equals(oldID, newID)) {
+            tracker.identifierChanged(TableEnum.TAXON, this, newID);
         }
     }
 
@@ -542,10 +779,10 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     }
     
     private String getNameWithAuthorship() {
-        if (name != null) {
-            return name.getScientificName() + " " + name.getAuthorship();
+        if (nameWithAuthorship == null && name != null) {
+            nameWithAuthorship = name.getScientificName() + " " + name.getAuthorship();
         }
-        return null;
+        return nameWithAuthorship;
     }
 
     @Override
@@ -583,7 +820,9 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
     public static class AlphabeticalSortByScientificName implements Comparator<COLDPTaxon> { 
         @Override
         public int compare(COLDPTaxon o1, COLDPTaxon o2) {
-            return o1.getNameWithAuthorship().compareTo(o2.getNameWithAuthorship());
+            int comparison = Comparator.nullsLast(String::compareTo)
+                    .compare(o1.getNameWithAuthorship(), o2.getNameWithAuthorship());
+            return comparison != 0 ? comparison : o1.compareTo(o2);
         }
     }
 
@@ -598,8 +837,9 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
         return buildCSV(ID, getParentID(), getNameID(), scrutinizer, 
                         scrutinizerDate, provisional ? "true" : "false", getReferenceID(),
                         extinct ? "true" : "false", temporalRangeEnd,
-                        lifezone, kingdom, phylum, clazz, order, superfamily,
-                        family, subfamily, tribe, genus, uninomial, species, remarks);
+                        lifezone, getKingdom(), getPhylum(), getClazz(), getOrder(), 
+                        getSuperfamily(), getFamily(), getSubfamily(), getTribe(), 
+                        getGenus(), getUninomial(), getSpecies(), remarks);
     }
 
     @Override
@@ -633,11 +873,11 @@ public class COLDPTaxon implements Comparable<COLDPTaxon>, TreeRenderable {
             renderNote(writer, new TreeRenderProperties(context, this, childContextType), renderType);
         }
 
-        if (distributions != null) {
+        if (getDistributions() != null) {
             renderDistributions(writer, new TreeRenderProperties(context, this, childContextType), renderType);
         }
 
-        if (speciesInteractions != null) {
+        if (getSpeciesInteractions() != null) {
             renderSpeciesInteractions(writer, new TreeRenderProperties(context, this, childContextType), renderType);
         }
 
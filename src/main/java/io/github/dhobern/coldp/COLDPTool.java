@@ -17,7 +17,6 @@
 package io.github.dhobern.coldp;
 
 import static io.github.dhobern.utils.StringUtils.buildCSV;
-import static io.github.dhobern.utils.CollectionUtils.getKeyedSets;
 import io.github.dhobern.coldp.IdentifierPolicy.IdentifierType;
 import io.github.dhobern.coldp.TreeRenderProperties.ContextType;
 import io.github.dhobern.coldp.TreeRenderProperties.TreeRenderType;
@@ -40,7 +39,6 @@ import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -179,6 +177,18 @@ public class COLDPTool {
     
     private static boolean overwrite = false;
     
+    // Columns each command reads beyond the identifiers and foreign keys.
+    // Tables not listed are read in full; MODIFY and EDIT rewrite the 
+    // package so read everything.
+    private static final Projection VALIDATE_COLUMNS = new Projection()
+            .include(TableEnum.NAME, "scientificName", "authorship", "rank",
+                    "publishedInPage", "link", "remarks");
+    
+    private static final Projection TOHTML_COLUMNS = new Projection()
+            .include(TableEnum.TAXON, "scrutinizer", "scrutinizerDate", 
+                    "provisional", "extinct", "temporalRangeEnd", "lifezone", 
+                    "remarks");
+    
     
     /**
      *
@@ -236,8 +246,35 @@ public class COLDPTool {
         }
     }
     
+    private static COLDataPackage readCOLDP(Projection projection) {
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setParallel(true);
+        loadProperties.setBulkLink(true);
+        loadProperties.setSnapshot(true);
+        loadProperties.setPoolStrings(true);
+        loadProperties.setProjection(projection);
+        // Projected loads are for reading only, so any secondary tables 
+        // are read only if the command needs them
+        loadProperties.setLazyTables(projection != null);
+
+        COLDataPackage coldp = new COLDataPackage(coldpFolderName, null, ",", loadProperties);
+
+        if (verbose) {
+            for (Map.Entry<TableEnum, Long> entry : coldp.getLoadTimes().entrySet()) {
+                reportInfo("Read " + entry.getKey().getFileName() + " in " + entry.getValue() + " ms");
+            }
+            if (coldp.getStringPool() != null) {
+                for (String line : coldp.getStringPool().getReport()) {
+                    reportInfo("String pool " + line);
+                }
+            }
+        }
+        
+        return coldp;
+    }
+    
     private static void executeToHTML() {
-        COLDataPackage coldp = new COLDataPackage(coldpFolderName);
+        COLDataPackage coldp = readCOLDP(TOHTML_COLUMNS);
         
         boolean continueExecution = true;
 
@@ -290,14 +327,14 @@ public class COLDPTool {
     private static void executeEdit() {
         boolean continueProcessing  = true;
 
-        COLDataPackage coldp = new COLDataPackage(coldpFolderName);
+        COLDataPackage coldp = readCOLDP(null);
 
     }
     
     private static void executeModify() {
         boolean continueProcessing  = true;
 
-        COLDataPackage coldp = new COLDataPackage(coldpFolderName);
+        COLDataPackage coldp = readCOLDP(null);
 
         if (treatmentFileName != null) {
             continueProcessing = processTreatmentFile(coldp, treatmentFileName);
@@ -344,9 +381,6 @@ public class COLDPTool {
         try {
             detailReader = new CSVReader<>(fileName, ReferenceDetails.class, ",");
             List<ReferenceDetails> items = detailReader.getList();
-            Map<String,Set<COLDPName>> namesByScientificName = getKeyedSets(coldp.getNames().values(), COLDPName::getScientificName);
-            Map<String,Set<COLDPName>> namesByStems = getKeyedSets(coldp.getNames().values(), COLDPName::getNameStem);
-
             for (ReferenceDetails item : items) {
                 String scientificName = item.getScientificName();
 
@@ -354,14 +388,14 @@ public class COLDPTool {
                 COLDPName name = coldp.getNames().get(scientificName);
 
                 if (name == null) {
-                    Set<COLDPName> names = namesByScientificName.get(scientificName);
-                    if (names == null || names.size() == 0) {
-                        Set<COLDPName> namesByStem = namesByStems.get(COLDPName.trimScientificNameToStem(scientificName));
-                        if (namesByStem == null || namesByStem.size() == 0) {
+                    List<COLDPName> names = coldp.getNamesByScientificName(scientificName);
+                    if (names.size() == 0) {
+                        List<COLDPName> namesByStem = coldp.findNamesByStem(COLDPName.trimScientificNameToStem(scientificName));
+                        if (namesByStem.size() == 0) {
                             issues.add("Name " + scientificName + " not recognised");
                             continueProcessing = false;
                         } else if (namesByStem.size() == 1) {
-                            name = namesByStem.iterator().next();
+                            name = namesByStem.get(0);
                             issues.add("Name " + scientificName + " will be interpreted as " 
                                     + name.getScientificName() + " " + name.getAuthorship());
                         } else {
@@ -375,7 +409,7 @@ public class COLDPTool {
                             }
                         }
                     } else if (names.size() == 1) {
-                        name = names.iterator().next();
+                        name = names.get(0);
                     } else if (names.size() > 1) {
                         String message = "Name " + scientificName + " ambiguous - use ID for correct name:";
                         for (COLDPName n : names) {
@@ -424,7 +458,7 @@ public class COLDPTool {
     }
 
     private static void executeValidate() {
-        COLDataPackage coldp = new COLDataPackage(coldpFolderName);
+        COLDataPackage coldp = readCOLDP(VALIDATE_COLUMNS);
 
         boolean continueExecution = true;
 
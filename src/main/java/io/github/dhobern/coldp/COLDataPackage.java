@@ -7,26 +7,43 @@ package io.github.dhobern.coldp;
 
 import io.github.dhobern.coldp.COLDPReference.BibliographicSort;
 import io.github.dhobern.coldp.IdentifierPolicy.IdentifierType;
-import io.github.dhobern.utils.CSVReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,66 +57,121 @@ public class COLDataPackage {
     
     private Map<String,COLDPName> names;
     private Map<String,COLDPReference> references;
-    private List<COLDPNameReference> nameReferences;
+    private LazyTable<COLDPNameReference> nameReferences;
     private List<COLDPSynonym> synonyms;
-    private List<COLDPNameRelation> nameRelations;
+    private LazyTable<COLDPNameRelation> nameRelations;
     private Map<String,COLDPTaxon> taxa;
-    private List<COLDPDistribution> distributions;
+    private LazyTable<COLDPDistribution> distributions;
     private Map<String,COLDPRegion> regions;
-    private List<COLDPSpeciesInteraction> speciesInteractions;
+    private LazyTable<COLDPSpeciesInteraction> speciesInteractions;
     
     private IdentifierPolicy taxonIdentifierPolicy;
     private IdentifierPolicy nameIdentifierPolicy;
     private IdentifierPolicy referenceIdentifierPolicy;
     
+    private StringPool stringPool = null;
+    private boolean compactClassification = false;
+    private Projection projection = null;
+    private final ChangeTracker changes = new ChangeTracker();
+    private ScientificNameIndex scientificNames = null;
+    private RootTaxa rootTaxa = null;
+    private TaxonIntervals taxonIntervals = null;
+    private SubtreeStatistics subtreeStatistics = null;
+    private NameColumns nameColumns = null;
+    private ChangeListener nameColumnsListener = null;
+    private NameStemIndex nameStems = null;
+    private TextIndex<COLDPName> nameText = null;
+    private TextIndex<COLDPTaxon> taxonText = null;
+    private TextIndex<COLDPReference> referenceText = null;
+    private TextIndex<COLDPRegion> regionText = null;
+    private String sourceName = null;
+    private String sourceSeparator = null;
+    private final Map<TableEnum, FileTime> sourceTimes = new EnumMap<>(TableEnum.class);
+    private final Map<TableEnum, Long> loadTimes 
+            = Collections.synchronizedMap(new EnumMap<>(TableEnum.class));
+    
     public COLDPTaxon newTaxon() {
+        return newTaxon(taxonIdentifierPolicy.nextIdentifier());
+    }
+
+    COLDPTaxon newTaxon(String ID) {
+        taxonIdentifierPolicy.processInstance(ID);
         COLDPTaxon taxon = new COLDPTaxon();
-        taxon.setID(taxonIdentifierPolicy.nextIdentifier());
+        taxon.setID(ID);
+        if (compactClassification) {
+            taxon.compactClassification();
+        }
         taxa.put(taxon.getID(), taxon);
+        taxon.setTracker(changes);
+        changes.added(TableEnum.TAXON, taxon);
         return taxon;
     }
     
     public COLDPName newName() {
+        return newName(nameIdentifierPolicy.nextIdentifier());
+    }
+
+    COLDPName newName(String ID) {
+        nameIdentifierPolicy.processInstance(ID);
         COLDPName name = new COLDPName();
-        name.setID(nameIdentifierPolicy.nextIdentifier());
+        name.setID(ID);
         names.put(name.getID(), name);
+        name.setTracker(changes);
+        changes.added(TableEnum.NAME, name);
         return name;
     }
 
     public COLDPReference newReference() {
+        return newReference(referenceIdentifierPolicy.nextIdentifier());
+    }
+
+    COLDPReference newReference(String ID) {
+        referenceIdentifierPolicy.processInstance(ID);
         COLDPReference reference = new COLDPReference();
-        reference.setID(referenceIdentifierPolicy.nextIdentifier());
+        reference.setID(ID);
         references.put(reference.getID(), reference);
+        reference.setTracker(changes);
+        changes.added(TableEnum.REFERENCE, reference);
         return reference;
     }
 
     public COLDPNameReference newNameReference() {
         COLDPNameReference nameReference = new COLDPNameReference();
-        nameReferences.add(nameReference);
+        nameReferences.get().add(nameReference);
+        nameReference.setTracker(changes);
+        changes.added(TableEnum.NAMEREFERENCE, nameReference);
         return nameReference;
     }
     
     public COLDPNameRelation newNameRelation() {
         COLDPNameRelation nameRelation = new COLDPNameRelation();
-        nameRelations.add(nameRelation);
+        nameRelations.get().add(nameRelation);
+        nameRelation.setTracker(changes);
+        changes.added(TableEnum.NAMERELATION, nameRelation);
         return nameRelation;
     }
     
     public COLDPSynonym newSynonym() {
         COLDPSynonym synonym = new COLDPSynonym();
         synonyms.add(synonym);
+        synonym.setTracker(changes);
+        changes.added(TableEnum.SYNONYM, synonym);
         return synonym;
     }
     
     public COLDPDistribution newDistribution() {
         COLDPDistribution distribution = new COLDPDistribution();
-        distributions.add(distribution);
+        distributions.get().add(distribution);
+        distribution.setTracker(changes);
+        changes.added(TableEnum.DISTRIBUTION, distribution);
         return distribution;
     }
     
     public COLDPSpeciesInteraction newSpeciesInteraction() {
         COLDPSpeciesInteraction speciesInteraction = new COLDPSpeciesInteraction();
-        speciesInteractions.add(speciesInteraction);
+        speciesInteractions.get().add(speciesInteraction);
+        speciesInteraction.setTracker(changes);
+        changes.added(TableEnum.SPECIESINTERACTION, speciesInteraction);
         return speciesInteraction;
     }
     
@@ -107,6 +179,8 @@ public class COLDataPackage {
         COLDPRegion region = new COLDPRegion();
         region.setID(ID);
         regions.put(ID, region);
+        region.setTracker(changes);
+        changes.added(TableEnum.REGION, region);
         return region;
     }
     
@@ -183,7 +257,7 @@ public class COLDataPackage {
     }
 
     public List<COLDPNameReference> getNameReferences() {
-        return nameReferences;
+        return nameReferences.get();
     }
 
     public List<COLDPSynonym> getSynonyms() {
@@ -191,7 +265,7 @@ public class COLDataPackage {
     }
 
     public List<COLDPNameRelation> getNameRelations() {
-        return nameRelations;
+        return nameRelations.get();
     }
 
     public Map<String, COLDPTaxon> getTaxa() {
@@ -199,59 +273,177 @@ public class COLDataPackage {
     }
 
     public List<COLDPSpeciesInteraction> getSpeciesInteractions() {
-        return speciesInteractions;
+        return speciesInteractions.get();
     }
 
+    /**
+     * @return an unmodifiable view of the taxa with no parent, which follows
+     * later changes to the package
+     */
     public List<COLDPTaxon> getRootTaxa() {
-        List<COLDPTaxon> rootTaxa = new ArrayList<>();
-        for (COLDPTaxon taxon : taxa.values()) {
-            if (taxon.getParent() == null) {
-                rootTaxa.add(taxon);
-            }
+        return rootTaxa.getView();
+    }
+
+    /**
+     * @return true if taxon lies anywhere below ancestor in the tree
+     */
+    public boolean isDescendant(COLDPTaxon taxon, COLDPTaxon ancestor) {
+        return getTaxonIntervals().isDescendant(taxon, ancestor);
+    }
+
+    /**
+     * @return the number of ancestors of taxon, or -1 if it is not in the
+     * package
+     */
+    public int getDepth(COLDPTaxon taxon) {
+        return getTaxonIntervals().getDepth(taxon);
+    }
+
+    /**
+     * @return taxon followed by all its descendants, each before its 
+     * children, or an empty stream if taxon is not in the package
+     */
+    public Stream<COLDPTaxon> subtree(COLDPTaxon taxon) {
+        return getTaxonIntervals().subtree(taxon);
+    }
+
+    /**
+     * @return the lowest taxon which is or contains both first and second, 
+     * or null if they have no common ancestor
+     */
+    public COLDPTaxon getCommonAncestor(COLDPTaxon first, COLDPTaxon second) {
+        return getTaxonIntervals().getCommonAncestor(first, second);
+    }
+
+    /**
+     * @return the lowest taxon which is or contains all of taxa, or null if
+     * there is none
+     */
+    public COLDPTaxon getCommonAncestor(Collection<COLDPTaxon> taxa) {
+        return getTaxonIntervals().getCommonAncestor(taxa);
+    }
+
+    /**
+     * Batch form of getCommonAncestor for pairs of taxa held in two lists
+     * of the same length.
+     * 
+     * @return the common ancestor, or null, for each pair in turn
+     */
+    public List<COLDPTaxon> getCommonAncestors(List<COLDPTaxon> first, List<COLDPTaxon> second) {
+        if (first.size() != second.size()) {
+            throw new IllegalArgumentException("Lists of taxa differ in length: " 
+                    + first.size() + " and " + second.size());
+        }
+        TaxonIntervals intervals = getTaxonIntervals();
+        List<COLDPTaxon> ancestors = new ArrayList<>(first.size());
+        for (int i = 0; i < first.size(); i++) {
+            ancestors.add(intervals.getCommonAncestor(first.get(i), second.get(i)));
         }
-        return rootTaxa;
+        return ancestors;
     }
 
-    public COLDPName getNameByScientificName(String scientificName) {
-        for (COLDPName name : names.values()) {
-            if (    name.getScientificName() != null &&
-                    name.getScientificName().equals(scientificName)) {
-                return name;
-            }
+    /**
+     * @return the taxa from first up to their common ancestor and down to 
+     * second, or an empty list if they have no common ancestor
+     */
+    public List<COLDPTaxon> getPath(COLDPTaxon first, COLDPTaxon second) {
+        return getTaxonIntervals().getPath(first, second);
+    }
+
+    private TaxonIntervals getTaxonIntervals() {
+        if (taxonIntervals == null) {
+            taxonIntervals = new TaxonIntervals(getRootTaxa());
+            changes.addListener(taxonIntervals);
         }
-        return null;
+        return taxonIntervals;
     }
 
-    public COLDPTaxon getTaxonByScientificName(String name) {
-        for (COLDPTaxon taxon : taxa.values()) {
-            if (taxon.getName().getScientificName().equals(name)) {
-                return taxon;
+    /**
+     * Counts over taxon and its descendants. The totals are kept as the 
+     * package is edited, so only taxa changed since the last call are 
+     * revisited.
+     * 
+     * @return the counts, or null if taxon is not in the package
+     */
+    public TaxonStatistics getStatistics(COLDPTaxon taxon) {
+        if (subtreeStatistics == null) {
+            subtreeStatistics = new SubtreeStatistics(taxa.values());
+            changes.addListener(subtreeStatistics);
+        }
+        return subtreeStatistics.get(taxon);
+    }
+
+    /**
+     * @return column-wise copy of the name table for scans over all names,
+     * rebuilt on the next call after any name is added, edited or deleted
+     */
+    public NameColumns getNameColumns() {
+        if (nameColumns == null) {
+            if (nameColumnsListener == null) {
+                nameColumnsListener = new ChangeListener() {
+                    @Override
+                    public void added(TableEnum table, Object entity) {
+                        if (table == TableEnum.NAME) {
+                            nameColumns = null;
+                        }
+                    }
+
+                    @Override
+                    public void modified(TableEnum table, Object entity, 
+                            String column, Object oldValue, Object newValue) {
+                        if (table == TableEnum.NAME) {
+                            nameColumns = null;
+                        }
+                    }
+
+                    @Override
+                    public void deleted(TableEnum table, Object entity) {
+                        if (table == TableEnum.NAME) {
+                            nameColumns = null;
+                        }
+                    }
+                };
+                changes.addListener(nameColumnsListener);
             }
+            nameColumns = new NameColumns(names.values());
         }
-        return null;
+        return nameColumns;
+    }
+
+    public COLDPName getNameByScientificName(String scientificName) {
+        return scientificNames.getName(scientificName);
+    }
+
+    /**
+     * @return all names with the scientific name, including homonyms
+     */
+    public List<COLDPName> getNamesByScientificName(String scientificName) {
+        return scientificNames.getNames(scientificName);
+    }
+
+    public COLDPTaxon getTaxonByScientificName(String name) {
+        return scientificNames.getTaxon(name);
     }
 
     public List<COLDPSynonym> findSynonyms(Optional<COLDPTaxon> taxon,
             Optional<COLDPName> name) {
-        return synonyms.stream().filter(s -> {
-            if (taxon != null && !taxon.equals(Optional.ofNullable(s.getTaxon()))) return false;
-            if (name != null && !name.equals(Optional.ofNullable(s.getName()))) return false;
-            return true;
-        }).collect(Collectors.toList());
+        return new RelationQuery<>(synonyms)
+                .where(taxon, COLDPSynonym::getTaxon, COLDPTaxon::getSynonyms)
+                .where(name, COLDPSynonym::getName, COLDPName::getSynonyms)
+                .list();
     }
 
     public List<COLDPDistribution> getDistributions() {
-        return distributions;
+        return distributions.get();
     }
     
     public List<COLDPDistribution> findDistributions(Optional<COLDPTaxon> taxon,
             Optional<COLDPRegion> region, Optional<COLDPReference> reference) {
-        return distributions.stream().filter(d -> {
-            if (taxon != null && !taxon.equals(Optional.ofNullable(d.getTaxon()))) return false;
-            if (region != null && !region.equals(Optional.ofNullable(d.getRegion()))) return false;
-            if (reference != null && !reference.equals(Optional.ofNullable(d.getReference()))) return false;
-            return true;
-        }).collect(Collectors.toList());
+        return new RelationQuery<>(getDistributions())
+                .where(taxon, COLDPDistribution::getTaxon, COLDPTaxon::getDistributionRows)
+                .where(region, COLDPDistribution::getRegion, COLDPRegion::getDistributionRows)
+                .where(reference, COLDPDistribution::getReference, COLDPReference::getDistributions)
+                .list();
     }
 
     public Map<String, COLDPRegion> getRegions() {
@@ -260,6 +452,7 @@ public class COLDataPackage {
     
     public boolean deleteReference(COLDPReference r) {
         if (r != null) {
+            changes.deleting(TableEnum.REFERENCE, r, false);
             for (COLDPNameReference nr : r.getNameReferences()) {
                 deleteNameReference(nr);
             }
@@ -279,6 +472,8 @@ public class COLDataPackage {
                 d.setReference(null);
             }
             references.remove(r.getID());
+            changes.deleted(TableEnum.REFERENCE, r);
+            r.setTracker(null);
             return true;
         }
         
@@ -287,9 +482,12 @@ public class COLDataPackage {
 
     public boolean deleteNameReference(COLDPNameReference nr) {
         if (nr != null) {
+            changes.deleting(TableEnum.NAMEREFERENCE, nr, false);
             nr.setName(null);
             nr.setReference(null);
-            nameReferences.remove(nr);
+            nameReferences.get().remove(nr);
+            changes.deleted(TableEnum.NAMEREFERENCE, nr);
+            nr.setTracker(null);
             return true;
         }
         
@@ -298,10 +496,13 @@ public class COLDataPackage {
 
     public boolean deleteNameRelation(COLDPNameRelation nr) {
         if (nr != null) {
+            changes.deleting(TableEnum.NAMERELATION, nr, false);
             nr.setName(null);
             nr.setRelatedName(null);
             nr.setReference(null);
-            nameRelations.remove(nr);
+            nameRelations.get().remove(nr);
+            changes.deleted(TableEnum.NAMERELATION, nr);
+            nr.setTracker(null);
             return true;
         }
         
@@ -310,10 +511,13 @@ public class COLDataPackage {
 
     public boolean deleteDistribution(COLDPDistribution d) {
         if (d != null) {
+            changes.deleting(TableEnum.DISTRIBUTION, d, false);
             d.setTaxon(null);
             d.setRegion(null);
             d.setReference(null);
-            distributions.remove(d);
+            distributions.get().remove(d);
+            changes.deleted(TableEnum.DISTRIBUTION, d);
+            d.setTracker(null);
             return true;
         }
         
@@ -322,6 +526,7 @@ public class COLDataPackage {
 
     public boolean deleteSynonym(COLDPSynonym syn) {
         if (syn != null) {
+            changes.deleting(TableEnum.SYNONYM, syn, false);
             if (syn.getTaxon() != null) {
                 syn.getTaxon().deregisterSynonym(syn);
             }
@@ -332,6 +537,8 @@ public class COLDataPackage {
             syn.setName(null);
             syn.setReference(null);
             synonyms.remove(syn);
+            changes.deleted(TableEnum.SYNONYM, syn);
+            syn.setTracker(null);
             return true;
         }
         
@@ -340,10 +547,13 @@ public class COLDataPackage {
     
     public boolean deleteSpeciesInteraction(COLDPSpeciesInteraction si) {
         if (si != null) {
+            changes.deleting(TableEnum.SPECIESINTERACTION, si, false);
             si.setTaxon(null);
             si.setRelatedTaxon(null);
             si.setReference(null);
-            speciesInteractions.remove(si);
+            speciesInteractions.get().remove(si);
+            changes.deleted(TableEnum.SPECIESINTERACTION, si);
+            si.setTracker(null);
             return true;
         }
         
@@ -358,6 +568,7 @@ public class COLDataPackage {
         if (t != null) {
             COLDPTaxon taxon = taxa.get(t.getID());
             if (taxon != null && t == taxon) {
+                changes.deleting(TableEnum.TAXON, taxon, recurse);
                 COLDPTaxon parent = taxon.getParent();
                 Set<COLDPTaxon> children = taxon.getChildren();
                 while (children != null && children.size() > 0) {
@@ -368,9 +579,9 @@ public class COLDataPackage {
                     }
                 }
                 taxon.setReference(null);
-                Set<COLDPDistribution> dists = taxon.getDistributions();
+                List<COLDPDistribution> dists = taxon.getDistributionRows();
                 while (dists != null && dists.size() > 0) {
-                    deleteDistribution(dists.iterator().next());
+                    deleteDistribution(dists.get(0));
                 }
                 List<COLDPSpeciesInteraction> sis = taxon.getSpeciesInteractions();
                 while (sis != null && sis.size() > 0) {
@@ -385,6 +596,8 @@ public class COLDataPackage {
                 }
                 taxon.setName(null);
                 taxa.remove(taxon.getID());
+                changes.deleted(TableEnum.TAXON, taxon);
+                taxon.setTracker(null);
                 return true;
             }
         }
@@ -400,6 +613,7 @@ public class COLDataPackage {
         if (n != null) {
             COLDPName name = names.get(n.getID());
             if (name != null && n == name) {
+                changes.deleting(TableEnum.NAME, name, recurse);
                 List<COLDPSynonym> syns = name.getSynonyms();
                 while (syns != null && syns.size() > 0) {
                     deleteSynonym(syns.get(0));
@@ -426,6 +640,8 @@ public class COLDataPackage {
                 }
                 name.setBasionym(null);
                 names.remove(name.getID());
+                changes.deleted(TableEnum.NAME, name);
+                name.setTracker(null);
                 return true;
             }
         }
@@ -449,204 +665,696 @@ public class COLDataPackage {
     }
 
     public COLDataPackage(String folderName, IdentifierType identifierType, String separator) {
-        if (!folderName.endsWith("/")) {
-            folderName += "/";
+        this(folderName, identifierType, separator, new LoadProperties());
+    }
+
+    /**
+     * @param folderName folder holding the package tables, or a ZIP archive
+     * containing them
+     */
+    public COLDataPackage(String folderName, IdentifierType identifierType, 
+            String separator, LoadProperties loadProperties) {
+        initIdentifierPolicies(identifierType);
+
+        try (PackageSource source = PackageSource.open(folderName)) {
+            load(source, separator, loadProperties);
+            trackChanges();
+        } catch (IOException ex) {
+            java.util.logging.Logger.getLogger(COLDataPackage.class.getName()).log(Level.SEVERE, null, ex);
         }
-        
+    }
+
+    public COLDataPackage(PackageSource source, IdentifierType identifierType, 
+            String separator, LoadProperties loadProperties) throws IOException {
+        initIdentifierPolicies(identifierType);
+        load(source, separator, loadProperties);
+        trackChanges();
+    }
+
+    private void initIdentifierPolicies(IdentifierType identifierType) {
         taxonIdentifierPolicy = new IdentifierPolicy(identifierType);
         nameIdentifierPolicy = new IdentifierPolicy(identifierType);
         referenceIdentifierPolicy = new IdentifierPolicy(identifierType);
+    }
 
-        try {
-            CSVReader<COLDPReference> referenceReader 
-                    = new CSVReader<>(folderName + "reference.csv", COLDPReference.class, separator);
-            references = referenceReader.getMap(COLDPReference::getID);
-
-            CSVReader<COLDPName> nameReader
-                    = new CSVReader<>(folderName + "name.csv", COLDPName.class, separator);
-            names = nameReader.getMap(COLDPName::getID);
-            
-            if (new File(folderName + "namereference.csv").exists()) {
-                CSVReader<COLDPNameReference> nameReferenceReader 
-                        = new CSVReader<>(folderName + "namereference.csv", COLDPNameReference.class, separator);
-                nameReferences = nameReferenceReader.getList();
-            } else {
-                nameReferences = new ArrayList<>();
+    private void load(PackageSource source, String separator, 
+            LoadProperties loadProperties) throws IOException {
+        sourceName = source.getName();
+        sourceSeparator = separator;
+        compactClassification = loadProperties.isCompactClassification();
+        for (TableEnum table : TableEnum.values()) {
+            if (source.hasTable(table)) {
+                sourceTimes.put(table, Files.getLastModifiedTime(source.getTable(table)));
             }
+        }
 
-            if (new File(folderName + "namerelation.csv").exists()) {
-                CSVReader<COLDPNameRelation> nameRelationReader 
-                        = new CSVReader<>(folderName + "namerelation.csv", COLDPNameRelation.class, separator);
-                nameRelations = nameRelationReader.getList();
-            } else {
-                nameRelations = new ArrayList<>();
-            }
- 
-            CSVReader<COLDPTaxon> taxonReader 
-                    = new CSVReader<>(folderName + "taxon.csv", COLDPTaxon.class, separator);
-            taxa = taxonReader.getMap(COLDPTaxon::getID);
+        PackageSnapshot snapshot = loadProperties.isSnapshot() 
+                ? new PackageSnapshot(source, separator) : null;
+        if (snapshot != null && snapshot.isCurrent() && readSnapshot(snapshot)) {
+            return;
+        }
 
-            CSVReader<COLDPSynonym> synonymReader = new CSVReader<>(folderName + "synonym.csv", COLDPSynonym.class, separator);
-            synonyms = synonymReader.getList();
- 
-            if (new File(folderName + "region.csv").exists()) {
-                CSVReader<COLDPRegion> regionReader 
-                        = new CSVReader<>(folderName + "region.csv", COLDPRegion.class, separator);
-                regions = regionReader.getMap(COLDPRegion::getID);
-            } else {
-                regions = new HashMap<>();
-            }
+        projection = loadProperties.getProjection();
+        boolean lazy = loadProperties.isLazyTables();
+        if (loadProperties.isPoolStrings()) {
+            stringPool = new StringPool();
+        }
 
-            if (new File(folderName + "distribution.csv").exists()) {
-                CSVReader<COLDPDistribution> distributionReader 
-                        = new CSVReader<>(folderName + "distribution.csv", COLDPDistribution.class, separator);
-                distributions = distributionReader.getList();
-            } else {
-                distributions = new ArrayList<>();
+        // The tables are independent until linking starts, so in parallel 
+        // mode each is parsed as a separate task (also for archive entries) 
+        // and the results joined here in the same order as the sequential 
+        // reads
+        ExecutorService executor = loadProperties.isParallel() 
+                ? Executors.newFixedThreadPool(loadProperties.getThreadCount())
+                : null;
+
+        try {
+            Future<List<COLDPReference>> referenceTable 
+                    = submit(executor, () -> readTable(source, TableEnum.REFERENCE, RowBinders.REFERENCE, separator, projection));
+            Future<List<COLDPName>> nameTable 
+                    = submit(executor, () -> readTable(source, TableEnum.NAME, RowBinders.NAME, separator, projection));
+            Future<List<COLDPNameReference>> nameReferenceTable = lazy ? null
+                    : submit(executor, () -> readTable(source, TableEnum.NAMEREFERENCE, RowBinders.NAMEREFERENCE, separator, projection));
+            Future<List<COLDPNameRelation>> nameRelationTable = lazy ? null
+                    : submit(executor, () -> readTable(source, TableEnum.NAMERELATION, RowBinders.NAMERELATION, separator, projection));
+            Future<List<COLDPTaxon>> taxonTable 
+                    = submit(executor, () -> readTable(source, TableEnum.TAXON, RowBinders.TAXON, separator, projection));
+            Future<List<COLDPSynonym>> synonymTable 
+                    = submit(executor, () -> readTable(source, TableEnum.SYNONYM, RowBinders.SYNONYM, separator, projection));
+            Future<List<COLDPRegion>> regionTable 
+                    = submit(executor, () -> readTable(source, TableEnum.REGION, RowBinders.REGION, separator, projection));
+            Future<List<COLDPDistribution>> distributionTable = lazy ? null
+                    : submit(executor, () -> readTable(source, TableEnum.DISTRIBUTION, RowBinders.DISTRIBUTION, separator, projection));
+            Future<List<COLDPSpeciesInteraction>> speciesInteractionTable = lazy ? null
+                    : submit(executor, () -> readTable(source, TableEnum.SPECIESINTERACTION, RowBinders.SPECIESINTERACTION, separator, projection));
+
+            references = toMap(join(referenceTable), COLDPReference::getID, 
+                    newEntityMap(referenceIdentifierPolicy));
+            names = toMap(join(nameTable), COLDPName::getID, 
+                    newEntityMap(nameIdentifierPolicy));
+            nameReferences = lazy 
+                    ? new LazyTable<>(() -> readLazily(TableEnum.NAMEREFERENCE, RowBinders.NAMEREFERENCE, 
+                            this::resolveNameReference, COLDPNameReference::registerLinks,
+                            nr -> nr.setTracker(changes)))
+                    : new LazyTable<>(join(nameReferenceTable));
+            nameRelations = lazy 
+                    ? new LazyTable<>(() -> readLazily(TableEnum.NAMERELATION, RowBinders.NAMERELATION, 
+                            this::resolveNameRelation, COLDPNameRelation::registerLinks,
+                            nr -> nr.setTracker(changes)))
+                    : new LazyTable<>(join(nameRelationTable));
+            taxa = toMap(join(taxonTable), COLDPTaxon::getID, 
+                    newEntityMap(taxonIdentifierPolicy));
+            synonyms = join(synonymTable);
+            regions = toMap(join(regionTable), COLDPRegion::getID, new HashMap<>());
+            distributions = lazy 
+                    ? new LazyTable<>(() -> readLazily(TableEnum.DISTRIBUTION, RowBinders.DISTRIBUTION, 
+                            this::resolveDistribution, COLDPDistribution::registerLinks,
+                            d -> d.setTracker(changes)))
+                    : new LazyTable<>(join(distributionTable));
+            speciesInteractions = lazy 
+                    ? new LazyTable<>(() -> readLazily(TableEnum.SPECIESINTERACTION, RowBinders.SPECIESINTERACTION, 
+                            this::resolveSpeciesInteraction, COLDPSpeciesInteraction::registerLinks,
+                            si -> si.setTracker(changes)))
+                    : new LazyTable<>(join(speciesInteractionTable));
+            
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
             }
             
-            if (new File(folderName + "speciesinteraction.csv").exists()) {
-                CSVReader<COLDPSpeciesInteraction> speciesInteractionReader 
-                        = new CSVReader<>(folderName + "speciesinteraction.csv", COLDPSpeciesInteraction.class, separator);
-                speciesInteractions = speciesInteractionReader.getList();
+            if (loadProperties.isBulkLink()) {
+                linkTablesInBulk(loadProperties.getThreadCount());
             } else {
-                speciesInteractions = new ArrayList<>();
+                linkTables();
             }
             
-            for (COLDPReference reference : references.values()) {
-                referenceIdentifierPolicy.processInstance(reference.getID());
+            // A projected or lazy load is incomplete so must not replace the 
+            // snapshot
+            if (snapshot != null && projection == null && !lazy) {
+                writeSnapshot(snapshot);
             }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+    
+    /*
+     * Entities report their own changes once loading is complete, so the
+     * setter calls made while linking are not recorded. The indexes built
+     * here are kept current from those reports. Compact taxa drop their
+     * classification columns here, once every parent is linked. Tables not 
+     * yet loaded are left to be tracked as they load.
+     */
+    private void trackChanges() {
+        if (compactClassification) {
+            taxa.values().forEach(COLDPTaxon::compactClassification);
+        }
+
+        references.values().forEach(r -> r.setTracker(changes));
+        names.values().forEach(n -> n.setTracker(changes));
+        nameReferences.getLoaded().forEach(nr -> nr.setTracker(changes));
+        nameRelations.getLoaded().forEach(nr -> nr.setTracker(changes));
+        taxa.values().forEach(t -> t.setTracker(changes));
+        synonyms.forEach(syn -> syn.setTracker(changes));
+        regions.values().forEach(r -> r.setTracker(changes));
+        distributions.getLoaded().forEach(d -> d.setTracker(changes));
+        speciesInteractions.getLoaded().forEach(si -> si.setTracker(changes));
+        changes.setTableLoader(this::loadTable);
+
+        scientificNames = new ScientificNameIndex(names.values(), taxa.values());
+        changes.addListener(scientificNames);
+        rootTaxa = new RootTaxa(taxa.values());
+        changes.addListener(rootTaxa);
+    }
+
+    private void linkTables() {
+        for (COLDPReference reference : references.values()) {
+            referenceIdentifierPolicy.processInstance(reference.getID());
+        }
  
-            for(COLDPName name : names.values()) {
-                nameIdentifierPolicy.processInstance(name.getID());
-                if (name.getBasionymID() != null) {
-                    COLDPName basionym = names.get(name.getBasionymID());
-                    if (basionym == null) {
-                        LOG.error("Basionym " + name.getBasionymID() + " not found for name " + name.getID());
-                    } else {
-                        name.setBasionym(basionym);
-                    }
-                }
-                if (name.getReferenceID() != null) {
-                    COLDPReference reference = references.get(name.getReferenceID());
-                    if (reference == null) {
-                        LOG.error("Reference " + name.getReferenceID() + " not found for name " + name.getID());
-                    } else {
-                        name.setReference(reference);
-                    }
+        for(COLDPName name : names.values()) {
+            nameIdentifierPolicy.processInstance(name.getID());
+            if (name.getBasionymID() != null) {
+                COLDPName basionym = names.get(name.getBasionymID());
+                if (basionym == null) {
+                    LOG.error("Basionym " + name.getBasionymID() + " not found for name " + name.getID());
+                } else {
+                    name.setBasionym(basionym);
                 }
             }
-            
-            for(COLDPNameReference nr : nameReferences) {
-                nr.setName(names.get(nr.getNameID()));
-                nr.setReference(references.get(nr.getReferenceID()));
+            if (name.getReferenceID() != null) {
+                COLDPReference reference = references.get(name.getReferenceID());
+                if (reference == null) {
+                    LOG.error("Reference " + name.getReferenceID() + " not found for name " + name.getID());
+                } else {
+                    name.setReference(reference);
+                }
             }
-            
-            for (COLDPNameRelation r: nameRelations) {
-                r.setName(names.get(r.getNameID()));
-                r.setRelatedName(names.get(r.getRelatedNameID()));
-                if (r.getReferenceID() != null) {
-                    COLDPReference reference = references.get(r.getReferenceID());
-                    if (reference == null) {
-                        LOG.error("Reference " + r.getReferenceID() + " not found for nameRelation " + r.toString());
-                    } else {
-                        r.setReference(reference);
-                    }
+        }
+        
+        for(COLDPNameReference nr : nameReferences.getLoaded()) {
+            nr.setName(names.get(nr.getNameID()));
+            nr.setReference(references.get(nr.getReferenceID()));
+        }
+        
+        for (COLDPNameRelation r: nameRelations.getLoaded()) {
+            r.setName(names.get(r.getNameID()));
+            r.setRelatedName(names.get(r.getRelatedNameID()));
+            if (r.getReferenceID() != null) {
+                COLDPReference reference = references.get(r.getReferenceID());
+                if (reference == null) {
+                    LOG.error("Reference " + r.getReferenceID() + " not found for nameRelation " + r.toString());
+                } else {
+                    r.setReference(reference);
                 }
             }
-            
-            for(COLDPTaxon taxon : taxa.values()) {
-                taxonIdentifierPolicy.processInstance(taxon.getID());
-                // Scientific name is used in sorting taxa so set this first
-                taxon.setName(names.get(taxon.getNameID()));
-                if (taxon.getParentID() != null) {
-                    COLDPTaxon parent = taxa.get(taxon.getParentID());
-                    if (parent == null) {
-                        LOG.error("Parent " + taxon.getParentID() + " not found for taxon " + taxon.getID());
-                    } else {
-                        taxon.setParent(parent);
-                    }
+        }
+        
+        for(COLDPTaxon taxon : taxa.values()) {
+            taxonIdentifierPolicy.processInstance(taxon.getID());
+            // Scientific name is used in sorting taxa so set this first
+            taxon.setName(names.get(taxon.getNameID()));
+            if (taxon.getParentID() != null) {
+                COLDPTaxon parent = taxa.get(taxon.getParentID());
+                if (parent == null) {
+                    LOG.error("Parent " + taxon.getParentID() + " not found for taxon " + taxon.getID());
+                } else {
+                    taxon.setParent(parent);
                 }
-                if (taxon.getReferenceID() != null) {
-                    COLDPReference reference = references.get(taxon.getReferenceID());
-                    if (reference == null) {
-                        LOG.error("Reference " + taxon.getReferenceID() + " not found for taxon " + taxon.getID());
-                    } else {
-                        taxon.setReference(reference);
-                    }
+            }
+            if (taxon.getReferenceID() != null) {
+                COLDPReference reference = references.get(taxon.getReferenceID());
+                if (reference == null) {
+                    LOG.error("Reference " + taxon.getReferenceID() + " not found for taxon " + taxon.getID());
+                } else {
+                    taxon.setReference(reference);
                 }
             }
-            
-            for(COLDPSynonym synonym : synonyms) {
-                if (synonym.getTaxonID() != null) {
-                     COLDPTaxon taxon = taxa.get(synonym.getTaxonID());
-                    if (taxon == null) {
-                        LOG.error("Taxon " + synonym.getTaxonID() + " not found for synonym");
-                    } else {
-                        synonym.setTaxon(taxon);
-                    }
+        }
+        
+        for(COLDPSynonym synonym : synonyms) {
+            if (synonym.getTaxonID() != null) {
+                 COLDPTaxon taxon = taxa.get(synonym.getTaxonID());
+                if (taxon == null) {
+                    LOG.error("Taxon " + synonym.getTaxonID() + " not found for synonym");
+                } else {
+                    synonym.setTaxon(taxon);
                 }
-                if (synonym.getNameID() != null) {
-                     COLDPName name = names.get(synonym.getNameID());
-                    if (name == null) {
-                        LOG.error("Name " + synonym.getNameID() + " not found for synonym " + synonym.toString());
-                    } else {
-                        synonym.setName(name);
-                    }
+            }
+            if (synonym.getNameID() != null) {
+                 COLDPName name = names.get(synonym.getNameID());
+                if (name == null) {
+                    LOG.error("Name " + synonym.getNameID() + " not found for synonym " + synonym.toString());
+                } else {
+                    synonym.setName(name);
                 }
-                if (synonym.getReferenceID() != null) {
-                    COLDPReference reference = references.get(synonym.getReferenceID());
-                    if (reference == null) {
-                        LOG.error("Reference " + synonym.getReferenceID() + " not found for synonym " + synonym.toString());
-                    } else {
-                        synonym.setReference(reference);
-                    }
+            }
+            if (synonym.getReferenceID() != null) {
+                COLDPReference reference = references.get(synonym.getReferenceID());
+                if (reference == null) {
+                    LOG.error("Reference " + synonym.getReferenceID() + " not found for synonym " + synonym.toString());
+                } else {
+                    synonym.setReference(reference);
                 }
             }
-            
-            for (COLDPDistribution distribution : distributions) {
-                distribution.setRegion(regions.get(distribution.getArea()));
-                distribution.setTaxon(taxa.get(distribution.getTaxonID()));
-                if (distribution.getReferenceID() != null) {
-                    COLDPReference reference = references.get(distribution.getReferenceID());
-                    if (reference == null) {
-                        LOG.error("Distribution " + distribution.getReferenceID() + " not found for distribution " + distribution.toString());
-                    } else {
-                        distribution.setReference(reference);
-                    }
+        }
+        
+        for (COLDPDistribution distribution : distributions.getLoaded()) {
+            distribution.setRegion(regions.get(distribution.getArea()));
+            distribution.setTaxon(taxa.get(distribution.getTaxonID()));
+            if (distribution.getReferenceID() != null) {
+                COLDPReference reference = references.get(distribution.getReferenceID());
+                if (reference == null) {
+                    LOG.error("Distribution " + distribution.getReferenceID() + " not found for distribution " + distribution.toString());
+                } else {
+                    distribution.setReference(reference);
                 }
             }
+        }
 
-            for (COLDPSpeciesInteraction speciesInteraction : speciesInteractions) {
-                speciesInteraction.setTaxon(taxa.get(speciesInteraction.getTaxonID()));
-                if (speciesInteraction.getRelatedTaxonID() != null) {
-                    COLDPTaxon relatedTaxon = taxa.get(speciesInteraction.getRelatedTaxonID());
-                    if (relatedTaxon == null) {
-                        LOG.error("SpeciesInteraction " + speciesInteraction.getRelatedTaxonID() + " not found for speciesInteraction " + speciesInteraction.toString());
-                    } else {
-                        speciesInteraction.setRelatedTaxon(relatedTaxon);
-                    }
+        for (COLDPSpeciesInteraction speciesInteraction : speciesInteractions.getLoaded()) {
+            speciesInteraction.setTaxon(taxa.get(speciesInteraction.getTaxonID()));
+            if (speciesInteraction.getRelatedTaxonID() != null) {
+                COLDPTaxon relatedTaxon = taxa.get(speciesInteraction.getRelatedTaxonID());
+                if (relatedTaxon == null) {
+                    LOG.error("SpeciesInteraction " + speciesInteraction.getRelatedTaxonID() + " not found for speciesInteraction " + speciesInteraction.toString());
+                } else {
+                    speciesInteraction.setRelatedTaxon(relatedTaxon);
                 }
-                if (speciesInteraction.getReferenceID() != null) {
-                    COLDPReference reference = references.get(speciesInteraction.getReferenceID());
-                    if (reference == null) {
-                        LOG.error("SpeciesInteraction " + speciesInteraction.getReferenceID() + " not found for speciesInteraction " + speciesInteraction.toString());
-                    } else {
-                        speciesInteraction.setReference(reference);
-                    }
+            }
+            if (speciesInteraction.getReferenceID() != null) {
+                COLDPReference reference = references.get(speciesInteraction.getReferenceID());
+                if (reference == null) {
+                    LOG.error("SpeciesInteraction " + speciesInteraction.getReferenceID() + " not found for speciesInteraction " + speciesInteraction.toString());
+                } else {
+                    speciesInteraction.setReference(reference);
                 }
             }
-        } catch (UnsupportedEncodingException | FileNotFoundException ex) {
-            java.util.logging.Logger.getLogger(COLDataPackage.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
+
+    /*
+     * Bulk alternative to linkTables(). Resolving the foreign keys only
+     * writes to the object holding them, so this is done for every table in
+     * parallel. Registering back-references mutates the shared target
+     * collections, so it follows as a single sequential pass in row order.
+     */
+    private void linkTablesInBulk(int threadCount) {
+        processIdentifiers();
+
+        List<COLDPName> nameList = new ArrayList<>(names.values());
+        List<COLDPTaxon> taxonList = new ArrayList<>(taxa.values());
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            pool.submit(() -> ForkJoinTask.invokeAll(
+                    new LinkTask<>(nameList, this::resolveName),
+                    new LinkTask<>(nameReferences.getLoaded(), this::resolveNameReference),
+                    new LinkTask<>(nameRelations.getLoaded(), this::resolveNameRelation),
+                    new LinkTask<>(taxonList, this::resolveTaxon),
+                    new LinkTask<>(synonyms, this::resolveSynonym),
+                    new LinkTask<>(distributions.getLoaded(), this::resolveDistribution),
+                    new LinkTask<>(speciesInteractions.getLoaded(), this::resolveSpeciesInteraction)
+            )).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        registerLinks();
+    }
+
+    private void processIdentifiers() {
+        for (COLDPReference reference : references.values()) {
+            referenceIdentifierPolicy.processInstance(reference.getID());
+        }
+        for (COLDPName name : names.values()) {
+            nameIdentifierPolicy.processInstance(name.getID());
+        }
+        for (COLDPTaxon taxon : taxa.values()) {
+            taxonIdentifierPolicy.processInstance(taxon.getID());
+        }
+    }
+
+    private void registerLinks() {
+        names.values().forEach(COLDPName::registerLinks);
+        nameReferences.getLoaded().forEach(COLDPNameReference::registerLinks);
+        nameRelations.getLoaded().forEach(COLDPNameRelation::registerLinks);
+        taxa.values().forEach(COLDPTaxon::registerLinks);
+        synonyms.forEach(COLDPSynonym::registerLinks);
+        distributions.getLoaded().forEach(COLDPDistribution::registerLinks);
+        speciesInteractions.getLoaded().forEach(COLDPSpeciesInteraction::registerLinks);
+    }
+
+    /*
+     * Replaces the tables with those held in a current snapshot. Links in the
+     * snapshot are already resolved, so only the back-references need to be
+     * registered.
+     */
+    private boolean readSnapshot(PackageSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        try {
+            snapshot.read();
+        } catch (IOException | RuntimeException ex) {
+            LOG.warn("Could not read snapshot " + snapshot.getFile() + ", reading CSV files instead", ex);
+            return false;
+        }
+
+        references = toMap(snapshot.getReferences(), COLDPReference::getID, 
+                newEntityMap(referenceIdentifierPolicy));
+        names = toMap(snapshot.getNames(), COLDPName::getID, 
+                newEntityMap(nameIdentifierPolicy));
+        nameReferences = new LazyTable<>(snapshot.getNameReferences());
+        nameRelations = new LazyTable<>(snapshot.getNameRelations());
+        taxa = toMap(snapshot.getTaxa(), COLDPTaxon::getID, 
+                newEntityMap(taxonIdentifierPolicy));
+        synonyms = snapshot.getSynonyms();
+        regions = toMap(snapshot.getRegions(), COLDPRegion::getID, new HashMap<>());
+        distributions = new LazyTable<>(snapshot.getDistributions());
+        speciesInteractions = new LazyTable<>(snapshot.getSpeciesInteractions());
+
+        processIdentifiers();
+        registerLinks();
+
+        LOG.info("Read snapshot " + snapshot.getFile() + " in " + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    private void writeSnapshot(PackageSnapshot snapshot) {
+        try {
+            snapshot.write(this);
+        } catch (IOException ex) {
+            LOG.warn("Could not write snapshot " + snapshot.getFile(), ex);
+        }
+    }
+
+    private COLDPReference resolveReference(String referenceID, String owner) {
+        if (referenceID == null) {
+            return null;
+        }
+        COLDPReference reference = references.get(referenceID);
+        if (reference == null) {
+            LOG.error("Reference " + referenceID + " not found for " + owner);
+        }
+        return reference;
+    }
+
+    private void resolveName(COLDPName name) {
+        if (name.getBasionymID() != null) {
+            COLDPName basionym = names.get(name.getBasionymID());
+            if (basionym == null) {
+                LOG.error("Basionym " + name.getBasionymID() + " not found for name " + name.getID());
+            } else {
+                name.linkBasionym(basionym);
+            }
+        }
+        name.linkReference(resolveReference(name.getReferenceID(), "name " + name.getID()));
+    }
+
+    private void resolveNameReference(COLDPNameReference nameReference) {
+        nameReference.linkName(names.get(nameReference.getNameID()));
+        nameReference.linkReference(references.get(nameReference.getReferenceID()));
+    }
+
+    private void resolveNameRelation(COLDPNameRelation nameRelation) {
+        nameRelation.linkName(names.get(nameRelation.getNameID()));
+        nameRelation.linkRelatedName(names.get(nameRelation.getRelatedNameID()));
+        nameRelation.linkReference(resolveReference(nameRelation.getReferenceID(),
+                "nameRelation " + nameRelation.getNameID() + " -> " + nameRelation.getRelatedNameID()));
+    }
+
+    private void resolveTaxon(COLDPTaxon taxon) {
+        taxon.linkName(names.get(taxon.getNameID()));
+        if (taxon.getParentID() != null) {
+            COLDPTaxon parent = taxa.get(taxon.getParentID());
+            if (parent == null) {
+                LOG.error("Parent " + taxon.getParentID() + " not found for taxon " + taxon.getID());
+            } else {
+                taxon.linkParent(parent);
+            }
+        }
+        taxon.linkReference(resolveReference(taxon.getReferenceID(), "taxon " + taxon.getID()));
+    }
+
+    private void resolveSynonym(COLDPSynonym synonym) {
+        if (synonym.getTaxonID() != null) {
+            COLDPTaxon taxon = taxa.get(synonym.getTaxonID());
+            if (taxon == null) {
+                LOG.error("Taxon " + synonym.getTaxonID() + " not found for synonym");
+            } else {
+                synonym.linkTaxon(taxon);
+            }
+        }
+        if (synonym.getNameID() != null) {
+            COLDPName name = names.get(synonym.getNameID());
+            if (name == null) {
+                LOG.error("Name " + synonym.getNameID() + " not found for synonym of taxon " + synonym.getTaxonID());
+            } else {
+                synonym.linkName(name);
+            }
+        }
+        synonym.linkReference(resolveReference(synonym.getReferenceID(),
+                "synonym " + synonym.getNameID() + " of taxon " + synonym.getTaxonID()));
+    }
+
+    private void resolveDistribution(COLDPDistribution distribution) {
+        distribution.linkRegion(regions.get(distribution.getArea()));
+        distribution.linkTaxon(taxa.get(distribution.getTaxonID()));
+        distribution.linkReference(resolveReference(distribution.getReferenceID(),
+                "distribution " + distribution.getTaxonID() + " in " + distribution.getArea()));
+    }
+
+    private void resolveSpeciesInteraction(COLDPSpeciesInteraction speciesInteraction) {
+        speciesInteraction.linkTaxon(taxa.get(speciesInteraction.getTaxonID()));
+        if (speciesInteraction.getRelatedTaxonID() != null) {
+            COLDPTaxon relatedTaxon = taxa.get(speciesInteraction.getRelatedTaxonID());
+            if (relatedTaxon == null) {
+                LOG.error("Related taxon " + speciesInteraction.getRelatedTaxonID() + " not found for speciesInteraction of taxon " + speciesInteraction.getTaxonID());
+            } else {
+                speciesInteraction.linkRelatedTaxon(relatedTaxon);
+            }
+        }
+        speciesInteraction.linkReference(resolveReference(speciesInteraction.getReferenceID(),
+                "speciesInteraction of taxon " + speciesInteraction.getTaxonID()));
+    }
+
+    /**
+     * Applies a resolver to each row of a table, splitting the table into
+     * chunks which are processed by the fork/join pool.
+     */
+    private static class LinkTask<T> extends RecursiveAction {
+
+        private static final int CHUNK_SIZE = 2048;
+
+        private final List<T> rows;
+        private final Consumer<T> resolver;
+        private final int from;
+        private final int to;
+
+        LinkTask(List<T> rows, Consumer<T> resolver) {
+            this(rows, resolver, 0, rows.size());
+        }
+
+        private LinkTask(List<T> rows, Consumer<T> resolver, int from, int to) {
+            this.rows = rows;
+            this.resolver = resolver;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    resolver.accept(rows.get(i));
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LinkTask<>(rows, resolver, from, middle),
+                          new LinkTask<>(rows, resolver, middle, to));
+            }
+        }
+    }
+
+    /*
+     * Reads, links and tracks a lazy table on first use. The package source 
+     * is opened again for the purpose, since it is closed once the 
+     * constructor completes. A table which cannot be read is logged and 
+     * left empty rather than retried.
+     */
+    private <T> List<T> readLazily(TableEnum table, RowBinder<T> binder, 
+            Consumer<T> resolver, Consumer<T> registration, Consumer<T> tracking) {
+        List<T> rows;
+        try (PackageSource source = PackageSource.open(sourceName)) {
+            if (source.hasTable(table) && !Files.getLastModifiedTime(source.getTable(table))
+                    .equals(sourceTimes.get(table))) {
+                LOG.warn("Table " + table.getBaseName() + " has changed since " + sourceName + " was loaded");
+            }
+            rows = readTable(source, table, binder, sourceSeparator, projection);
+        } catch (IOException ex) {
+            LOG.error("Failed to read " + table.getBaseName() + " from " + sourceName + ": " + ex.toString());
+            rows = new ArrayList<>();
+        }
+        rows.forEach(resolver);
+        rows.forEach(registration);
+        rows.forEach(tracking);
+        return rows;
+    }
+
+    private void loadTable(TableEnum table) {
+        switch (table) {
+            case NAMEREFERENCE:
+                nameReferences.get();
+                break;
+            case NAMERELATION:
+                nameRelations.get();
+                break;
+            case DISTRIBUTION:
+                distributions.get();
+                break;
+            case SPECIESINTERACTION:
+                speciesInteractions.get();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @return true if the rows of the table are in memory - always true 
+     * unless the package was loaded with lazy tables and nothing has yet 
+     * used this table
+     */
+    public boolean isLoaded(TableEnum table) {
+        switch (table) {
+            case NAMEREFERENCE:
+                return nameReferences.isLoaded();
+            case NAMERELATION:
+                return nameRelations.isLoaded();
+            case DISTRIBUTION:
+                return distributions.isLoaded();
+            case SPECIESINTERACTION:
+                return speciesInteractions.isLoaded();
+            default:
+                return true;
+        }
+    }
+
+    private <T> List<T> readTable(PackageSource source, TableEnum table, 
+            RowBinder<T> binder, String separator, Projection projection) 
+            throws IOException {
+        if (!source.hasTable(table)) {
+            if (table.isRequired()) {
+                throw new FileNotFoundException("No " + table.getBaseName() + " table in " + source.getName());
+            }
+            return new ArrayList<>();
+        }
+        
+        long start = System.currentTimeMillis();
+        TableReader<T> reader = new TableReader<>(source.openTable(table), binder, 
+                source.getSeparator(table, separator));
+        if (projection != null && projection.isRestricted(table)) {
+            reader.setColumnFilter(column -> projection.includes(table, column));
+        }
+        if (stringPool != null) {
+            reader.setStringPool(stringPool, table.getBaseName());
+        }
+        List<T> rows = reader.getList();
+        long elapsed = System.currentTimeMillis() - start;
+        
+        loadTimes.put(table, elapsed);
+        LOG.info("Read " + rows.size() + " rows from " + source.getTable(table) + " in " + elapsed + " ms");
+        
+        return rows;
+    }
+    
+    private static <T> Future<T> submit(ExecutorService executor, Callable<T> task) {
+        if (executor != null) {
+            return executor.submit(task);
+        }
+        
+        // Sequential mode - run the task immediately on the calling thread
+        FutureTask<T> future = new FutureTask<>(task);
+        future.run();
+        return future;
+    }
+    
+    private static <T> T join(Future<T> future) 
+            throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing COLDP tables", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to process COLDP table", cause);
+        }
+    }
+    
+    private static <T> Map<String, T> toMap(List<T> rows, Function<T, String> key,
+            Map<String, T> map) {
+        // Packages whose identifiers are not yet known to be integers are
+        // judged by their first row
+        if (map instanceof IntKeyMap && !rows.isEmpty() 
+                && IntKeyMap.parse(key.apply(rows.get(0))) < 0) {
+            map = new HashMap<>();
+        }
+        for (T row : rows) {
+            map.put(key.apply(row), row);
+        }
+        return map;
+    }
+
+    /*
+     * Tables keyed by integers (the usual case) use IntKeyMap, which also 
+     * accepts any stray non-integer keys, while UUID and String keyed tables
+     * keep a HashMap
+     */
+    private static <T> Map<String, T> newEntityMap(IdentifierPolicy policy) {
+        return policy.isIntCompatible() ? new IntKeyMap<>() : new HashMap<>();
+    }
+
+    /**
+     * @return pool used to share repeated column values while reading the
+     * tables, or null if pooling was not enabled or the package was read
+     * from a snapshot
+     */
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * @return changes made to the package since it was loaded
+     */
+    public ChangeTracker getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return time in milliseconds taken to parse each table read so far 
+     * (tables that were not present or are not yet loaded are omitted)
+     */
+    public Map<TableEnum, Long> getLoadTimes() {
+        return Collections.unmodifiableMap(loadTimes);
+    }
     
     public void tidyIdentifiers() {
+        // Lazy tables must be linked before the maps are rekeyed
+        for (TableEnum table : TableEnum.values()) {
+            loadTable(table);
+        }
+
         Set<COLDPReference> sortedReferences = new TreeSet<>(new BibliographicSort());
         for (COLDPReference reference : references.values()) {
             sortedReferences.add(reference);
         }
-        references = new HashMap<>();
+        references = newEntityMap(referenceIdentifierPolicy);
         int id = 1;
         for (COLDPReference reference : sortedReferences) {
             reference.setID(String.valueOf(id++));
@@ -656,10 +1364,8 @@ public class COLDataPackage {
         List<COLDPTaxon> sortedTaxa = new ArrayList<>();
         List<COLDPName> sortedNames = new ArrayList<>();
         
-        List<COLDPTaxon> rootTaxa = getRootTaxa();
-        
         id = 1;
-        for (COLDPTaxon root : rootTaxa) {
+        for (COLDPTaxon root : getRootTaxa()) {
             id = tidyNameAndTaxonIdentifiers(root, id, sortedTaxa, sortedNames);
         }
         for (COLDPTaxon taxon : taxa.values()) {
@@ -671,12 +1377,12 @@ public class COLDataPackage {
             sortedNames.add(name);
         }
         
-        taxa = new HashMap<>();
+        taxa = newEntityMap(taxonIdentifierPolicy);
         for (COLDPTaxon taxon : sortedTaxa) {
             taxa.put(taxon.getID(), taxon);
         }
 
-        names = new HashMap<>();
+        names = newEntityMap(nameIdentifierPolicy);
         for (COLDPName name : sortedNames) {
             names.put(name.getID(), name);
         }
@@ -712,119 +1418,276 @@ public class COLDataPackage {
         return id;
     }
     
-    private static PrintWriter safeFileOpen(String folderName, String baseName, 
-                        String suffix, boolean overwrite) {
-        String fileName = folderName + baseName + suffix + ".csv";
-        
-        if (!overwrite && (new File(fileName)).exists()) {
-            LOG.error("File " + fileName + " exists");
-            return null;
-        }
-        
-        PrintWriter writer = null;
-        try {
-            writer = new PrintWriter(fileName, "UTF-8");
-        } catch (IOException e) {
-            LOG.error("Failed to open " + fileName +": " + e.toString());
-        }
-        
-        return writer;
-    }
-    
-
-    public void write(String folderName, String suffix) {
-        write(folderName, suffix, true);
+    public boolean write(String folderName, String suffix) {
+        return write(folderName, suffix, true);
     }
     
-    public void write(String folderName, String suffix, boolean overwrite) {
+    /**
+     * Write the package as CSV files. Tables with no changes since loading
+     * are copied from the files they were read from, or left alone if those
+     * are the files being written, so only changed tables are serialised.
+     * Tables are written concurrently, each to a temporary file which 
+     * replaces the target only once complete. A table read with a column 
+     * projection is only ever copied, since serialising it would drop the
+     * columns that were not read.
+     *
+     * Once the package has been written in full over the files it was 
+     * loaded from, these become the baseline for further changes.
+     *
+     * @return true if every table was written
+     */
+    public boolean write(String folderName, String suffix, boolean overwrite) {
         if (!folderName.endsWith("/")) {
             folderName += "/";
         }
 
-        PrintWriter writer = safeFileOpen(folderName, "name", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPName.getCsvHeader());
-            for(COLDPName name : names.values()) {
-                writer.println(name.toCSV());
+        PackageSource source = null;
+        for (TableEnum table : TableEnum.values()) {
+            if (!changes.isDirty(table) && isCopyable(table)) {
+                try {
+                    source = PackageSource.open(sourceName);
+                } catch (IOException e) {
+                    LOG.error("Failed to open " + sourceName + ": " + e.toString());
+                }
+                break;
             }
-            writer.close();
         }
 
-        writer = safeFileOpen(folderName, "reference", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPReference.getCsvHeader());
-            for(COLDPReference reference : references.values()) {
-                writer.println(reference.toCsv());
+        boolean written = true;
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(TableEnum.values().length, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<Boolean>> tasks = new ArrayList<>();
+            for (TableEnum table : TableEnum.values()) {
+                Path target = Paths.get(folderName + table.getBaseName() + suffix + ".csv");
+                PackageSource tableSource = source;
+                tasks.add(executor.submit(
+                        () -> saveTable(tableSource, table, target, overwrite)));
+            }
+            for (Future<Boolean> task : tasks) {
+                written &= join(task);
+            }
+        } catch (IOException e) {
+            LOG.error("Failed to write " + folderName + ": " + e.toString());
+            written = false;
+        } finally {
+            executor.shutdown();
+            if (source != null) {
+                try {
+                    source.close();
+                } catch (IOException e) {
+                    LOG.error("Failed to close " + sourceName + ": " + e.toString());
+                }
             }
-            writer.close();
         }
 
-        writer = safeFileOpen(folderName, "namereference", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPNameReference.getCsvHeader());
-            for(COLDPNameReference nameReference : nameReferences) {
-                writer.println(nameReference.toCsv());
-            }
-            writer.close();
+        if (written && suffix.isEmpty() && isSourceFolder(folderName)) {
+            checkpoint();
         }
+        return written;
+    }
 
-        writer = safeFileOpen(folderName, "taxon", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPTaxon.getCsvHeader());
-            for(COLDPTaxon taxon : taxa.values()) {
-                writer.println(taxon.toCsv());
-            }
-            writer.close();
+    private boolean isSourceFolder(String folderName) {
+        try {
+            return sourceName != null && !PackageSource.isArchive(sourceName)
+                    && ",".equals(sourceSeparator)
+                    && Files.isSameFile(Paths.get(folderName), Paths.get(sourceName));
+        } catch (IOException e) {
+            return false;
         }
+    }
 
-        writer = safeFileOpen(folderName, "synonym", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPSynonym.getCsvHeader());
-            for(COLDPSynonym synonym : synonyms) {
-                writer.println(synonym.toCsv());
+    /*
+     * Take the files just written as those the package was loaded from, so
+     * that tracked changes and file times are relative to them
+     */
+    private void checkpoint() {
+        try (PackageSource source = PackageSource.open(sourceName)) {
+            sourceTimes.clear();
+            for (TableEnum table : TableEnum.values()) {
+                if (source.hasTable(table)) {
+                    sourceTimes.put(table, Files.getLastModifiedTime(source.getTable(table)));
+                }
             }
-            writer.close();
+            changes.clear();
+        } catch (IOException e) {
+            LOG.error("Failed to open " + sourceName + ": " + e.toString());
         }
+    }
 
-        writer = safeFileOpen(folderName, "namerelation", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPNameRelation.getCsvHeader());
-            for(COLDPNameRelation nameRelation : nameRelations) {
-                writer.println(nameRelation.toCsv());
+    private boolean saveTable(PackageSource source, TableEnum table, Path target, boolean overwrite) {
+        try {
+            if (!changes.isDirty(table) && source != null && isCopyable(table)
+                    && copyTable(source, table, target, overwrite)) {
+                return true;
+            }
+            if (projection != null && projection.isRestricted(table)) {
+                LOG.error("Table " + table.getBaseName() + " was read with a column projection so cannot be written to " + target);
+                return false;
             }
-            writer.close();
+            if (!overwrite && Files.exists(target)) {
+                LOG.error("File " + target + " exists");
+                return false;
+            }
+            writeTable(table, target);
+            return true;
+        } catch (IOException e) {
+            LOG.error("Failed to write " + target + ": " + e.toString());
+            return false;
+        }
+    }
+
+    /*
+     * A source table can stand in for its serialised form if it is still
+     * the file that was loaded and is already in the output format
+     */
+    private boolean isCopyable(TableEnum table) {
+        return sourceTimes.containsKey(table) && ",".equals(sourceSeparator);
+    }
+
+    private boolean copyTable(PackageSource source, TableEnum table, 
+            Path target, boolean overwrite) throws IOException {
+        Path sourceFile = source.getTable(table);
+        if (sourceFile == null 
+                || !sourceFile.getFileName().toString().toLowerCase().endsWith(".csv")
+                || !Files.getLastModifiedTime(sourceFile).equals(sourceTimes.get(table))) {
+            return false;
         }
 
-        writer = safeFileOpen(folderName, "region", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPRegion.getCsvHeader());
-            for(COLDPRegion region : regions.values()) {
-                writer.println(region.toCsv());
+        if (Files.exists(target)) {
+            if (!source.isArchive() && Files.isSameFile(sourceFile, target)) {
+                LOG.debug("Table " + table.getBaseName() + " unchanged");
+                return true;
+            }
+            if (!overwrite) {
+                // Left for saveTable to report as not written
+                return false;
             }
-            writer.close();
         }
+        TableWriter.copy(sourceFile, target);
+        LOG.debug("Table " + table.getBaseName() + " unchanged, copied from " + sourceFile);
+        return true;
+    }
 
-        writer = safeFileOpen(folderName, "distribution", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPDistribution.getCsvHeader());
-            for(COLDPDistribution distribution : distributions) {
-                writer.println(distribution.toCsv());
+    private void writeTable(TableEnum table, Path target) throws IOException {
+        try (TableWriter writer = new TableWriter(target)) {
+            switch (table) {
+                case REFERENCE:
+                    RowWriters.REFERENCE.write(writer, references.values());
+                    break;
+                case NAME:
+                    RowWriters.NAME.write(writer, names.values());
+                    break;
+                case NAMEREFERENCE:
+                    RowWriters.NAMEREFERENCE.write(writer, nameReferences.get());
+                    break;
+                case NAMERELATION:
+                    RowWriters.NAMERELATION.write(writer, nameRelations.get());
+                    break;
+                case TAXON:
+                    RowWriters.TAXON.write(writer, taxa.values());
+                    break;
+                case SYNONYM:
+                    RowWriters.SYNONYM.write(writer, synonyms);
+                    break;
+                case REGION:
+                    RowWriters.REGION.write(writer, regions.values());
+                    break;
+                case DISTRIBUTION:
+                    RowWriters.DISTRIBUTION.write(writer, distributions.get());
+                    break;
+                case SPECIESINTERACTION:
+                    RowWriters.SPECIESINTERACTION.write(writer, speciesInteractions.get());
+                    break;
             }
-            writer.close();
+            writer.commit();
         }
+    }
 
-        writer = safeFileOpen(folderName, "speciesinteraction", suffix, overwrite);
-        if (writer != null) {
-            writer.println(COLDPSpeciesInteraction.getCsvHeader());
-            for(COLDPSpeciesInteraction speciesInteraction : speciesInteractions) {
-                writer.println(speciesInteraction.toCsv());
+    /**
+     * @return names whose stem, as returned by COLDPName.getNameStem, 
+     * matches the supplied stem
+     */
+    public List<COLDPName> findNamesByStem(String stem) {
+        if (nameStems == null) {
+            nameStems = new NameStemIndex(names.values());
+            changes.addListener(nameStems);
+        }
+        return nameStems.getNames(stem);
+    }
+
+    /**
+     * @return names whose display string contains the text, with exact
+     * and prefix matches first
+     */
+    public List<COLDPName> findNames(String text) {
+        if (nameText == null) {
+            nameText = new TextIndex<>(TableEnum.NAME, COLDPName::toString, names.values());
+            changes.addListener(nameText);
+        }
+        return nameText.find(text);
+    }
+
+    public List<COLDPTaxon> findTaxa(String text) {
+        if (taxonText == null) {
+            taxonText = new TextIndex<>(TableEnum.TAXON, 
+                    t -> t.getName() == null ? t.getID() : t.toString(), taxa.values())
+                    .follow(TableEnum.NAME, n -> ((COLDPName) n).getTaxon());
+            changes.addListener(taxonText);
+        }
+        return taxonText.find(text);
+    }
+
+    public List<COLDPReference> findReferences(String text) {
+        if (referenceText == null) {
+            referenceText = new TextIndex<>(TableEnum.REFERENCE, COLDPReference::toString, 
+                    references.values());
+            changes.addListener(referenceText);
+        }
+        return referenceText.find(text);
+    }
+
+    public List<COLDPRegion> findRegions(String text) {
+        if (regionText == null) {
+            regionText = new TextIndex<>(TableEnum.REGION, COLDPRegion::toString, regions.values());
+            changes.addListener(regionText);
+        }
+        return regionText.find(text);
+    }
+
+    /**
+     * Find a name by scientific name, falling back to a unique name with
+     * the same stem if there is no exact match, so that names with 
+     * epithets of a different gender are matched.
+     */
+    public COLDPName findNameByGenderAgnosticScientific(String scientificName) {
+        COLDPName name = getNameByScientificName(scientificName);
+        if (name == null && scientificName != null) {
+            List<COLDPName> candidates 
+                    = findNamesByStem(COLDPName.trimScientificNameToStem(scientificName));
+            if (candidates.size() == 1) {
+                name = candidates.get(0);
+            } else if (candidates.size() > 1) {
+                LOG.warn("Name " + scientificName + " matches " + candidates.size() 
+                        + " names when ignoring gender");
             }
-            writer.close();
         }
+        return name;
     }
 
-    COLDPName findNameByGenderAgnosticScientific(String scientificName) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    /**
+     * @return map from each scientific name to the name found by 
+     * findNameByGenderAgnosticScientific, omitting names with no match
+     */
+    public Map<String, COLDPName> findNamesByGenderAgnosticScientific(Collection<String> scientificNames) {
+        Map<String, COLDPName> matches = new LinkedHashMap<>();
+        for (String scientificName : scientificNames) {
+            COLDPName name = findNameByGenderAgnosticScientific(scientificName);
+            if (name != null) {
+                matches.put(scientificName, name);
+            }
+        }
+        return matches;
     }
 
     void pruneTaxon(COLDPTaxon taxon) {
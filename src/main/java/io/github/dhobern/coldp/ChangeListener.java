@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+/**
+ * Receives the changes reported to the ChangeTracker of a COLDataPackage,
+ * so that structures derived from the package rows can be kept up to date.
+ * modified is called before the new value is assigned.
+ *
+ * @author dhobern@gmail.com
+ */
+interface ChangeListener {
+
+    default void added(TableEnum table, Object entity) {
+    }
+
+    default void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+    }
+
+    default void deleted(TableEnum table, Object entity) {
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Records the entities added, modified and deleted in each table of a
+ * COLDataPackage since it was loaded or last written over its own files.
+ * Entities report their own changes from their setters and the package
+ * reports additions and deletions. Entities are held by identity, since
+ * their equals and hashCode depend on the fields being changed.
+ *
+ * Changing the identifier of a taxon, name, reference or region also
+ * changes every row linked to it, so the tables holding those links are
+ * marked as changed in full.
+ *
+ * Each change is also passed to any ChangeListeners and, if a Journal is
+ * attached, to the journal as it is made.
+ *
+ * Since every entity holds the tracker, it also carries the request to 
+ * load a lazy table when an entity first asks for rows from that table.
+ *
+ * @author dhobern@gmail.com
+ */
+public class ChangeTracker {
+
+    private final Map<TableEnum, Set<Object>> added = new EnumMap<>(TableEnum.class);
+    private final Map<TableEnum, Set<Object>> modified = new EnumMap<>(TableEnum.class);
+    private final Map<TableEnum, Set<Object>> deleted = new EnumMap<>(TableEnum.class);
+    private final Set<TableEnum> relinked = EnumSet.noneOf(TableEnum.class);
+
+    private final List<ChangeListener> listeners = new ArrayList<>();
+    private Journal journal = null;
+    private Consumer<TableEnum> tableLoader = null;
+    private int deleteDepth = 0;
+
+    public ChangeTracker() {
+        for (TableEnum table : TableEnum.values()) {
+            added.put(table, Collections.newSetFromMap(new IdentityHashMap<>()));
+            modified.put(table, Collections.newSetFromMap(new IdentityHashMap<>()));
+            deleted.put(table, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+    }
+
+    void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    void setTableLoader(Consumer<TableEnum> tableLoader) {
+        this.tableLoader = tableLoader;
+    }
+
+    /*
+     * Called by an entity before it returns its rows from a table which may
+     * not yet have been loaded
+     */
+    void require(TableEnum table) {
+        if (tableLoader != null) {
+            tableLoader.accept(table);
+        }
+    }
+
+    void added(TableEnum table, Object entity) {
+        added.get(table).add(entity);
+        for (ChangeListener listener : listeners) {
+            listener.added(table, entity);
+        }
+        if (isJournalled()) {
+            journal.created(table, entity);
+        }
+    }
+
+    void modified(TableEnum table, Object entity, String column, Object oldValue, Object newValue) {
+        modified(table, entity);
+        for (ChangeListener listener : listeners) {
+            listener.modified(table, entity, column, oldValue, newValue);
+        }
+        if (isJournalled()) {
+            journal.changed(table, entity, column, oldValue, newValue);
+        }
+    }
+
+    private void modified(TableEnum table, Object entity) {
+        if (!added.get(table).contains(entity)) {
+            modified.get(table).add(entity);
+        }
+    }
+
+    /*
+     * Called before a package delete operation so the journal records the
+     * operation itself rather than the changes it makes to linked rows
+     */
+    void deleting(TableEnum table, Object entity, boolean recurse) {
+        if (isJournalled()) {
+            journal.deleted(table, entity, recurse);
+        }
+        deleteDepth++;
+    }
+
+    void deleted(TableEnum table, Object entity) {
+        deleteDepth--;
+        modified.get(table).remove(entity);
+        if (!added.get(table).remove(entity)) {
+            deleted.get(table).add(entity);
+        }
+        for (ChangeListener listener : listeners) {
+            listener.deleted(table, entity);
+        }
+    }
+
+    private boolean isJournalled() {
+        return journal != null && deleteDepth == 0 && !journal.isReplaying();
+    }
+
+    void identifierChanged(TableEnum table, Object entity, String newID) {
+        modified(table, entity, "ID", null, newID);
+        switch (table) {
+            case REFERENCE:
+                relinked.add(TableEnum.NAME);
+                relinked.add(TableEnum.NAMEREFERENCE);
+                relinked.add(TableEnum.NAMERELATION);
+                relinked.add(TableEnum.TAXON);
+                relinked.add(TableEnum.SYNONYM);
+                relinked.add(TableEnum.DISTRIBUTION);
+                relinked.add(TableEnum.SPECIESINTERACTION);
+                break;
+            case NAME:
+                relinked.add(TableEnum.NAME);
+                relinked.add(TableEnum.NAMEREFERENCE);
+                relinked.add(TableEnum.NAMERELATION);
+                relinked.add(TableEnum.TAXON);
+                relinked.add(TableEnum.SYNONYM);
+                break;
+            case TAXON:
+                relinked.add(TableEnum.TAXON);
+                relinked.add(TableEnum.SYNONYM);
+                relinked.add(TableEnum.DISTRIBUTION);
+                relinked.add(TableEnum.SPECIESINTERACTION);
+                break;
+            case REGION:
+                relinked.add(TableEnum.DISTRIBUTION);
+                break;
+            default:
+                break;
+        }
+        // Rows not yet loaded must be linked while the old identifier is 
+        // still the key for the entity
+        for (TableEnum linked : relinked) {
+            require(linked);
+        }
+    }
+
+    /*
+     * Called once the package has been written over the files it was loaded
+     * from
+     */
+    void clear() {
+        for (TableEnum table : TableEnum.values()) {
+            added.get(table).clear();
+            modified.get(table).clear();
+            deleted.get(table).clear();
+        }
+        relinked.clear();
+    }
+
+    /**
+     * @return true if the table no longer matches the file it was loaded from
+     */
+    public boolean isDirty(TableEnum table) {
+        return relinked.contains(table) || !added.get(table).isEmpty()
+                || !modified.get(table).isEmpty() || !deleted.get(table).isEmpty();
+    }
+
+    public Set<TableEnum> getDirtyTables() {
+        Set<TableEnum> tables = EnumSet.noneOf(TableEnum.class);
+        for (TableEnum table : TableEnum.values()) {
+            if (isDirty(table)) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    public Set<Object> getAdded(TableEnum table) {
+        return Collections.unmodifiableSet(added.get(table));
+    }
+
+    public Set<Object> getModified(TableEnum table) {
+        return Collections.unmodifiableSet(modified.get(table));
+    }
+
+    public Set<Object> getDeleted(TableEnum table) {
+        return Collections.unmodifiableSet(deleted.get(table));
+    }
+
+    /**
+     * @return one line for each changed table giving the number of rows
+     * added, modified and deleted
+     */
+    public List<String> getReport() {
+        List<String> report = new ArrayList<>();
+        for (TableEnum table : getDirtyTables()) {
+            report.add(table.getBaseName() + ": " + added.get(table).size() + " added, "
+                    + modified.get(table).size() + " modified, "
+                    + deleted.get(table).size() + " deleted"
+                    + (relinked.contains(table) ? " (linked identifiers changed)" : ""));
+        }
+        return report;
+    }
+}
@@ -101,6 +101,16 @@ public class IdentifierPolicy {
         return selectedType;
     }
     
+    /**
+     * @return true unless the identifiers are known to be UUIDs or other
+     * Strings, without fixing the type if it is still undecided
+     */
+    boolean isIntCompatible() {
+        return selectedType == null 
+                ? matchingTypes.contains(IdentifierType.Int) 
+                : selectedType == IdentifierType.Int;
+    }
+
     public String nextIdentifier() {
         String id = null;
         
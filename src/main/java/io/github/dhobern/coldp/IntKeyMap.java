@@ -0,0 +1,427 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map from identifier to entity for tables whose identifiers are integers.
+ * Keys in canonical decimal form are held as ints in an open-addressing
+ * table, so a lookup parses the key instead of hashing and comparing
+ * Strings and each entry costs an int and a reference rather than a 
+ * HashMap node. Any other key, such as "007" or a UUID, is held in an 
+ * ordinary HashMap alongside, so the map accepts every String key. Keys 
+ * handed out by iteration are new Strings. Null values are not supported.
+ *
+ * @author dhobern@gmail.com
+ */
+class IntKeyMap<V> extends AbstractMap<String, V> {
+
+    private static final int EMPTY = -1;
+    private static final int REMOVED = -2;
+
+    private int[] keys;
+    private Object[] values;
+    private int size = 0;
+    private int used = 0;
+    private int modCount = 0;
+    private Map<String, V> others = null;
+
+    IntKeyMap() {
+        this(16);
+    }
+
+    IntKeyMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return the key as an int, or -1 if it is not a canonical decimal
+     * integer that fits in an int
+     */
+    static int parse(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        String s = (String) key;
+        int length = s.length();
+        if (length == 0 || length > 10 || (length > 1 && s.charAt(0) == '0')) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    @Override
+    public int size() {
+        return size + (others == null ? 0 : others.size());
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int k = parse(key);
+        if (k < 0) {
+            return others == null ? null : others.get(key);
+        }
+        int slot = find(k);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntKeyMap does not hold null values");
+        }
+        int k = parse(key);
+        if (k < 0) {
+            if (others == null) {
+                others = new HashMap<>();
+            }
+            return others.put(key, value);
+        }
+        int slot = find(k);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        if ((used + 1) * 4 > keys.length * 3) {
+            allocate(keys, values, capacityFor(size + 1));
+        }
+        int mask = keys.length - 1;
+        for (slot = hash(k) & mask; keys[slot] >= 0; slot = (slot + 1) & mask) {
+        }
+        if (keys[slot] == EMPTY) {
+            used++;
+        }
+        keys[slot] = k;
+        values[slot] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int k = parse(key);
+        if (k < 0) {
+            return others == null ? null : others.remove(key);
+        }
+        int slot = find(k);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        removeSlot(slot);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+        used = 0;
+        modCount++;
+        others = null;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                SlotIterator slots = new SlotIterator();
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return slots.hasNext();
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public V next() {
+                        int slot = slots.nextSlot();
+                        return slot >= 0 ? (V) values[slot] : slots.other.getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        slots.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return IntKeyMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                SlotIterator slots = new SlotIterator();
+                return new Iterator<Map.Entry<String, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return slots.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, V> next() {
+                        int slot = slots.nextSlot();
+                        return slot >= 0 ? new SlotEntry(slot) : slots.other;
+                    }
+
+                    @Override
+                    public void remove() {
+                        slots.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return IntKeyMap.this.size();
+            }
+        };
+    }
+
+    private int find(int k) {
+        int mask = keys.length - 1;
+        for (int slot = hash(k) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == k) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Removed slots are marked rather than emptied so probe chains past them
+     * stay intact, and so iteration is not disturbed by a removal
+     */
+    private void removeSlot(int slot) {
+        keys[slot] = REMOVED;
+        values[slot] = null;
+        size--;
+        modCount++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private void allocate(int[] oldKeys, Object[] oldValues, int capacity) {
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] >= 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+        used = size;
+        modCount++;
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = 16;
+        while (capacity * 3 < size * 4 + 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // The slot is taken from the low bits, so every bit of the key must 
+    // reach them - a plain multiply leaves strided identifiers (10, 20, 30 
+    // or 1000, 2000) on a fraction of the slots. This is the murmur3 
+    // finaliser.
+    private static int hash(int k) {
+        k ^= k >>> 16;
+        k *= 0x85EBCA6B;
+        k ^= k >>> 13;
+        k *= 0xC2B2AE35;
+        k ^= k >>> 16;
+        return k;
+    }
+
+    /**
+     * @return the longest distance any key lies from its home slot
+     */
+    int getMaxProbeLength() {
+        int mask = keys.length - 1;
+        int longest = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] >= 0) {
+                longest = Math.max(longest, (slot - (hash(keys[slot]) & mask)) & mask);
+            }
+        }
+        return longest;
+    }
+
+    private class SlotEntry implements Map.Entry<String, V> {
+
+        private final int slot;
+        private final String key;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+            this.key = String.valueOf(keys[slot]);
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) values[slot];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            if (value == null) {
+                throw new NullPointerException("IntKeyMap does not hold null values");
+            }
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return key.equals(e.getKey()) && getValue().equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    /*
+     * Walks the occupied slots and then the entries with other keys, which
+     * are reported as slot -1 with the entry in other
+     */
+    private class SlotIterator {
+
+        private final int[] table = keys;
+        private int expectedModCount = modCount;
+        private int next = -1;
+        private int current = -1;
+        private Iterator<Map.Entry<String, V>> otherIterator = null;
+        private Map.Entry<String, V> other = null;
+
+        SlotIterator() {
+            advance();
+        }
+
+        boolean hasNext() {
+            return next < table.length 
+                    || (otherIterator != null && otherIterator.hasNext());
+        }
+
+        int nextSlot() {
+            if (modCount != expectedModCount || table != keys) {
+                throw new ConcurrentModificationException();
+            }
+            if (next < table.length) {
+                current = next;
+                advance();
+                return current;
+            }
+            if (otherIterator == null || !otherIterator.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = -1;
+            other = otherIterator.next();
+            return -1;
+        }
+
+        void remove() {
+            if (current >= 0) {
+                if (keys[current] < 0) {
+                    throw new IllegalStateException();
+                }
+                removeSlot(current);
+                expectedModCount = modCount;
+            } else if (other != null) {
+                otherIterator.remove();
+                other = null;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        private void advance() {
+            next++;
+            while (next < table.length && table[next] < 0) {
+                next++;
+            }
+            if (next == table.length && otherIterator == null && others != null) {
+                otherIterator = others.entrySet().iterator();
+            }
+        }
+    }
+}
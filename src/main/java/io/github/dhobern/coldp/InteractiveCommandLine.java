@@ -32,13 +32,16 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.jline.reader.Completer;
 import org.jline.reader.EndOfFileException;
 import org.jline.reader.LineReader;
 import org.jline.reader.LineReaderBuilder;
 import org.jline.reader.UserInterruptException;
 import org.jline.reader.impl.DefaultHighlighter;
+import org.jline.reader.impl.DefaultParser;
 import org.jline.utils.AttributedStringBuilder;
 import org.jline.utils.AttributedStyle;
 import org.slf4j.Logger;
@@ -53,29 +56,39 @@ public class InteractiveCommandLine {
 
     private static void subtractPackage(COLDataPackage coldp, String packageName, String separator, boolean ignoreGender) {
         COLDataPackage coldpSubtract = new COLDataPackage(packageName, separator);
+        List<String> scientificNames = new ArrayList<>();
         for (COLDPName n : coldpSubtract.getNames().values()){
             if (n.getRankEnum().inSpeciesGroup()) {
-                COLDPName name;
-                if (ignoreGender) {
-                    name = coldp.findNameByGenderAgnosticScientific(n.getScientificName());
-                } else {
-                    name = coldp.getNameByScientificName(n.getScientificName());
-                }
+                scientificNames.add(n.getScientificName());
+            }
+        }
+
+        Collection<COLDPName> matches;
+        if (ignoreGender) {
+            matches = coldp.findNamesByGenderAgnosticScientific(scientificNames).values();
+        } else {
+            matches = new ArrayList<>();
+            for (String scientificName : scientificNames) {
+                COLDPName name = coldp.getNameByScientificName(scientificName);
                 if (name != null) {
-                    COLDPTaxon parent = null;
-                    if (name.getTaxon() != null) {
-                        parent = name.getTaxon().getParent();
-                    }
+                    matches.add(name);
+                }
+            }
+        }
+
+        for (COLDPName name : matches) {
+            COLDPTaxon parent = null;
+            if (name.getTaxon() != null) {
+                parent = name.getTaxon().getParent();
+            }
+            coldp.deleteName(name);
+            while (parent != null) {
+                if (parent.getChildren().size() == 0) {
+                    name = parent.getName();
+                    parent = parent.getParent();
                     coldp.deleteName(name);
-                    while (parent != null) {
-                        if (parent.getChildren().size() == 0) {
-                            name = parent.getName();
-                            parent = parent.getParent();
-                            coldp.deleteName(name);
-                        } else {
-                            parent = null;
-                        }
-                    }
+                } else {
+                    parent = null;
                 }
             }
         }
@@ -94,34 +107,66 @@ public class InteractiveCommandLine {
     private String prompt = "> ";
     
     private LineReader lineReader = null; 
+    private Completer completer = null;
     private Terminal terminal = null;
 
+    /**
+     * Usage: InteractiveCommandLine [--backup] [folder [tabs]]
+     *
+     * folder is the package to edit (default mockdata) and tabs is "true"
+     * if its files are tab-separated. With --backup, the package folder is
+     * first zipped to a timestamped file in the current directory. Edits
+     * are otherwise protected by the package journal.
+     */
     public static void main(String[] args) {
         InteractiveCommandLine icl = new InteractiveCommandLine();
-        String coldpFolderName = (args.length > 0) ? args[0] : "mockdata";
+        boolean backup = false;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if ("--backup".equals(arg)) {
+                backup = true;
+            } else {
+                positional.add(arg);
+            }
+        }
+        String coldpFolderName = (positional.size() > 0) ? positional.get(0) : "mockdata";
         String separator = ",";
         
-        if (args.length > 1 && Boolean.valueOf(args[1])) {
+        if (positional.size() > 1 && Boolean.valueOf(positional.get(1))) {
             separator = "\t";
         }
         String coldpName = coldpFolderName;
-        COLDataPackage coldp = new COLDataPackage(coldpName, separator);
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setParallel(true);
+        loadProperties.setBulkLink(true);
+        loadProperties.setSnapshot(true);
+        loadProperties.setPoolStrings(true);
+        COLDataPackage coldp = new COLDataPackage(coldpName, null, separator, loadProperties);
         int i = coldpName.lastIndexOf("/");
         if (i > 0) {
             coldpName = coldpName.substring(i + 1);
         }
  
-        String backupFileName = coldpName + "-"
-                    + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now()).replace(":", ".")
-                    + ".zip";
-        
+        if (backup) {
+            String backupFileName = coldpName + "-"
+                        + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now()).replace(":", ".")
+                        + ".zip";
+
+            try {
+                zipFolder(coldpFolderName, backupFileName);
+            } catch (IOException e) {
+                LOG.error("Could not open backup file " + backupFileName, e);
+            }
+        }
+
+        Journal journal = null;
         try {
-            zipFolder(coldpFolderName, backupFileName);
+            journal = Journal.open(coldp, coldpFolderName);
         } catch (IOException e) {
-            LOG.error("Could not open backup file " + backupFileName, e);
+            LOG.error("Could not open journal for " + coldpFolderName, e);
         }
+        icl.setCompleter(new PackageCompleter(coldp));
 
-        
         String line;
         while ((line = icl.readLine("", "", true)) != null) {
             String[] words = line.split(" ");
@@ -133,7 +178,7 @@ public class InteractiveCommandLine {
                 }
                 switch (words[0].toLowerCase()) {
                     case "n": 
-                        icl.setName(icl.findInstance(line, coldp.getNames(), coldp.getNames().values()));
+                        icl.setName(icl.findInstance(line, coldp.getNames(), coldp::findNames));
                         break;
                     case "b": 
                         if (icl.getName() != null) {
@@ -145,14 +190,14 @@ public class InteractiveCommandLine {
                             COLDPReference reference = icl.getReference();
                             if (reference == null) {
                                 String referenceString = icl.readLine("Reference (empty if none)", "", false);
-                                reference = icl.findInstance(referenceString, coldp.getReferences(), coldp.getReferences().values());
+                                reference = icl.findInstance(referenceString, coldp.getReferences(), coldp::findReferences);
                             }
                             COLDPName basionym = null;
                             String basionymString = icl.readLine("Basionym (empty if none)", 
                                     (icl.getName() == null || Objects.equals(icl.getName(), icl.getName().getBasionym()))
                                             ? "" : icl.getName().getID(), false);
                             if (basionymString != null && basionymString.length() > 0) {
-                                basionym = icl.findInstance(basionymString, coldp.getNames(), coldp.getNames().values());
+                                basionym = icl.findInstance(basionymString, coldp.getNames(), coldp::findNames);
                             }
                             COLDPName name = coldp.newName();
                             icl.editName(coldp, name, basionym, reference);
@@ -175,7 +220,7 @@ public class InteractiveCommandLine {
                                     && icl.getConfirmation("Replace current basionym " + basionym.toString() + "?"))) {
                                 String nameString = icl.readLine("Basionym", "", false);
                                 if (nameString != null && nameString.length() > 0) {
-                                    basionym = icl.findInstance(nameString, coldp.getNames(), coldp.getNames().values());
+                                    basionym = icl.findInstance(nameString, coldp.getNames(), coldp::findNames);
                                     if (basionym != null) {
                                     }
                                 }
@@ -184,7 +229,7 @@ public class InteractiveCommandLine {
                         }
                         break;
                     case "t": 
-                        icl.setTaxon(icl.findInstance(line, coldp.getTaxa(), coldp.getTaxa().values()));
+                        icl.setTaxon(icl.findInstance(line, coldp.getTaxa(), coldp::findTaxa));
                         break;
                     case "t/": 
                         if (icl.getTaxon() != null) {
@@ -197,7 +242,7 @@ public class InteractiveCommandLine {
                         }
                         break;
                     case "a": 
-                        icl.setRegion(icl.findInstance(line, coldp.getRegions(), coldp.getRegions().values()));
+                        icl.setRegion(icl.findInstance(line, coldp.getRegions(), coldp::findRegions));
                         break;
                     case "nr": 
                         {
@@ -288,7 +333,7 @@ public class InteractiveCommandLine {
                             String parentName = icl.readLine("Parent", 
                                         name.getRankEnum().inSpeciesGroup() ? name.getGenus() : "", false);
                             if (!Objects.equals(parentName, taxon.getParent().getName())) {
-                                parent = icl.findInstance(parentName, coldp.getTaxa(), coldp.getTaxa().values());
+                                parent = icl.findInstance(parentName, coldp.getTaxa(), coldp::findTaxa);
                             }
                             if (name != null && taxon != null && name != taxon.getName() && synonym != null && parent != null) {
                                 COLDPReference reference = icl.getReference();
@@ -456,7 +501,7 @@ public class InteractiveCommandLine {
                         } 
                         break;
                     case "r": 
-                        icl.setReference(icl.findInstance(line, coldp.getReferences(), coldp.getReferences().values()));
+                        icl.setReference(icl.findInstance(line, coldp.getReferences(), coldp::findReferences));
                         break;
                     case "r+":
                         String author = icl.readLine("Author", "", false);
@@ -516,7 +561,20 @@ public class InteractiveCommandLine {
                         }
 			break;
                     case "w":
-                        coldp.write(coldpFolderName, "");
+                        if (journal == null) {
+                            coldp.write(coldpFolderName, "");
+                        } else {
+                            try {
+                                journal.save();
+                            } catch (IOException e) {
+                                LOG.error("Could not save journal for " + coldpFolderName, e);
+                            }
+                        }
+                        break;
+                    case "w?":
+                        for (String change : coldp.getChanges().getReport()) {
+                            icl.getWriter().println(change);
+                        }
                         break;
                     case "d":
                         if (icl.getTaxon() != null 
@@ -626,7 +684,7 @@ public class InteractiveCommandLine {
                             String status = null;
                             String remarks = null;
                             for (String token : tokens) {
-                                COLDPRegion region = icl.findInstance(token.trim(), coldp.getRegions(), coldp.getRegions().values());
+                                COLDPRegion region = icl.findInstance(token.trim(), coldp.getRegions(), coldp::findRegions);
                                 if (region == null) {
                                     icl.showError("Could not find region for " + token);
                                 } else {
@@ -783,12 +841,12 @@ public class InteractiveCommandLine {
                         break;
                     case "xx":
                         if (icl.getConfirmation("Exclude species and names (ignoring gender) from package '" + line + "'")) {
-                            subtractPackage(coldp, line, ",", false);
+                            subtractPackage(coldp, line, ",", true);
                         } 
                         break;
                     case "xt":
                         if (icl.getConfirmation("Exclude species and names from tab-delimited package '" + line + "'")) {
-                            subtractPackage(coldp, line, "\t", true);
+                            subtractPackage(coldp, line, "\t", false);
                         } 
                         break;
                     case "xxt":
@@ -799,6 +857,24 @@ public class InteractiveCommandLine {
                 }
             }
         }
+
+        if (journal != null) {
+            try {
+                // Compacting writes the package as it is in memory, so saved
+                // batches are left for replay if later edits are declined
+                boolean declined = journal.hasUnsavedEdits() 
+                        && !icl.getConfirmation("Save changes");
+                if (!declined) {
+                    journal.save();
+                    if (journal.hasSavedEdits()) {
+                        journal.compact();
+                    }
+                }
+                journal.close();
+            } catch (IOException e) {
+                LOG.error("Could not save journal for " + coldpFolderName, e);
+            }
+        }
     }
     
     public InteractiveCommandLine() {
@@ -809,9 +885,17 @@ public class InteractiveCommandLine {
                     .exec(true)
                     .jansi(true)
                     .build();
+            // Scientific names hold spaces, so completions must not be 
+            // escaped or quoted
             lineReader = LineReaderBuilder.builder()
                     .terminal(terminal)
                     .highlighter(new DefaultHighlighter())
+                    .parser(new DefaultParser().escapeChars(null).quoteChars(new char[0]))
+                    .completer((reader, line, candidates) -> {
+                        if (completer != null) {
+                            completer.complete(reader, line, candidates);
+                        }
+                    })
                     .build();
         } catch (IOException e) {
             LOG.error(e.toString());
@@ -948,7 +1032,7 @@ public class InteractiveCommandLine {
         return selection;
     }
     
-    private <T> T findInstance(String line, Map<String,T> map, Collection<T> instances) {
+    private <T> T findInstance(String line, Map<String,T> map, Function<String, List<T>> search) {
         if (line == null) {
             return null;
         }
@@ -960,11 +1044,7 @@ public class InteractiveCommandLine {
         }
         
         if (instance == null) {
-            final String filter = line;
-            List<T> matches = instances
-                    .stream()
-                    .filter(r -> r.toString().contains(filter))
-                    .collect(Collectors.toList());
+            List<T> matches = search.apply(line);
             int count = matches.size();
             if (count == 1) {
                 instance = matches.get(0);
@@ -1146,7 +1226,7 @@ public class InteractiveCommandLine {
             }
             String parentName = readLine("Parent", (taxon.getParentID() == null) ? "" : currentParentName, false);
             if (!Objects.equals(parentName, currentParentName)) {
-                parent = findInstance(parentName, coldp.getTaxa(), coldp.getTaxa().values());
+                parent = findInstance(parentName, coldp.getTaxa(), coldp::findTaxa);
             }
         }
         if (parent != null) {
@@ -1209,7 +1289,7 @@ public class InteractiveCommandLine {
         }
         while (nameRelation.getRelatedName() == null) {
             String rn = readLine("Related name", "", false);
-            relatedName = findInstance(rn, coldp.getNames(), coldp.getNames().values());
+            relatedName = findInstance(rn, coldp.getNames(), coldp::findNames);
             if (relatedName == null) {
                 coldp.deleteNameRelation(nameRelation);
                 return null;
@@ -1331,7 +1411,7 @@ public class InteractiveCommandLine {
             }
             if (parentString != null) {
                 parent = findInstance(parentString, null, 
-                        coldp.getTaxa().values().stream()
+                        text -> coldp.findTaxa(text).stream()
                                    .filter(t -> rank.isLowerThan(t.getName().getRankEnum()))
                                    .collect(Collectors.toList()));
                 if (parent != null 
@@ -1358,7 +1438,7 @@ public class InteractiveCommandLine {
                             RankEnum childRank = child.getName().getRankEnum();
                             // Avoid getting another parent at too low a rank
                             newParentOfChild = findInstance(newParentOfChildString, null, 
-                                            coldp.getTaxa().values().stream()
+                                            text -> coldp.findTaxa(text).stream()
                                                     .filter(t -> t.getName().getRankEnum().isHigherThan(childRank))
                                                     .collect(Collectors.toList()));
                             if (newParentOfChild != null) {
@@ -1383,7 +1463,7 @@ public class InteractiveCommandLine {
                     parent = coldp.getTaxonByScientificName(name.getGenus() + " " + name.getSpecificEpithet());
                 }
                 String parentName = readLine("Name of parent taxon", (parent == null) ? null : parent.getName().getScientificName(), false);
-                parent = findInstance(parentName, coldp.getTaxa(), coldp.getTaxa().values());
+                parent = findInstance(parentName, coldp.getTaxa(), coldp::findTaxa);
                 setTaxon(addTaxon(coldp, name, parent));
             } else if (getConfirmation("Set name as synonym for taxon")) {
                 COLDPTaxon accepted = null;
@@ -1391,7 +1471,7 @@ public class InteractiveCommandLine {
                     accepted = taxon;
                 } else if (taxon == null) {
                     String acceptedName = readLine("Name of accepted taxon", null, false);
-                    accepted = findInstance(acceptedName, coldp.getTaxa(), coldp.getTaxa().values());
+                    accepted = findInstance(acceptedName, coldp.getTaxa(), coldp::findTaxa);
                 }
                 if (accepted != null) {
                     setTaxon(accepted);
@@ -1489,6 +1569,10 @@ public class InteractiveCommandLine {
         return asb.toAnsi();
     }
 
+    public void setCompleter(Completer completer) {
+        this.completer = completer;
+    }
+
     public void setTaxon(COLDPTaxon taxon) {
         this.taxon = taxon;
     }
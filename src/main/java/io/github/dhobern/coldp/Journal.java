@@ -0,0 +1,651 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of the edits made to a COLDataPackage, so that saving
+ * costs in proportion to the edits rather than the package. Edits are
+ * recorded through the package ChangeTracker as row creations, field
+ * values, link changes and deletions. Rows are identified by ID in the
+ * tables which have one and otherwise by their CSV image before the edit.
+ *
+ * Each save appends one batch, followed by a checksum so that a batch
+ * torn by a crash is discarded. The journal starts with the modification
+ * times of the package files it applies to and is only replayed if these
+ * still match. compact() writes the package and starts a new journal.
+ *
+ * @author dhobern@gmail.com
+ */
+public class Journal implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Journal.class);
+
+    public static final String FILE_NAME = ".coldp-journal";
+
+    private static final int MAGIC = 0x434f4a4c;
+    private static final int VERSION = 1;
+    private static final long COMPACT_SIZE = 8L << 20;
+
+    private static final byte CREATE = 'C';
+    private static final byte SET = 'S';
+    private static final byte LINK = 'L';
+    private static final byte DELETE = 'D';
+
+    private static class Entry {
+        private final byte op;
+        private final TableEnum table;
+        private final String key;
+        private final String column;
+        private final String value;
+
+        private Entry(byte op, TableEnum table, String key, String column, String value) {
+            this.op = op;
+            this.table = table;
+            this.key = key;
+            this.column = column;
+            this.value = value;
+        }
+    }
+
+    private final COLDataPackage coldp;
+    private final String packageName;
+    private final Path path;
+    private FileChannel channel = null;
+    private final List<Entry> pending = new ArrayList<>();
+    private int batches = 0;
+    private boolean replaying = false;
+    private final Map<TableEnum, Map<String, Object>> renamed = new EnumMap<>(TableEnum.class);
+
+    private Journal(COLDataPackage coldp, String packageName, File file) {
+        this.coldp = coldp;
+        this.packageName = packageName;
+        this.path = file.toPath();
+    }
+
+    /**
+     * Open the journal for a package which has just been loaded, replaying
+     * any edits saved since the package files were last written, and start
+     * recording further edits.
+     */
+    public static Journal open(COLDataPackage coldp, String packageName) throws IOException {
+        File file;
+        try (PackageSource source = PackageSource.open(packageName)) {
+            file = source.getJournalFile();
+        }
+        Journal journal = new Journal(coldp, packageName, file);
+        journal.recover();
+        coldp.getChanges().setJournal(journal);
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        if (!Files.exists(path)) {
+            reset();
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (!readHeader(buffer)) {
+            Path stale = path.resolveSibling(path.getFileName() + ".stale");
+            Files.move(path, stale, StandardCopyOption.REPLACE_EXISTING);
+            LOG.error("Journal " + path + " does not match the current package files "
+                    + "and has not been replayed - preserved as " + stale);
+            reset();
+            return;
+        }
+
+        int end = buffer.position();
+        List<Entry> entries;
+        while ((entries = readBatch(buffer)) != null) {
+            replay(entries);
+            batches++;
+            end = buffer.position();
+        }
+        renamed.clear();
+        if (end < buffer.limit()) {
+            LOG.warn("Discarding incomplete batch at end of journal " + path);
+        }
+        if (batches > 0) {
+            LOG.info("Replayed " + batches + " saved batches from journal " + path);
+        }
+
+        channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        channel.truncate(end);
+        channel.position(end);
+    }
+
+    private boolean readHeader(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return false;
+            }
+            Map<TableEnum, Long> times = new EnumMap<>(TableEnum.class);
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                times.put(TableEnum.values()[buffer.get()], buffer.getLong());
+            }
+            return times.equals(getFileTimes());
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    private List<Entry> readBatch(ByteBuffer buffer) {
+        try {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() - Long.BYTES) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if (crc.getValue() != buffer.getLong()) {
+                return null;
+            }
+
+            ByteBuffer batch = ByteBuffer.wrap(bytes);
+            int count = batch.getInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new Entry(batch.get(), TableEnum.values()[batch.get()],
+                        readString(batch), readString(batch), readString(batch)));
+            }
+            return entries;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private Map<TableEnum, Long> getFileTimes() throws IOException {
+        Map<TableEnum, Long> times = new EnumMap<>(TableEnum.class);
+        try (PackageSource source = PackageSource.open(packageName)) {
+            for (TableEnum table : TableEnum.values()) {
+                if (source.hasTable(table)) {
+                    times.put(table, Files.getLastModifiedTime(source.getTable(table)).toMillis());
+                }
+            }
+        }
+        return times;
+    }
+
+    /*
+     * Start an empty journal based on the current package files
+     */
+    private void reset() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        Map<TableEnum, Long> times = getFileTimes();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(times.size());
+            for (Map.Entry<TableEnum, Long> time : times.entrySet()) {
+                out.writeByte(time.getKey().ordinal());
+                out.writeLong(time.getValue());
+            }
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+        channel.force(false);
+        pending.clear();
+        batches = 0;
+    }
+
+    /**
+     * Append the edits made since the last save as a single batch. Once
+     * the journal grows large, it is compacted into the package files.
+     */
+    public void save() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(pending.size());
+            for (Entry entry : pending) {
+                out.writeByte(entry.op);
+                out.writeByte(entry.table.ordinal());
+                writeString(out, entry.key);
+                writeString(out, entry.column);
+                writeString(out, entry.value);
+            }
+        }
+        byte[] batch = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(batch);
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + batch.length + Long.BYTES);
+        buffer.putInt(batch.length).put(batch).putLong(crc.getValue()).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        pending.clear();
+        batches++;
+
+        if (channel.size() > COMPACT_SIZE) {
+            compact();
+        }
+    }
+
+    /**
+     * Write all edits into the package files and start a new journal.
+     */
+    public void compact() throws IOException {
+        if (PackageSource.isArchive(packageName)) {
+            LOG.error("Cannot compact journal into archive " + packageName);
+            return;
+        }
+        if (coldp.write(packageName, "")) {
+            reset();
+        } else {
+            LOG.error("Journal not compacted since " + packageName + " was not written");
+        }
+    }
+
+    /**
+     * @return true if there are edits which have not been saved
+     */
+    public boolean hasUnsavedEdits() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * @return true if edits have been saved to the journal but not
+     * compacted into the package files
+     */
+    public boolean hasSavedEdits() {
+        return batches > 0;
+    }
+
+    boolean isReplaying() {
+        return replaying;
+    }
+
+    @Override
+    public void close() throws IOException {
+        coldp.getChanges().setJournal(null);
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    void created(TableEnum table, Object entity) {
+        pending.add(new Entry(CREATE, table, getKey(table, entity), null, null));
+    }
+
+    void changed(TableEnum table, Object entity, String column, Object oldValue, Object newValue) {
+        boolean link = isEntity(oldValue) || isEntity(newValue);
+        pending.add(new Entry(link ? LINK : SET, table, getKey(table, entity), column,
+                getValue(newValue)));
+    }
+
+    void deleted(TableEnum table, Object entity, boolean recurse) {
+        pending.add(new Entry(DELETE, table, getKey(table, entity), null,
+                recurse ? Boolean.TRUE.toString() : null));
+    }
+
+    private static boolean isEntity(Object value) {
+        return value instanceof COLDPReference || value instanceof COLDPName
+                || value instanceof COLDPTaxon || value instanceof COLDPRegion;
+    }
+
+    private static String getValue(Object value) {
+        if (value instanceof COLDPReference) {
+            return ((COLDPReference) value).getID();
+        } else if (value instanceof COLDPName) {
+            return ((COLDPName) value).getID();
+        } else if (value instanceof COLDPTaxon) {
+            return ((COLDPTaxon) value).getID();
+        } else if (value instanceof COLDPRegion) {
+            return ((COLDPRegion) value).getID();
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private static String getKey(TableEnum table, Object entity) {
+        switch (table) {
+            case REFERENCE:
+            case NAME:
+            case TAXON:
+            case REGION:
+                return getValue(entity);
+            case NAMEREFERENCE:
+                return ((COLDPNameReference) entity).toCsv();
+            case NAMERELATION:
+                return ((COLDPNameRelation) entity).toCsv();
+            case SYNONYM:
+                return ((COLDPSynonym) entity).toCsv();
+            case DISTRIBUTION:
+                return ((COLDPDistribution) entity).toCsv();
+            case SPECIESINTERACTION:
+                return ((COLDPSpeciesInteraction) entity).toCsv();
+            default:
+                return null;
+        }
+    }
+
+    private void replay(List<Entry> entries) {
+        replaying = true;
+        try {
+            for (Entry entry : entries) {
+                if (entry.op == CREATE) {
+                    create(entry.table, entry.key);
+                } else {
+                    Object entity = find(entry.table, entry.key);
+                    if (entity == null) {
+                        LOG.error("Journal refers to missing " + entry.table.getBaseName()
+                                + " row " + entry.key);
+                    } else if (entry.op == SET) {
+                        set(entry.table, entity, entry.column, entry.value);
+                        if ("ID".equals(entry.column) && entry.value != null) {
+                            renamed.computeIfAbsent(entry.table, t -> new HashMap<>())
+                                    .put(entry.value, entity);
+                        }
+                    } else if (entry.op == LINK) {
+                        link(entry.table, entity, entry.column, entry.value);
+                    } else if (entry.op == DELETE) {
+                        delete(entry.table, entity, Boolean.parseBoolean(entry.value));
+                    }
+                }
+            }
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private void create(TableEnum table, String key) {
+        switch (table) {
+            case REFERENCE: coldp.newReference(key); break;
+            case NAME: coldp.newName(key); break;
+            case TAXON: coldp.newTaxon(key); break;
+            case REGION: coldp.newRegion(key); break;
+            case NAMEREFERENCE: coldp.newNameReference(); break;
+            case NAMERELATION: coldp.newNameRelation(); break;
+            case SYNONYM: coldp.newSynonym(); break;
+            case DISTRIBUTION: coldp.newDistribution(); break;
+            case SPECIESINTERACTION: coldp.newSpeciesInteraction(); break;
+        }
+    }
+
+    private Object find(TableEnum table, String key) {
+        switch (table) {
+            case REFERENCE: return findByID(table, coldp.getReferences(), key, COLDPReference::getID);
+            case NAME: return findByID(table, coldp.getNames(), key, COLDPName::getID);
+            case TAXON: return findByID(table, coldp.getTaxa(), key, COLDPTaxon::getID);
+            case REGION: return findByID(table, coldp.getRegions(), key, COLDPRegion::getID);
+            case NAMEREFERENCE: {
+                COLDPName name = findName(getFirstField(key));
+                return findByRow(name == null ? null : name.getNameReferences(),
+                        coldp.getNameReferences(), key, COLDPNameReference::toCsv);
+            }
+            case NAMERELATION: {
+                COLDPName name = findName(getFirstField(key));
+                return findByRow(name == null ? null : name.getNameRelations(),
+                        coldp.getNameRelations(), key, COLDPNameRelation::toCsv);
+            }
+            case SYNONYM: {
+                COLDPTaxon taxon = findTaxon(getFirstField(key));
+                return findByRow(taxon == null ? null : taxon.getSynonyms(),
+                        coldp.getSynonyms(), key, COLDPSynonym::toCsv);
+            }
+            case DISTRIBUTION: {
+                COLDPTaxon taxon = findTaxon(getFirstField(key));
+                return findByRow(taxon == null ? null : taxon.getDistributionRows(),
+                        coldp.getDistributions(), key, COLDPDistribution::toCsv);
+            }
+            case SPECIESINTERACTION: {
+                COLDPTaxon taxon = findTaxon(getFirstField(key));
+                return findByRow(taxon == null ? null : taxon.getSpeciesInteractions(),
+                        coldp.getSpeciesInteractions(), key, COLDPSpeciesInteraction::toCsv);
+            }
+            default: return null;
+        }
+    }
+
+    /*
+     * Package maps stay keyed by the original ID if an ID is changed, so
+     * entities renamed during replay are also held under their new ID
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T findByID(TableEnum table, Map<String, T> map, String ID,
+            Function<T, String> getID) {
+        if (ID == null) {
+            return null;
+        }
+        T entity = map.get(ID);
+        if (entity != null && ID.equals(getID.apply(entity))) {
+            return entity;
+        }
+        Map<String, Object> renamedIDs = renamed.get(table);
+        entity = renamedIDs == null ? null : (T) renamedIDs.get(ID);
+        if (entity != null && ID.equals(getID.apply(entity))) {
+            return entity;
+        }
+        return null;
+    }
+
+    /*
+     * Rows without an ID are looked for first among the rows linked to the
+     * entity named in their first column, and the whole table is only 
+     * scanned if the row is not found there
+     */
+    private static <T> T findByRow(Collection<T> linked, Collection<T> rows,
+            String key, Function<T, String> toKey) {
+        if (linked != null) {
+            for (T row : linked) {
+                if (Objects.equals(key, toKey.apply(row))) {
+                    return row;
+                }
+            }
+        }
+        for (T row : rows) {
+            if (Objects.equals(key, toKey.apply(row))) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    private static String getFirstField(String csv) {
+        if (csv == null || csv.isEmpty()) {
+            return null;
+        }
+        if (csv.charAt(0) != '"') {
+            int i = csv.indexOf(',');
+            return i == 0 ? null : (i < 0 ? csv : csv.substring(0, i));
+        }
+        StringBuilder field = new StringBuilder();
+        for (int i = 1; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (c == '"') {
+                if (i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            field.append(c);
+        }
+        return field.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void set(TableEnum table, Object entity, String column, String value) {
+        BiConsumer<Object, String> setter = null;
+        switch (table) {
+            case REFERENCE: setter = (BiConsumer) RowBinders.REFERENCE.getSetter(column); break;
+            case NAME: setter = (BiConsumer) RowBinders.NAME.getSetter(column); break;
+            case NAMEREFERENCE: setter = (BiConsumer) RowBinders.NAMEREFERENCE.getSetter(column); break;
+            case NAMERELATION: setter = (BiConsumer) RowBinders.NAMERELATION.getSetter(column); break;
+            case TAXON: setter = (BiConsumer) RowBinders.TAXON.getSetter(column); break;
+            case SYNONYM: setter = (BiConsumer) RowBinders.SYNONYM.getSetter(column); break;
+            case REGION: setter = (BiConsumer) RowBinders.REGION.getSetter(column); break;
+            case DISTRIBUTION: setter = (BiConsumer) RowBinders.DISTRIBUTION.getSetter(column); break;
+            case SPECIESINTERACTION: setter = (BiConsumer) RowBinders.SPECIESINTERACTION.getSetter(column); break;
+        }
+        if (setter == null) {
+            LOG.error("Journal refers to unknown column " + table.getBaseName() + "." + column);
+        } else {
+            setter.accept(entity, value);
+        }
+    }
+
+    private void link(TableEnum table, Object entity, String column, String ID) {
+        switch (table.name() + "." + column) {
+            case "NAME.basionymID":
+                ((COLDPName) entity).setBasionym(findName(ID));
+                break;
+            case "NAME.referenceID":
+                ((COLDPName) entity).setReference(findReference(ID));
+                break;
+            case "NAMEREFERENCE.nameID":
+                ((COLDPNameReference) entity).setName(findName(ID));
+                break;
+            case "NAMEREFERENCE.referenceID":
+                ((COLDPNameReference) entity).setReference(findReference(ID));
+                break;
+            case "NAMERELATION.nameID":
+                ((COLDPNameRelation) entity).setName(findName(ID));
+                break;
+            case "NAMERELATION.relatedNameID":
+                ((COLDPNameRelation) entity).setRelatedName(findName(ID));
+                break;
+            case "NAMERELATION.referenceID":
+                ((COLDPNameRelation) entity).setReference(findReference(ID));
+                break;
+            case "TAXON.parentID":
+                ((COLDPTaxon) entity).setParent(findTaxon(ID));
+                break;
+            case "TAXON.nameID":
+                ((COLDPTaxon) entity).setName(findName(ID));
+                break;
+            case "TAXON.referenceID":
+                ((COLDPTaxon) entity).setReference(findReference(ID));
+                break;
+            case "SYNONYM.taxonID":
+                ((COLDPSynonym) entity).setTaxon(findTaxon(ID));
+                break;
+            case "SYNONYM.nameID":
+                ((COLDPSynonym) entity).setName(findName(ID));
+                break;
+            case "SYNONYM.referenceID":
+                ((COLDPSynonym) entity).setReference(findReference(ID));
+                break;
+            case "DISTRIBUTION.taxonID":
+                ((COLDPDistribution) entity).setTaxon(findTaxon(ID));
+                break;
+            case "DISTRIBUTION.area":
+                ((COLDPDistribution) entity).setRegion(
+                        (COLDPRegion) find(TableEnum.REGION, ID));
+                break;
+            case "DISTRIBUTION.referenceID":
+                ((COLDPDistribution) entity).setReference(findReference(ID));
+                break;
+            case "SPECIESINTERACTION.taxonID":
+                ((COLDPSpeciesInteraction) entity).setTaxon(findTaxon(ID));
+                break;
+            case "SPECIESINTERACTION.relatedTaxonID":
+                ((COLDPSpeciesInteraction) entity).setRelatedTaxon(findTaxon(ID));
+                break;
+            case "SPECIESINTERACTION.referenceID":
+                ((COLDPSpeciesInteraction) entity).setReference(findReference(ID));
+                break;
+            default:
+                LOG.error("Journal refers to unknown link " + table.getBaseName() + "." + column);
+                break;
+        }
+    }
+
+    private COLDPName findName(String ID) {
+        return (COLDPName) find(TableEnum.NAME, ID);
+    }
+
+    private COLDPTaxon findTaxon(String ID) {
+        return (COLDPTaxon) find(TableEnum.TAXON, ID);
+    }
+
+    private COLDPReference findReference(String ID) {
+        return (COLDPReference) find(TableEnum.REFERENCE, ID);
+    }
+
+    private void delete(TableEnum table, Object entity, boolean recurse) {
+        switch (table) {
+            case REFERENCE: coldp.deleteReference((COLDPReference) entity); break;
+            case NAME: coldp.deleteName((COLDPName) entity, recurse); break;
+            case TAXON: coldp.deleteTaxon((COLDPTaxon) entity, recurse); break;
+            case NAMEREFERENCE: coldp.deleteNameReference((COLDPNameReference) entity); break;
+            case NAMERELATION: coldp.deleteNameRelation((COLDPNameRelation) entity); break;
+            case SYNONYM: coldp.deleteSynonym((COLDPSynonym) entity); break;
+            case DISTRIBUTION: coldp.deleteDistribution((COLDPDistribution) entity); break;
+            case SPECIESINTERACTION: coldp.deleteSpeciesInteraction((COLDPSpeciesInteraction) entity); break;
+            default:
+                LOG.error("Journal refers to deletion of " + table.getBaseName() + " row");
+                break;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Rows of a secondary table of a COLDataPackage. In lazy mode the rows are 
+ * only read and linked the first time they are needed. The first caller 
+ * runs the loader while any others wait for it, so the table is loaded 
+ * exactly once.
+ *
+ * @author dhobern@gmail.com
+ */
+class LazyTable<T> {
+
+    private Supplier<List<T>> loader;
+    private volatile List<T> rows;
+
+    LazyTable(List<T> rows) {
+        this.rows = rows;
+    }
+
+    LazyTable(Supplier<List<T>> loader) {
+        this.loader = loader;
+    }
+
+    List<T> get() {
+        List<T> result = rows;
+        if (result == null) {
+            synchronized (this) {
+                result = rows;
+                if (result == null) {
+                    result = loader.get();
+                    loader = null;
+                    rows = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    boolean isLoaded() {
+        return rows != null;
+    }
+
+    /**
+     * @return the rows if already loaded, otherwise an empty list, for 
+     * passes over the package which should not trigger loading
+     */
+    List<T> getLoaded() {
+        List<T> result = rows;
+        return result == null ? List.of() : result;
+    }
+}
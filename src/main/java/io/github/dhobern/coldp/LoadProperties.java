@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+/**
+ * Options controlling how COLDataPackage reads a package
+ * 
+ * @author dhobern@gmail.com
+ */
+public class LoadProperties {
+    
+    private boolean parallel = false;
+    private boolean bulkLink = false;
+    private boolean snapshot = false;
+    private Projection projection = null;
+    private boolean poolStrings = false;
+    private boolean compactClassification = false;
+    private boolean lazyTables = false;
+    private int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), 
+                                       TableEnum.values().length);
+
+    public LoadProperties() {
+    }
+
+    /**
+     * @return true if the tables are parsed concurrently before linking
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return true if foreign keys are resolved in parallel and the 
+     * back-references registered afterwards in a single pass
+     */
+    public boolean isBulkLink() {
+        return bulkLink;
+    }
+
+    public void setBulkLink(boolean bulkLink) {
+        this.bulkLink = bulkLink;
+    }
+
+    /**
+     * @return true if the package is read from a binary snapshot when one 
+     * matches the current CSV files, and a new snapshot written otherwise
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * @return columns to read from each table, or null to read all columns
+     */
+    public Projection getProjection() {
+        return projection;
+    }
+
+    public void setProjection(Projection projection) {
+        this.projection = projection;
+    }
+
+    /**
+     * @return true if low-cardinality columns share String instances
+     * through a StringPool while the tables are read
+     */
+    public boolean isPoolStrings() {
+        return poolStrings;
+    }
+
+    public void setPoolStrings(boolean poolStrings) {
+        this.poolStrings = poolStrings;
+    }
+
+    /**
+     * @return true if taxa with a parent derive the classification columns
+     * (kingdom to species) from the parent and their name instead of holding
+     * them
+     */
+    public boolean isCompactClassification() {
+        return compactClassification;
+    }
+
+    public void setCompactClassification(boolean compactClassification) {
+        this.compactClassification = compactClassification;
+    }
+
+    /**
+     * @return true if the name reference, name relation, distribution and
+     * species interaction tables are only read and linked when first used.
+     * A lazy load does not write a snapshot.
+     */
+    public boolean isLazyTables() {
+        return lazyTables;
+    }
+
+    public void setLazyTables(boolean lazyTables) {
+        this.lazyTables = lazyTables;
+    }
+
+    /**
+     * @return maximum number of worker threads used in parallel and bulk link
+     * modes
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+}
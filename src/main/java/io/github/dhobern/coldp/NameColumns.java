@@ -0,0 +1,290 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Column-wise copy of the name table for scans that read one or two 
+ * columns across every name. Each String column is dictionary encoded as 
+ * an int per row, with code 0 for no value, and the basionym and reference
+ * links are held as int row and dictionary indexes. A predicate over a 
+ * column is evaluated once per distinct value and the rows then found by a
+ * pass over the int codes. Rows are numbered from zero and getName maps a
+ * row back to its COLDPName, so results can be handed to existing code.
+ * The copy does not follow later edits.
+ *
+ * @author dhobern@gmail.com
+ */
+public class NameColumns {
+
+    private static final Map<String, Function<COLDPName, String>> GETTERS 
+            = new LinkedHashMap<>();
+    static {
+        GETTERS.put("scientificName", COLDPName::getScientificName);
+        GETTERS.put("authorship", COLDPName::getAuthorship);
+        GETTERS.put("rank", COLDPName::getRank);
+        GETTERS.put("uninomial", COLDPName::getUninomial);
+        GETTERS.put("genus", COLDPName::getGenus);
+        GETTERS.put("infragenericEpithet", COLDPName::getInfragenericEpithet);
+        GETTERS.put("specificEpithet", COLDPName::getSpecificEpithet);
+        GETTERS.put("infraspecificEpithet", COLDPName::getInfraspecificEpithet);
+        GETTERS.put("publishedInPage", COLDPName::getPublishedInPage);
+        GETTERS.put("publishedInYear", COLDPName::getPublishedInYear);
+        GETTERS.put("code", COLDPName::getCode);
+        GETTERS.put("status", COLDPName::getStatus);
+        GETTERS.put("remarks", COLDPName::getRemarks);
+        GETTERS.put("link", COLDPName::getLink);
+    }
+
+    private static class Column {
+        final int[] codes;
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String, Integer> lookup = new HashMap<>();
+
+        Column(int size) {
+            codes = new int[size];
+            dictionary.add(null);
+        }
+
+        int encode(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = lookup.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                lookup.put(value, code);
+            }
+            return code;
+        }
+    }
+
+    private final COLDPName[] rows;
+    private final Map<String, Column> columns = new HashMap<>();
+    private final int[] basionyms;
+    private final int[] references;
+    private final List<COLDPReference> referenceDictionary = new ArrayList<>();
+
+    NameColumns(Collection<COLDPName> names) {
+        rows = names.toArray(new COLDPName[names.size()]);
+
+        Map<COLDPName, Integer> rowNumbers = new IdentityHashMap<>(rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            rowNumbers.put(rows[row], row);
+        }
+
+        for (Map.Entry<String, Function<COLDPName, String>> entry : GETTERS.entrySet()) {
+            Column column = new Column(rows.length);
+            Function<COLDPName, String> getter = entry.getValue();
+            for (int row = 0; row < rows.length; row++) {
+                column.codes[row] = column.encode(getter.apply(rows[row]));
+            }
+            columns.put(entry.getKey(), column);
+        }
+
+        basionyms = new int[rows.length];
+        references = new int[rows.length];
+        Map<COLDPReference, Integer> referenceCodes = new IdentityHashMap<>();
+        for (int row = 0; row < rows.length; row++) {
+            Integer basionym = rowNumbers.get(rows[row].getBasionym());
+            basionyms[row] = basionym == null ? -1 : basionym;
+            COLDPReference reference = rows[row].getReference();
+            if (reference == null) {
+                references[row] = -1;
+            } else {
+                Integer code = referenceCodes.get(reference);
+                if (code == null) {
+                    code = referenceDictionary.size();
+                    referenceDictionary.add(reference);
+                    referenceCodes.put(reference, code);
+                }
+                references[row] = code;
+            }
+        }
+    }
+
+    /**
+     * @return the String columns that can be scanned, in CSV order
+     */
+    public static Collection<String> getColumns() {
+        return GETTERS.keySet();
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public COLDPName getName(int row) {
+        return rows[row];
+    }
+
+    public List<COLDPName> getNames(BitSet selection) {
+        List<COLDPName> names = new ArrayList<>(selection.cardinality());
+        for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1)) {
+            names.add(rows[row]);
+        }
+        return names;
+    }
+
+    public String getValue(String column, int row) {
+        Column c = getColumn(column);
+        return c.dictionary.get(c.codes[row]);
+    }
+
+    /**
+     * @return the number of distinct values in the column, not counting 
+     * empty values
+     */
+    public int getDistinctCount(String column) {
+        return getColumn(column).dictionary.size() - 1;
+    }
+
+    /**
+     * @return row of the basionym, or -1 if the name has none
+     */
+    public int getBasionymRow(int row) {
+        return basionyms[row];
+    }
+
+    public COLDPReference getReference(int row) {
+        return references[row] < 0 ? null : referenceDictionary.get(references[row]);
+    }
+
+    /**
+     * @return rows where the column holds value, or holds no value if value
+     * is null
+     */
+    public BitSet select(String column, String value) {
+        Column c = getColumn(column);
+        BitSet selection = new BitSet(rows.length);
+        Integer code = value == null ? Integer.valueOf(0) : c.lookup.get(value);
+        if (code != null) {
+            int target = code;
+            int[] codes = c.codes;
+            for (int row = 0; row < codes.length; row++) {
+                if (codes[row] == target) {
+                    selection.set(row);
+                }
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * @return rows where the column value, which may be null, satisfies the
+     * predicate
+     */
+    public BitSet select(String column, Predicate<String> predicate) {
+        Column c = getColumn(column);
+        boolean[] matches = new boolean[c.dictionary.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = predicate.test(c.dictionary.get(code));
+        }
+        BitSet selection = new BitSet(rows.length);
+        int[] codes = c.codes;
+        for (int row = 0; row < codes.length; row++) {
+            if (matches[codes[row]]) {
+                selection.set(row);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * @return rows whose name has no reference
+     */
+    public BitSet selectUnreferenced() {
+        BitSet selection = new BitSet(rows.length);
+        for (int row = 0; row < references.length; row++) {
+            if (references[row] < 0) {
+                selection.set(row);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * @return rows whose name is its own basionym, or has none in the table
+     */
+    public BitSet selectOriginalCombinations() {
+        BitSet selection = new BitSet(rows.length);
+        for (int row = 0; row < basionyms.length; row++) {
+            if (basionyms[row] == row || basionyms[row] < 0) {
+                selection.set(row);
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * @return number of rows holding each value of the column, including 
+     * null for rows with no value
+     */
+    public Map<String, Integer> count(String column) {
+        Column c = getColumn(column);
+        int[] counts = new int[c.dictionary.size()];
+        for (int code : c.codes) {
+            counts[code]++;
+        }
+        Map<String, Integer> result = new HashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(c.dictionary.get(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return rows whose value in the column is shared with at least one 
+     * other row, leaving out rows with no value
+     */
+    public BitSet selectDuplicates(String column) {
+        Column c = getColumn(column);
+        int[] counts = new int[c.dictionary.size()];
+        for (int code : c.codes) {
+            counts[code]++;
+        }
+        counts[0] = 0;
+        BitSet selection = new BitSet(rows.length);
+        int[] codes = c.codes;
+        for (int row = 0; row < codes.length; row++) {
+            if (counts[codes[row]] > 1) {
+                selection.set(row);
+            }
+        }
+        return selection;
+    }
+
+    private Column getColumn(String column) {
+        Column c = columns.get(column);
+        if (c == null) {
+            throw new IllegalArgumentException("Not a name column: " + column);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the names in a package by the stem returned by
+ * COLDPName.getNameStem, so that names can be matched regardless of the
+ * gender of their epithets. A stem depends on several columns which may be
+ * set one at a time, so names are only re-indexed when the index is next
+ * read.
+ *
+ * @author dhobern@gmail.com
+ */
+class NameStemIndex implements ChangeListener {
+
+    private static final Set<String> STEM_COLUMNS = Set.of("rank", "genus",
+            "specificEpithet", "infraspecificEpithet", "scientificName");
+
+    private final Map<String, List<COLDPName>> names = new HashMap<>();
+    private final Map<COLDPName, String> stems = new IdentityHashMap<>();
+    private final Set<COLDPName> stale = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    NameStemIndex(Collection<COLDPName> names) {
+        for (COLDPName name : names) {
+            add(name);
+        }
+    }
+
+    List<COLDPName> getNames(String stem) {
+        refresh();
+        List<COLDPName> list = names.get(stem);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public void added(TableEnum table, Object entity) {
+        if (table == TableEnum.NAME) {
+            stale.add((COLDPName) entity);
+        }
+    }
+
+    @Override
+    public void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+        if (table == TableEnum.NAME && STEM_COLUMNS.contains(column)) {
+            stale.add((COLDPName) entity);
+        }
+    }
+
+    @Override
+    public void deleted(TableEnum table, Object entity) {
+        if (table == TableEnum.NAME) {
+            stale.remove((COLDPName) entity);
+            remove((COLDPName) entity);
+        }
+    }
+
+    private void refresh() {
+        for (COLDPName name : stale) {
+            remove(name);
+            add(name);
+        }
+        stale.clear();
+    }
+
+    private void add(COLDPName name) {
+        String stem = name.getRankEnum() == null ? name.getScientificName() : name.getNameStem();
+        if (stem != null) {
+            stems.put(name, stem);
+            ScientificNameIndex.add(names, stem, name);
+        }
+    }
+
+    private void remove(COLDPName name) {
+        String stem = stems.remove(name);
+        if (stem != null) {
+            ScientificNameIndex.remove(names, stem, name);
+        }
+    }
+}
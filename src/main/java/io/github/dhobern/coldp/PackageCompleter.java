@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.jline.reader.Candidate;
+import org.jline.reader.Completer;
+import org.jline.reader.LineReader;
+import org.jline.reader.ParsedLine;
+
+/**
+ * Tab completion for InteractiveCommandLine. The search commands complete
+ * their argument from scientific names ("n", "t"), reference authors and
+ * years ("r") or region IDs and names ("a"). Any other line, such as the 
+ * answer to a prompt for a parent or basionym, is completed as a 
+ * scientific name.
+ *
+ * @author dhobern@gmail.com
+ */
+class PackageCompleter implements Completer {
+
+    private static final int LIMIT = 100;
+
+    private final PrefixIndex<COLDPName> names;
+    private final PrefixIndex<COLDPReference> references;
+    private final PrefixIndex<COLDPRegion> regions;
+
+    PackageCompleter(COLDataPackage coldp) {
+        names = new PrefixIndex<>(TableEnum.NAME,
+                n -> Collections.singletonList(n.getScientificName()), coldp.getNames().values());
+        references = new PrefixIndex<>(TableEnum.REFERENCE,
+                PackageCompleter::getReferenceKeys, coldp.getReferences().values());
+        regions = new PrefixIndex<>(TableEnum.REGION,
+                r -> Arrays.asList(r.getID(), r.getName()), coldp.getRegions().values());
+        coldp.getChanges().addListener(names);
+        coldp.getChanges().addListener(references);
+        coldp.getChanges().addListener(regions);
+    }
+
+    private static List<String> getReferenceKeys(COLDPReference reference) {
+        String author = reference.getAuthor();
+        if (author == null || author.length() == 0) {
+            return Collections.emptyList();
+        }
+        String issued = reference.getIssued();
+        return Collections.singletonList(
+                issued == null || issued.length() == 0 ? author : author + ", " + issued);
+    }
+
+    @Override
+    public void complete(LineReader reader, ParsedLine line, List<Candidate> candidates) {
+        String text = line.line().substring(0, line.cursor());
+        PrefixIndex<?> index = names;
+
+        int space = text.indexOf(' ');
+        if (space > 0) {
+            switch (text.substring(0, space).toLowerCase()) {
+                case "n":
+                case "t":
+                    text = text.substring(space + 1);
+                    break;
+                case "r":
+                    index = references;
+                    text = text.substring(space + 1);
+                    break;
+                case "a":
+                    index = regions;
+                    text = text.substring(space + 1);
+                    break;
+            }
+        }
+
+        // Keys may hold several words but each candidate replaces only the 
+        // word being typed
+        int start = text.length() - line.wordCursor();
+        if (start < 0) {
+            return;
+        }
+        for (String key : index.complete(text, LIMIT)) {
+            candidates.add(new Candidate(key.substring(start), key, null, null, null, null, true));
+        }
+    }
+}
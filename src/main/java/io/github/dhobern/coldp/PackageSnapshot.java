@@ -0,0 +1,629 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary image of a fully linked COLDataPackage, stored alongside the
+ * tables it was built from. Strings are held once in a shared table, each
+ * entity is written as string table indexes and each link as the row
+ * number of its target, so reading needs no parsing or key lookups. The
+ * snapshot records the location, size and modification time of every
+ * source table and is ignored once any of them changes.
+ *
+ * @author dhobern@gmail.com
+ */
+class PackageSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PackageSnapshot.class);
+
+    static final String FILE_NAME = ".coldp-snapshot";
+
+    private static final int MAGIC = 0x434f4c44;
+    private static final int VERSION = 2;
+    private static final int NONE = -1;
+
+    private final PackageSource source;
+    private final File file;
+    private final String separator;
+
+    private List<COLDPReference> references;
+    private List<COLDPName> names;
+    private List<COLDPNameReference> nameReferences;
+    private List<COLDPNameRelation> nameRelations;
+    private List<COLDPTaxon> taxa;
+    private List<COLDPSynonym> synonyms;
+    private List<COLDPRegion> regions;
+    private List<COLDPDistribution> distributions;
+    private List<COLDPSpeciesInteraction> speciesInteractions;
+
+    PackageSnapshot(PackageSource source, String separator) {
+        this.source = source;
+        this.file = source.getSnapshotFile();
+        this.separator = separator;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * @return true if the snapshot exists and was written from the tables
+     * currently in the package source, using the same separator
+     */
+    boolean isCurrent() {
+        if (!file.exists()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer
+                    = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readHeader(buffer);
+        } catch (IOException | RuntimeException ex) {
+            LOG.warn("Could not check snapshot " + file + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private boolean readHeader(MappedByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 8
+                || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION) {
+            return false;
+        }
+        if (!separator.equals(readRawString(buffer))) {
+            return false;
+        }
+        int tableCount = buffer.getInt();
+        if (tableCount != TableEnum.values().length) {
+            return false;
+        }
+        for (TableEnum table : TableEnum.values()) {
+            Path path = source.getTable(table);
+            String location = readRawString(buffer);
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            if (!location.equals(locationOf(path))
+                    || size != sizeOf(path)
+                    || modified != lastModified(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String locationOf(Path path) {
+        return path == null ? "" : path.toString();
+    }
+
+    private static long sizeOf(Path path) throws IOException {
+        return path == null ? NONE : Files.size(path);
+    }
+
+    private static long lastModified(Path path) throws IOException {
+        return path == null ? NONE : Files.getLastModifiedTime(path).toMillis();
+    }
+
+    void read() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer
+                    = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!readHeader(buffer)) {
+                throw new IOException("Snapshot " + file + " is out of date");
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readRawString(buffer);
+            }
+            Reader in = new Reader(buffer, strings);
+
+            int count = in.count();
+            references = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                COLDPReference reference = new COLDPReference();
+                reference.setID(in.string());
+                reference.setAuthor(in.string());
+                reference.setTitle(in.string());
+                reference.setIssued(in.string());
+                reference.setContainerTitle(in.string());
+                reference.setVolume(in.string());
+                reference.setIssue(in.string());
+                reference.setPage(in.string());
+                reference.setLink(in.string());
+                reference.setCitation(in.string());
+                references.add(reference);
+            }
+
+            count = in.count();
+            names = new ArrayList<>(count);
+            int[] basionyms = new int[count];
+            for (int i = 0; i < count; i++) {
+                COLDPName name = new COLDPName();
+                name.setID(in.string());
+                name.setBasionymID(in.string());
+                basionyms[i] = in.row();
+                name.setScientificName(in.string());
+                name.setAuthorship(in.string());
+                name.setRank(in.string());
+                name.setUninomial(in.string());
+                name.setGenus(in.string());
+                name.setInfragenericEpithet(in.string());
+                name.setSpecificEpithet(in.string());
+                name.setInfraspecificEpithet(in.string());
+                name.setReferenceID(in.string());
+                name.linkReference(in.link(references));
+                name.setPublishedInPage(in.string());
+                name.setPublishedInYear(in.string());
+                name.setCode(in.string());
+                name.setStatus(in.string());
+                name.setRemarks(in.string());
+                name.setLink(in.string());
+                names.add(name);
+            }
+            // Basionyms may refer forward so are linked once all names exist
+            for (int i = 0; i < names.size(); i++) {
+                if (basionyms[i] != NONE) {
+                    names.get(i).linkBasionym(names.get(basionyms[i]));
+                }
+            }
+
+            count = in.count();
+            nameReferences = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                COLDPNameReference nameReference = new COLDPNameReference();
+                nameReference.setNameID(in.string());
+                nameReference.linkName(in.link(names));
+                nameReference.setReferenceID(in.string());
+                nameReference.linkReference(in.link(references));
+                nameReference.setPage(in.string());
+                nameReference.setLink(in.string());
+                nameReference.setRemarks(in.string());
+                nameReferences.add(nameReference);
+            }
+
+            count = in.count();
+            nameRelations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                COLDPNameRelation nameRelation = new COLDPNameRelation();
+                nameRelation.setNameID(in.string());
+                nameRelation.linkName(in.link(names));
+                nameRelation.setRelatedNameID(in.string());
+                nameRelation.linkRelatedName(in.link(names));
+                nameRelation.setType(in.string());
+                nameRelation.setReferenceID(in.string());
+                nameRelation.linkReference(in.link(references));
+                nameRelation.setRemarks(in.string());
+                nameRelations.add(nameRelation);
+            }
+
+            count = in.count();
+            taxa = new ArrayList<>(count);
+            int[] parents = new int[count];
+            for (int i = 0; i < count; i++) {
+                COLDPTaxon taxon = new COLDPTaxon();
+                taxon.setID(in.string());
+                taxon.setParentID(in.string());
+                parents[i] = in.row();
+                taxon.setNameID(in.string());
+                taxon.linkName(in.link(names));
+                taxon.setScrutinizer(in.string());
+                taxon.setScrutinizerDate(in.string());
+                taxon.setReferenceID(in.string());
+                taxon.linkReference(in.link(references));
+                taxon.setExtinct(in.flag());
+                taxon.setProvisional(in.flag());
+                taxon.setTemporalRangeEnd(in.string());
+                taxon.setLifezone(in.string());
+                taxon.setKingdom(in.string());
+                taxon.setPhylum(in.string());
+                taxon.setClazz(in.string());
+                taxon.setOrder(in.string());
+                taxon.setSuperfamily(in.string());
+                taxon.setFamily(in.string());
+                taxon.setSubfamily(in.string());
+                taxon.setTribe(in.string());
+                taxon.setGenus(in.string());
+                taxon.setUninomial(in.string());
+                taxon.setSpecies(in.string());
+                taxon.setRemarks(in.string());
+                taxa.add(taxon);
+            }
+            for (int i = 0; i < taxa.size(); i++) {
+                if (parents[i] != NONE) {
+                    taxa.get(i).linkParent(taxa.get(parents[i]));
+                }
+            }
+
+            count = in.count();
+            synonyms = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                COLDPSynonym synonym = new COLDPSynonym();
+                synonym.setTaxonID(in.string());
+                synonym.linkTaxon(in.link(taxa));
+                synonym.setNameID(in.string());
+                synonym.linkName(in.link(names));
+                synonym.setAccordingToID(in.string());
+                synonym.setStatus(in.string());
+                synonym.setReferenceID(in.string());
+                synonym.linkReference(in.link(references));
+                synonym.setRemarks(in.string());
+                synonyms.add(synonym);
+            }
+
+            count = in.count();
+            regions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                COLDPRegion region = new COLDPRegion();
+                region.setID(in.string());
+                region.setName(in.string());
+                regions.add(region);
+            }
+
+            count = in.count();
+            distributions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                COLDPDistribution distribution = new COLDPDistribution();
+                distribution.setTaxonID(in.string());
+                distribution.linkTaxon(in.link(taxa));
+                distribution.setArea(in.string());
+                distribution.linkRegion(in.link(regions));
+                distribution.setGazetteer(in.string());
+                distribution.setStatus(in.string());
+                distribution.setReferenceID(in.string());
+                distribution.linkReference(in.link(references));
+                distribution.setRemarks(in.string());
+                distributions.add(distribution);
+            }
+
+            count = in.count();
+            speciesInteractions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                COLDPSpeciesInteraction speciesInteraction = new COLDPSpeciesInteraction();
+                speciesInteraction.setTaxonID(in.string());
+                speciesInteraction.linkTaxon(in.link(taxa));
+                speciesInteraction.setRelatedTaxonID(in.string());
+                speciesInteraction.linkRelatedTaxon(in.link(taxa));
+                speciesInteraction.setRelatedTaxonScientificName(in.string());
+                speciesInteraction.setType(in.string());
+                speciesInteraction.setReferenceID(in.string());
+                speciesInteraction.linkReference(in.link(references));
+                speciesInteraction.setRemarks(in.string());
+                speciesInteraction.setRelatedTaxonLink(in.string());
+                speciesInteraction.setRelatedTaxonOrder(in.string());
+                speciesInteraction.setRelatedTaxonFamily(in.string());
+                speciesInteraction.setRelatedTaxonFullName(in.string());
+                speciesInteraction.setRelatedTaxonHTMLName(in.string());
+                speciesInteractions.add(speciesInteraction);
+            }
+        }
+    }
+
+    void write(COLDataPackage coldp) throws IOException {
+        Writer out = new Writer();
+
+        Map<Object, Integer> referenceRows = out.count(coldp.getReferences().values());
+        for (COLDPReference reference : coldp.getReferences().values()) {
+            out.string(reference.getID());
+            out.string(reference.getAuthor());
+            out.string(reference.getTitle());
+            out.string(reference.getIssued());
+            out.string(reference.getContainerTitle());
+            out.string(reference.getVolume());
+            out.string(reference.getIssue());
+            out.string(reference.getPage());
+            out.string(reference.getLink());
+            out.string(reference.getCitation());
+        }
+
+        Map<Object, Integer> nameRows = out.count(coldp.getNames().values());
+        for (COLDPName name : coldp.getNames().values()) {
+            out.string(name.getID());
+            out.string(name.getBasionymID());
+            out.link(nameRows, name.getBasionym());
+            out.string(name.getScientificName());
+            out.string(name.getAuthorship());
+            out.string(name.getRank());
+            out.string(name.getUninomial());
+            out.string(name.getGenus());
+            out.string(name.getInfragenericEpithet());
+            out.string(name.getSpecificEpithet());
+            out.string(name.getInfraspecificEpithet());
+            out.string(name.getReferenceID());
+            out.link(referenceRows, name.getReference());
+            out.string(name.getPublishedInPage());
+            out.string(name.getPublishedInYear());
+            out.string(name.getCode());
+            out.string(name.getStatus());
+            out.string(name.getRemarks());
+            out.string(name.getLink());
+        }
+
+        out.count(coldp.getNameReferences());
+        for (COLDPNameReference nameReference : coldp.getNameReferences()) {
+            out.string(nameReference.getNameID());
+            out.link(nameRows, nameReference.getName());
+            out.string(nameReference.getReferenceID());
+            out.link(referenceRows, nameReference.getReference());
+            out.string(nameReference.getPage());
+            out.string(nameReference.getLink());
+            out.string(nameReference.getRemarks());
+        }
+
+        out.count(coldp.getNameRelations());
+        for (COLDPNameRelation nameRelation : coldp.getNameRelations()) {
+            out.string(nameRelation.getNameID());
+            out.link(nameRows, nameRelation.getName());
+            out.string(nameRelation.getRelatedNameID());
+            out.link(nameRows, nameRelation.getRelatedName());
+            out.string(nameRelation.getType());
+            out.string(nameRelation.getReferenceID());
+            out.link(referenceRows, nameRelation.getReference());
+            out.string(nameRelation.getRemarks());
+        }
+
+        Map<Object, Integer> taxonRows = out.count(coldp.getTaxa().values());
+        for (COLDPTaxon taxon : coldp.getTaxa().values()) {
+            out.string(taxon.getID());
+            out.string(taxon.getParentID());
+            out.link(taxonRows, taxon.getParent());
+            out.string(taxon.getNameID());
+            out.link(nameRows, taxon.getName());
+            out.string(taxon.getScrutinizer());
+            out.string(taxon.getScrutinizerDate());
+            out.string(taxon.getReferenceID());
+            out.link(referenceRows, taxon.getReference());
+            out.flag(taxon.isExtinct());
+            out.flag(taxon.isProvisional());
+            out.string(taxon.getTemporalRangeEnd());
+            out.string(taxon.getLifezone());
+            out.string(taxon.getKingdom());
+            out.string(taxon.getPhylum());
+            out.string(taxon.getClazz());
+            out.string(taxon.getOrder());
+            out.string(taxon.getSuperfamily());
+            out.string(taxon.getFamily());
+            out.string(taxon.getSubfamily());
+            out.string(taxon.getTribe());
+            out.string(taxon.getGenus());
+            out.string(taxon.getUninomial());
+            out.string(taxon.getSpecies());
+            out.string(taxon.getRemarks());
+        }
+
+        out.count(coldp.getSynonyms());
+        for (COLDPSynonym synonym : coldp.getSynonyms()) {
+            out.string(synonym.getTaxonID());
+            out.link(taxonRows, synonym.getTaxon());
+            out.string(synonym.getNameID());
+            out.link(nameRows, synonym.getName());
+            out.string(synonym.getAccordingToID());
+            out.string(synonym.getStatus());
+            out.string(synonym.getReferenceID());
+            out.link(referenceRows, synonym.getReference());
+            out.string(synonym.getRemarks());
+        }
+
+        Map<Object, Integer> regionRows = out.count(coldp.getRegions().values());
+        for (COLDPRegion region : coldp.getRegions().values()) {
+            out.string(region.getID());
+            out.string(region.getName());
+        }
+
+        out.count(coldp.getDistributions());
+        for (COLDPDistribution distribution : coldp.getDistributions()) {
+            out.string(distribution.getTaxonID());
+            out.link(taxonRows, distribution.getTaxon());
+            out.string(distribution.getArea());
+            out.link(regionRows, distribution.getRegion());
+            out.string(distribution.getGazetteer());
+            out.string(distribution.getStatus());
+            out.string(distribution.getReferenceID());
+            out.link(referenceRows, distribution.getReference());
+            out.string(distribution.getRemarks());
+        }
+
+        out.count(coldp.getSpeciesInteractions());
+        for (COLDPSpeciesInteraction speciesInteraction : coldp.getSpeciesInteractions()) {
+            out.string(speciesInteraction.getTaxonID());
+            out.link(taxonRows, speciesInteraction.getTaxon());
+            out.string(speciesInteraction.getRelatedTaxonID());
+            out.link(taxonRows, speciesInteraction.getRelatedTaxon());
+            out.string(speciesInteraction.getRelatedTaxonScientificName());
+            out.string(speciesInteraction.getType());
+            out.string(speciesInteraction.getReferenceID());
+            out.link(referenceRows, speciesInteraction.getReference());
+            out.string(speciesInteraction.getRemarks());
+            out.string(speciesInteraction.getRelatedTaxonLink());
+            out.string(speciesInteraction.getRelatedTaxonOrder());
+            out.string(speciesInteraction.getRelatedTaxonFamily());
+            out.string(speciesInteraction.getRelatedTaxonFullName());
+            out.string(speciesInteraction.getRelatedTaxonHTMLName());
+        }
+
+        // Write to a temporary file and move it into place so a reader never
+        // sees a partial snapshot
+        File temp = File.createTempFile(FILE_NAME, ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            try (DataOutputStream stream = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                stream.writeInt(MAGIC);
+                stream.writeInt(VERSION);
+                writeRawString(stream, separator);
+                stream.writeInt(TableEnum.values().length);
+                for (TableEnum table : TableEnum.values()) {
+                    Path path = source.getTable(table);
+                    writeRawString(stream, locationOf(path));
+                    stream.writeLong(sizeOf(path));
+                    stream.writeLong(lastModified(path));
+                }
+                stream.writeInt(out.strings.size());
+                for (String s : out.strings) {
+                    writeRawString(stream, s);
+                }
+                out.body.writeTo(stream);
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static void writeRawString(DataOutputStream stream, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static String readRawString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    List<COLDPReference> getReferences() {
+        return references;
+    }
+
+    List<COLDPName> getNames() {
+        return names;
+    }
+
+    List<COLDPNameReference> getNameReferences() {
+        return nameReferences;
+    }
+
+    List<COLDPNameRelation> getNameRelations() {
+        return nameRelations;
+    }
+
+    List<COLDPTaxon> getTaxa() {
+        return taxa;
+    }
+
+    List<COLDPSynonym> getSynonyms() {
+        return synonyms;
+    }
+
+    List<COLDPRegion> getRegions() {
+        return regions;
+    }
+
+    List<COLDPDistribution> getDistributions() {
+        return distributions;
+    }
+
+    List<COLDPSpeciesInteraction> getSpeciesInteractions() {
+        return speciesInteractions;
+    }
+
+    private static class Reader {
+
+        private final MappedByteBuffer buffer;
+        private final String[] strings;
+
+        Reader(MappedByteBuffer buffer, String[] strings) {
+            this.buffer = buffer;
+            this.strings = strings;
+        }
+
+        int count() {
+            return buffer.getInt();
+        }
+
+        String string() {
+            int index = buffer.getInt();
+            return index == NONE ? null : strings[index];
+        }
+
+        int row() {
+            return buffer.getInt();
+        }
+
+        <T> T link(List<T> rows) {
+            int index = buffer.getInt();
+            return index == NONE ? null : rows.get(index);
+        }
+
+        boolean flag() {
+            return buffer.get() != 0;
+        }
+    }
+
+    private static class Writer {
+
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+
+        Map<Object, Integer> count(Collection<?> rows) throws IOException {
+            out.writeInt(rows.size());
+            Map<Object, Integer> indexes = new IdentityHashMap<>(rows.size());
+            for (Object row : rows) {
+                indexes.put(row, indexes.size());
+            }
+            return indexes;
+        }
+
+        void string(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(NONE);
+            } else {
+                Integer index = stringIndexes.get(s);
+                if (index == null) {
+                    index = strings.size();
+                    strings.add(s);
+                    stringIndexes.put(s, index);
+                }
+                out.writeInt(index);
+            }
+        }
+
+        void link(Map<Object, Integer> rows, Object target) throws IOException {
+            out.writeInt(target == null
+                    ? NONE : Objects.requireNonNullElse(rows.get(target), NONE));
+        }
+
+        void flag(boolean value) throws IOException {
+            out.writeByte(value ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Location of the tables of a COLDP package - either a folder or a ZIP
+ * archive, which is read in place through the NIO zip file system. Each
+ * table may be stored as .csv (using the separator supplied by the caller)
+ * or as tab-separated .tsv or .txt. In an archive the tables may sit in a
+ * subfolder rather than at the root.
+ *
+ * @author dhobern@gmail.com
+ */
+public class PackageSource implements Closeable {
+
+    private static final String[] EXTENSIONS = { ".csv", ".tsv", ".txt" };
+
+    private final String name;
+    private final FileSystem fileSystem;
+    private final Path root;
+    private final Map<TableEnum, Path> tables = new EnumMap<>(TableEnum.class);
+
+    private PackageSource(String name, FileSystem fileSystem, Path root)
+            throws IOException {
+        this.name = name;
+        this.fileSystem = fileSystem;
+        this.root = root;
+        locateTables();
+    }
+
+    /**
+     * @param name folder or ZIP file holding the package
+     */
+    public static PackageSource open(String name) throws IOException {
+        if (isArchive(name)) {
+            FileSystem fileSystem
+                    = FileSystems.newFileSystem(Paths.get(name), (ClassLoader) null);
+            return new PackageSource(name, fileSystem, fileSystem.getPath("/"));
+        }
+        return new PackageSource(name, null, Paths.get(name));
+    }
+
+    public static boolean isArchive(String name) {
+        return name.toLowerCase().endsWith(".zip");
+    }
+
+    private void locateTables() throws IOException {
+        for (TableEnum table : TableEnum.values()) {
+            for (String extension : EXTENSIONS) {
+                Path path = root.resolve(table.getBaseName() + extension);
+                if (Files.isRegularFile(path)) {
+                    tables.put(table, path);
+                    break;
+                }
+            }
+        }
+
+        // Archives often wrap the tables in a single top-level folder
+        if (fileSystem != null && !tables.containsKey(TableEnum.NAME)) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                Iterator<Path> iterator = paths.iterator();
+                while (iterator.hasNext()) {
+                    Path path = iterator.next();
+                    TableEnum table = getTable(path);
+                    if (table != null && !tables.containsKey(table)) {
+                        tables.put(table, path);
+                    }
+                }
+            }
+        }
+    }
+
+    private static TableEnum getTable(Path path) {
+        if (path.getFileName() == null) {
+            return null;
+        }
+        String fileName = path.getFileName().toString().toLowerCase();
+        for (TableEnum table : TableEnum.values()) {
+            for (String extension : EXTENSIONS) {
+                if (fileName.equals(table.getBaseName() + extension)) {
+                    return table;
+                }
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isArchive() {
+        return fileSystem != null;
+    }
+
+    /**
+     * @return path of the table within the folder or archive, or null if
+     * the package does not include it
+     */
+    public Path getTable(TableEnum table) {
+        return tables.get(table);
+    }
+
+    public boolean hasTable(TableEnum table) {
+        return tables.containsKey(table);
+    }
+
+    /**
+     * @return separator for the table - a tab for .tsv and .txt files,
+     * otherwise the supplied default
+     */
+    public String getSeparator(TableEnum table, String defaultSeparator) {
+        Path path = tables.get(table);
+        if (path != null && !path.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            return "\t";
+        }
+        return defaultSeparator;
+    }
+
+    /**
+     * Open a reader on a table. Readers on different tables may be used
+     * concurrently, including within an archive.
+     */
+    public Reader openTable(TableEnum table) throws IOException {
+        Path path = tables.get(table);
+        if (path == null) {
+            throw new IOException("No " + table.getBaseName() + " table in " + name);
+        }
+        return Files.newBufferedReader(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return file used to hold a snapshot of this package - inside a
+     * folder, or alongside an archive
+     */
+    File getSnapshotFile() {
+        if (isArchive()) {
+            return new File(name + PackageSnapshot.FILE_NAME);
+        }
+        return new File(name, PackageSnapshot.FILE_NAME);
+    }
+
+    /**
+     * @return file used to journal edits to this package - inside a
+     * folder, or alongside an archive
+     */
+    File getJournalFile() {
+        if (isArchive()) {
+            return new File(name + Journal.FILE_NAME);
+        }
+        return new File(name, Journal.FILE_NAME);
+    }
+
+    /**
+     * @return folder used to hold an off-heap PackageStore for this package
+     * - inside a folder, or alongside an archive
+     */
+    File getStoreFolder() {
+        if (isArchive()) {
+            return new File(name + PackageStore.FOLDER_NAME);
+        }
+        return new File(name, PackageStore.FOLDER_NAME);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileSystem != null) {
+            fileSystem.close();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-only view of the name, taxon, reference and synonym tables of a 
+ * package too large to load as a COLDataPackage. The tables are copied into
+ * files in FOLDER_NAME on first use and only a bounded number of recently
+ * used entities are held in memory. Entities returned are not linked to one
+ * another and should not be edited - use getParent(), getChildren() and the
+ * ID getters with this store to navigate between them.
+ *
+ * @author dhobern@gmail.com
+ */
+public class PackageStore implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PackageStore.class);
+
+    public static final String FOLDER_NAME = ".coldp-store";
+
+    private final StoredTable<COLDPName> names;
+    private final StoredTable<COLDPTaxon> taxa;
+    private final StoredTable<COLDPReference> references;
+    private final StoredTable<COLDPSynonym> synonyms;
+
+    private final EntityCache<COLDPName> nameCache;
+    private final EntityCache<COLDPTaxon> taxonCache;
+    private final EntityCache<COLDPReference> referenceCache;
+
+    private PackageStore(PackageSource source, String separator, int cacheSize) 
+            throws IOException {
+        File folder = source.getStoreFolder();
+        LOG.info("Opening package store in " + folder);
+        names = new StoredTable<>(source, TableEnum.NAME, RowBinders.NAME, 
+                separator, folder, "ID");
+        taxa = new StoredTable<>(source, TableEnum.TAXON, RowBinders.TAXON, 
+                separator, folder, "ID", "parentID");
+        references = source.hasTable(TableEnum.REFERENCE) 
+                ? new StoredTable<>(source, TableEnum.REFERENCE, RowBinders.REFERENCE, 
+                        separator, folder, "ID") 
+                : null;
+        synonyms = source.hasTable(TableEnum.SYNONYM)
+                ? new StoredTable<>(source, TableEnum.SYNONYM, RowBinders.SYNONYM, 
+                        separator, folder, "taxonID") 
+                : null;
+        nameCache = new EntityCache<>(cacheSize);
+        taxonCache = new EntityCache<>(cacheSize);
+        referenceCache = new EntityCache<>(cacheSize);
+    }
+
+    /**
+     * Open the store for the package in folderName (a folder or zip archive),
+     * building its files if they are missing or older than the CSV files.
+     * 
+     * @param cacheSize maximum number of each kind of entity held in memory
+     */
+    public static PackageStore open(String folderName, String separator, int cacheSize) 
+            throws IOException {
+        try (PackageSource source = PackageSource.open(folderName)) {
+            return new PackageStore(source, separator, cacheSize);
+        }
+    }
+
+    public synchronized COLDPName getName(String id) throws IOException {
+        return get(names, nameCache, id);
+    }
+
+    public synchronized COLDPTaxon getTaxon(String id) throws IOException {
+        return get(taxa, taxonCache, id);
+    }
+
+    public synchronized COLDPReference getReference(String id) throws IOException {
+        return references == null ? null : get(references, referenceCache, id);
+    }
+
+    public COLDPTaxon getParent(COLDPTaxon taxon) throws IOException {
+        return taxon.getParentID() == null ? null : getTaxon(taxon.getParentID());
+    }
+
+    /**
+     * @return children of taxon in table order
+     */
+    public synchronized List<COLDPTaxon> getChildren(COLDPTaxon taxon) throws IOException {
+        List<COLDPTaxon> children = new ArrayList<>();
+        for (int row : taxa.find("parentID", taxon.getID())) {
+            COLDPTaxon child = taxa.get(row);
+            children.add(taxonCache.intern(child.getID(), child));
+        }
+        return children;
+    }
+
+    /**
+     * @return synonyms of taxon in table order
+     */
+    public synchronized List<COLDPSynonym> getSynonyms(COLDPTaxon taxon) throws IOException {
+        List<COLDPSynonym> list = new ArrayList<>();
+        if (synonyms != null) {
+            for (int row : synonyms.find("taxonID", taxon.getID())) {
+                list.add(synonyms.get(row));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Pass every name to the consumer in table order without caching them
+     */
+    public void forEachName(Consumer<COLDPName> consumer) throws IOException {
+        forEach(names, consumer);
+    }
+
+    /**
+     * Pass every taxon to the consumer in table order without caching them
+     */
+    public void forEachTaxon(Consumer<COLDPTaxon> consumer) throws IOException {
+        forEach(taxa, consumer);
+    }
+
+    public int size(TableEnum table) {
+        switch (table) {
+            case NAME: return names.size();
+            case TAXON: return taxa.size();
+            case REFERENCE: return references == null ? 0 : references.size();
+            case SYNONYM: return synonyms == null ? 0 : synonyms.size();
+            default: return 0;
+        }
+    }
+
+    /**
+     * @return number of names, taxa and references currently held in memory
+     */
+    public synchronized int getCachedCount() {
+        return nameCache.size() + taxonCache.size() + referenceCache.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        names.close();
+        taxa.close();
+        if (references != null) {
+            references.close();
+        }
+        if (synonyms != null) {
+            synonyms.close();
+        }
+        nameCache.clear();
+        taxonCache.clear();
+        referenceCache.clear();
+    }
+
+    private static <T> T get(StoredTable<T> table, EntityCache<T> cache, String id) 
+            throws IOException {
+        if (id == null) {
+            return null;
+        }
+        T entity = cache.get(id);
+        if (entity == null) {
+            List<Integer> rows = table.find("ID", id);
+            if (!rows.isEmpty()) {
+                entity = table.get(rows.get(0));
+                cache.put(id, entity);
+            }
+        }
+        return entity;
+    }
+
+    private static <T> void forEach(StoredTable<T> table, Consumer<T> consumer) 
+            throws IOException {
+        int size = table.size();
+        for (int row = 0; row < size; row++) {
+            consumer.accept(table.get(row));
+        }
+    }
+
+    /*
+     * Least recently used entities are dropped once the cache is full
+     */
+    private static class EntityCache<T> extends LinkedHashMap<String, T> {
+
+        private final int capacity;
+
+        EntityCache(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        T intern(String id, T entity) {
+            T cached = get(id);
+            if (cached == null) {
+                put(id, entity);
+                return entity;
+            }
+            return cached;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+            return size() > capacity;
+        }
+    }
+}
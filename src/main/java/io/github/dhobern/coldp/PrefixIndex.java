@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Sorted, case-insensitive set of the keys of the rows in one table, such
+ * as scientific names, for prefix completion. Keys shared by several rows
+ * are counted so that they remain until the last row is removed. As with
+ * the other package indexes, changed rows are only re-keyed on the next
+ * lookup.
+ *
+ * @author dhobern@gmail.com
+ */
+class PrefixIndex<T> implements ChangeListener {
+
+    private final TableEnum table;
+    private final Function<T, Collection<String>> keys;
+    private final NavigableMap<String, Integer> counts 
+            = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<T, Collection<String>> current = new IdentityHashMap<>();
+    private final Set<T> stale = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    PrefixIndex(TableEnum table, Function<T, Collection<String>> keys, Collection<T> rows) {
+        this.table = table;
+        this.keys = keys;
+        for (T row : rows) {
+            add(row);
+        }
+    }
+
+    /**
+     * @return up to limit keys starting with the prefix, in order
+     */
+    List<String> complete(String prefix, int limit) {
+        refresh();
+        List<String> matches = new ArrayList<>();
+        for (String key : counts.tailMap(prefix, true).keySet()) {
+            if (matches.size() >= limit || !key.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            matches.add(key);
+        }
+        return matches;
+    }
+
+    private void refresh() {
+        for (T row : stale) {
+            remove(row);
+            add(row);
+        }
+        stale.clear();
+    }
+
+    private void add(T row) {
+        Collection<String> rowKeys = keys.apply(row);
+        current.put(row, rowKeys);
+        for (String key : rowKeys) {
+            if (key != null && key.length() > 0) {
+                counts.merge(key, 1, Integer::sum);
+            }
+        }
+    }
+
+    private void remove(T row) {
+        Collection<String> rowKeys = current.remove(row);
+        if (rowKeys != null) {
+            for (String key : rowKeys) {
+                if (key != null && key.length() > 0) {
+                    counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+                }
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void added(TableEnum table, Object entity) {
+        if (table == this.table) {
+            stale.add((T) entity);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+        if (table == this.table) {
+            stale.add((T) entity);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void deleted(TableEnum table, Object entity) {
+        if (table == this.table) {
+            stale.remove((T) entity);
+            remove((T) entity);
+        }
+    }
+}
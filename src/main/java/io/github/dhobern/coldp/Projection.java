@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set of columns to read for each table when loading a package. Tables
+ * with no entry are read in full. For a table with an entry, only the listed
+ * columns and the identifier and foreign key columns needed for linking are
+ * bound - other cells are skipped by the parser.
+ *
+ * @author dhobern@gmail.com
+ */
+public class Projection {
+
+    private static final Set<String> KEY_COLUMNS = Set.of(
+            "id", "parentid", "nameid", "basionymid", "referenceid",
+            "taxonid", "area", "relatednameid", "relatedtaxonid");
+
+    private final Map<TableEnum, Set<String>> columns = new EnumMap<>(TableEnum.class);
+
+    public Projection() {
+    }
+
+    /**
+     * Restrict a table to the key columns plus those named. Calling this
+     * more than once for a table adds to its columns.
+     */
+    public Projection include(TableEnum table, String... columnNames) {
+        Set<String> tableColumns = columns.computeIfAbsent(table, t -> new HashSet<>(KEY_COLUMNS));
+        for (String columnName : columnNames) {
+            tableColumns.add(columnName.toLowerCase());
+        }
+        return this;
+    }
+
+    /**
+     * @return true if only some columns of the table are read
+     */
+    public boolean isRestricted(TableEnum table) {
+        return columns.containsKey(table);
+    }
+
+    public boolean includes(TableEnum table, String columnName) {
+        Set<String> tableColumns = columns.get(table);
+        return tableColumns == null || tableColumns.contains(columnName.trim().toLowerCase());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Query over the rows of a relation table such as synonyms or 
+ * distributions, constrained by the rows they link to. Each linked row
+ * keeps the rows which refer to it, registered through the entity 
+ * register and deregister methods, and these serve as an index on the 
+ * link. The query starts from the smallest of these and filters it by 
+ * the other constraints, only scanning the whole table when no linked row
+ * is given.
+ *
+ * @author dhobern@gmail.com
+ */
+class RelationQuery<T> {
+
+    private final Collection<T> rows;
+    private final List<Predicate<T>> filters = new ArrayList<>();
+    private Collection<T> candidates = null;
+    private boolean empty = false;
+
+    RelationQuery(Collection<T> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * @param key null to leave the link unconstrained, empty to select rows
+     * without the link, otherwise the row to which the link must refer
+     * @param link the linked row for each row of the table
+     * @param index the rows of the table which refer to a linked row, 
+     * which may be null if there are none
+     */
+    <K> RelationQuery<T> where(Optional<K> key, Function<T, K> link,
+            Function<K, ? extends Collection<T>> index) {
+        if (key != null) {
+            K value = key.orElse(null);
+            if (value != null) {
+                Collection<T> linked = index.apply(value);
+                if (linked == null || linked.isEmpty()) {
+                    empty = true;
+                } else if (candidates == null || linked.size() < candidates.size()) {
+                    candidates = linked;
+                }
+            }
+            filters.add(row -> Objects.equals(value, link.apply(row)));
+        }
+        return this;
+    }
+
+    List<T> list() {
+        List<T> result = new ArrayList<>();
+        if (!empty) {
+            for (T row : candidates == null ? rows : candidates) {
+                if (matches(row)) {
+                    result.add(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove a row from an index by identity, since rows equal in every 
+     * column may still be distinct rows
+     */
+    static <T> boolean removeIdentical(List<T> rows, T row) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) == row) {
+                rows.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(T row) {
+        for (Predicate<T> filter : filters) {
+            if (!filter.test(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The taxa in a package with no parent, in the order they were loaded or
+ * created. The set follows the package as a ChangeListener, so the view
+ * returned by getView() stays current as parents are changed and as taxa
+ * are added or deleted.
+ *
+ * @author dhobern@gmail.com
+ */
+class RootTaxa implements ChangeListener {
+
+    private final List<COLDPTaxon> roots = new ArrayList<>();
+    private final List<COLDPTaxon> view = Collections.unmodifiableList(roots);
+
+    RootTaxa(Collection<COLDPTaxon> taxa) {
+        for (COLDPTaxon taxon : taxa) {
+            if (taxon.getParent() == null) {
+                roots.add(taxon);
+            }
+        }
+    }
+
+    List<COLDPTaxon> getView() {
+        return view;
+    }
+
+    @Override
+    public void added(TableEnum table, Object entity) {
+        if (table == TableEnum.TAXON && ((COLDPTaxon) entity).getParent() == null) {
+            roots.add((COLDPTaxon) entity);
+        }
+    }
+
+    @Override
+    public void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+        if (table == TableEnum.TAXON && column.equals("parentID")) {
+            if (newValue instanceof COLDPTaxon) {
+                remove((COLDPTaxon) entity);
+            } else if (newValue == null && oldValue instanceof COLDPTaxon) {
+                roots.add((COLDPTaxon) entity);
+            }
+        }
+    }
+
+    @Override
+    public void deleted(TableEnum table, Object entity) {
+        if (table == TableEnum.TAXON) {
+            remove((COLDPTaxon) entity);
+        }
+    }
+
+    /*
+     * Taxa are matched by identity since their equals methods compare field
+     * values. Packages have few roots, so a scan is cheap.
+     */
+    private void remove(COLDPTaxon taxon) {
+        for (int i = 0; i < roots.size(); i++) {
+            if (roots.get(i) == taxon) {
+                roots.remove(i);
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Maps CSV column names to the setters of an entity class. Column names are
+ * matched without regard to case. A binder is built once per class and
+ * turned into a per-column setter table for each file header, so rows are
+ * populated without any reflection.
+ *
+ * @author dhobern@gmail.com
+ */
+public class RowBinder<T> {
+
+    private final Supplier<T> factory;
+    private final Map<String, BiConsumer<T, String>> setters = new HashMap<>();
+    private final Set<String> pooled = new HashSet<>();
+
+    public RowBinder(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    public RowBinder<T> bind(String column, BiConsumer<T, String> setter) {
+        setters.put(column.toLowerCase(), setter);
+        return this;
+    }
+
+    /**
+     * Bind a column whose values repeat across many rows, so may share 
+     * String instances through a StringPool.
+     */
+    public RowBinder<T> bindPooled(String column, BiConsumer<T, String> setter) {
+        pooled.add(column.toLowerCase());
+        return bind(column, setter);
+    }
+
+    public boolean isPooled(String column) {
+        return pooled.contains(column.trim().toLowerCase());
+    }
+
+    public T newInstance() {
+        return factory.get();
+    }
+
+    /**
+     * @return setter for the named column, or null if there is none
+     */
+    public BiConsumer<T, String> getSetter(String column) {
+        return setters.get(column.trim().toLowerCase());
+    }
+
+    /**
+     * @param header column names from the first row of a file
+     * @return setter for each column, or null for columns with no setter
+     */
+    public BiConsumer<T, String>[] getSetters(String[] header) {
+        return getSetters(header, column -> true);
+    }
+
+    /**
+     * @param header column names from the first row of a file
+     * @param include test for the columns to be bound
+     * @return setter for each column, or null for columns with no setter or
+     * not included
+     */
+    @SuppressWarnings("unchecked")
+    public BiConsumer<T, String>[] getSetters(String[] header, Predicate<String> include) {
+        BiConsumer<T, String>[] columns = new BiConsumer[header.length];
+        for (int i = 0; i < header.length; i++) {
+            if (include.test(header[i])) {
+                columns[i] = setters.get(header[i].trim().toLowerCase());
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+/**
+ * Column bindings for the COLDP entity classes. Each column maps to the
+ * String setter CSVReader would have found for it by reflection. Columns
+ * drawn from a small vocabulary are bound as pooled.
+ *
+ * @author dhobern@gmail.com
+ */
+public final class RowBinders {
+
+    public static final RowBinder<COLDPReference> REFERENCE
+            = new RowBinder<>(COLDPReference::new)
+                    .bind("ID", COLDPReference::setID)
+                    .bind("author", COLDPReference::setAuthor)
+                    .bind("title", COLDPReference::setTitle)
+                    .bind("issued", COLDPReference::setIssued)
+                    .bind("containerTitle", COLDPReference::setContainerTitle)
+                    .bind("volume", COLDPReference::setVolume)
+                    .bind("issue", COLDPReference::setIssue)
+                    .bind("page", COLDPReference::setPage)
+                    .bind("link", COLDPReference::setLink)
+                    .bind("citation", COLDPReference::setCitation);
+
+    public static final RowBinder<COLDPName> NAME
+            = new RowBinder<>(COLDPName::new)
+                    .bind("ID", COLDPName::setID)
+                    .bind("basionymID", COLDPName::setBasionymID)
+                    .bind("scientificName", COLDPName::setScientificName)
+                    .bind("authorship", COLDPName::setAuthorship)
+                    .bindPooled("rank", COLDPName::setRank)
+                    .bind("uninomial", COLDPName::setUninomial)
+                    .bindPooled("genus", COLDPName::setGenus)
+                    .bind("infragenericEpithet", COLDPName::setInfragenericEpithet)
+                    .bind("specificEpithet", COLDPName::setSpecificEpithet)
+                    .bind("infraspecificEpithet", COLDPName::setInfraspecificEpithet)
+                    .bind("referenceID", COLDPName::setReferenceID)
+                    .bind("publishedInPage", COLDPName::setPublishedInPage)
+                    .bindPooled("publishedInYear", COLDPName::setPublishedInYear)
+                    .bindPooled("code", COLDPName::setCode)
+                    .bindPooled("status", COLDPName::setStatus)
+                    .bind("remarks", COLDPName::setRemarks)
+                    .bind("link", COLDPName::setLink);
+
+    public static final RowBinder<COLDPNameReference> NAMEREFERENCE
+            = new RowBinder<>(COLDPNameReference::new)
+                    .bind("nameID", COLDPNameReference::setNameID)
+                    .bind("referenceID", COLDPNameReference::setReferenceID)
+                    .bind("page", COLDPNameReference::setPage)
+                    .bind("link", COLDPNameReference::setLink)
+                    .bind("remarks", COLDPNameReference::setRemarks);
+
+    public static final RowBinder<COLDPNameRelation> NAMERELATION
+            = new RowBinder<>(COLDPNameRelation::new)
+                    .bind("nameID", COLDPNameRelation::setNameID)
+                    .bind("relatedNameID", COLDPNameRelation::setRelatedNameID)
+                    .bindPooled("type", COLDPNameRelation::setType)
+                    .bind("referenceID", COLDPNameRelation::setReferenceID)
+                    .bind("remarks", COLDPNameRelation::setRemarks);
+
+    public static final RowBinder<COLDPTaxon> TAXON
+            = new RowBinder<>(COLDPTaxon::new)
+                    .bind("ID", COLDPTaxon::setID)
+                    .bind("parentID", COLDPTaxon::setParentID)
+                    .bind("nameID", COLDPTaxon::setNameID)
+                    .bindPooled("scrutinizer", COLDPTaxon::setScrutinizer)
+                    .bindPooled("scrutinizerDate", COLDPTaxon::setScrutinizerDate)
+                    .bindPooled("provisional", COLDPTaxon::setProvisional)
+                    .bind("referenceID", COLDPTaxon::setReferenceID)
+                    .bindPooled("extinct", COLDPTaxon::setExtinct)
+                    .bindPooled("temporalRangeEnd", COLDPTaxon::setTemporalRangeEnd)
+                    .bindPooled("lifezone", COLDPTaxon::setLifezone)
+                    .bindPooled("kingdom", COLDPTaxon::setKingdom)
+                    .bindPooled("phylum", COLDPTaxon::setPhylum)
+                    .bindPooled("class", COLDPTaxon::setClazz)
+                    .bindPooled("clazz", COLDPTaxon::setClazz)
+                    .bindPooled("order", COLDPTaxon::setOrder)
+                    .bindPooled("superfamily", COLDPTaxon::setSuperfamily)
+                    .bindPooled("family", COLDPTaxon::setFamily)
+                    .bindPooled("subfamily", COLDPTaxon::setSubfamily)
+                    .bindPooled("tribe", COLDPTaxon::setTribe)
+                    .bindPooled("genus", COLDPTaxon::setGenus)
+                    .bind("uninomial", COLDPTaxon::setUninomial)
+                    .bind("species", COLDPTaxon::setSpecies)
+                    .bind("remarks", COLDPTaxon::setRemarks);
+
+    public static final RowBinder<COLDPSynonym> SYNONYM
+            = new RowBinder<>(COLDPSynonym::new)
+                    .bind("taxonID", COLDPSynonym::setTaxonID)
+                    .bind("nameID", COLDPSynonym::setNameID)
+                    .bindPooled("status", COLDPSynonym::setStatus)
+                    .bind("referenceID", COLDPSynonym::setReferenceID)
+                    .bind("accordingToID", COLDPSynonym::setAccordingToID)
+                    .bind("remarks", COLDPSynonym::setRemarks);
+
+    public static final RowBinder<COLDPRegion> REGION
+            = new RowBinder<>(COLDPRegion::new)
+                    .bind("ID", COLDPRegion::setID)
+                    .bind("name", COLDPRegion::setName);
+
+    public static final RowBinder<COLDPDistribution> DISTRIBUTION
+            = new RowBinder<>(COLDPDistribution::new)
+                    .bind("taxonID", COLDPDistribution::setTaxonID)
+                    .bind("area", COLDPDistribution::setArea)
+                    .bindPooled("gazetteer", COLDPDistribution::setGazetteer)
+                    .bindPooled("status", COLDPDistribution::setStatus)
+                    .bind("referenceID", COLDPDistribution::setReferenceID)
+                    .bind("remarks", COLDPDistribution::setRemarks);
+
+    public static final RowBinder<COLDPSpeciesInteraction> SPECIESINTERACTION
+            = new RowBinder<>(COLDPSpeciesInteraction::new)
+                    .bind("taxonID", COLDPSpeciesInteraction::setTaxonID)
+                    .bind("relatedTaxonID", COLDPSpeciesInteraction::setRelatedTaxonID)
+                    .bind("relatedTaxonScientificName", COLDPSpeciesInteraction::setRelatedTaxonScientificName)
+                    .bindPooled("type", COLDPSpeciesInteraction::setType)
+                    .bind("relatedTaxonLink", COLDPSpeciesInteraction::setRelatedTaxonLink)
+                    .bindPooled("relatedTaxonOrder", COLDPSpeciesInteraction::setRelatedTaxonOrder)
+                    .bindPooled("relatedTaxonFamily", COLDPSpeciesInteraction::setRelatedTaxonFamily)
+                    .bind("relatedTaxonFullName", COLDPSpeciesInteraction::setRelatedTaxonFullName)
+                    .bind("relatedTaxonHTMLName", COLDPSpeciesInteraction::setRelatedTaxonHTMLName)
+                    .bind("referenceID", COLDPSpeciesInteraction::setReferenceID)
+                    .bind("remarks", COLDPSpeciesInteraction::setRemarks);
+
+    private RowBinders() {
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Ordered list of the CSV columns written for an entity class, each with
+ * the getter supplying its value. The counterpart of RowBinder for output.
+ *
+ * @author dhobern@gmail.com
+ */
+public class RowWriter<T> {
+
+    private final List<String> columns = new ArrayList<>();
+    private final List<Function<T, String>> getters = new ArrayList<>();
+
+    public RowWriter<T> column(String column, Function<T, String> getter) {
+        columns.add(column);
+        getters.add(getter);
+        return this;
+    }
+
+    public String getHeader() {
+        return String.join(",", columns);
+    }
+
+    public void write(TableWriter writer, Iterable<T> rows) throws IOException {
+        writer.line(getHeader());
+        for (T row : rows) {
+            for (Function<T, String> getter : getters) {
+                writer.field(getter.apply(row));
+            }
+            writer.endRow();
+        }
+    }
+}
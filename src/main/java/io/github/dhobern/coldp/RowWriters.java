@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+/**
+ * Column output for the COLDP entity classes, giving the same header and
+ * values as getCsvHeader() and toCsv() on each class.
+ *
+ * @author dhobern@gmail.com
+ */
+public final class RowWriters {
+
+    public static final RowWriter<COLDPReference> REFERENCE
+            = new RowWriter<COLDPReference>()
+                    .column("ID", COLDPReference::getID)
+                    .column("author", COLDPReference::getAuthor)
+                    .column("title", COLDPReference::getTitle)
+                    .column("issued", COLDPReference::getIssued)
+                    .column("containerTitle", COLDPReference::getContainerTitle)
+                    .column("volume", COLDPReference::getVolume)
+                    .column("issue", COLDPReference::getIssue)
+                    .column("page", COLDPReference::getPage)
+                    .column("link", COLDPReference::getLink)
+                    .column("citation", COLDPReference::getCitation);
+
+    public static final RowWriter<COLDPName> NAME
+            = new RowWriter<COLDPName>()
+                    .column("ID", COLDPName::getID)
+                    .column("basionymID", COLDPName::getBasionymID)
+                    .column("scientificName", COLDPName::getScientificName)
+                    .column("authorship", COLDPName::getAuthorship)
+                    .column("rank", COLDPName::getRank)
+                    .column("uninomial", COLDPName::getUninomial)
+                    .column("genus", COLDPName::getGenus)
+                    .column("infragenericEpithet", COLDPName::getInfragenericEpithet)
+                    .column("specificEpithet", COLDPName::getSpecificEpithet)
+                    .column("infraspecificEpithet", COLDPName::getInfraspecificEpithet)
+                    .column("referenceID", COLDPName::getReferenceID)
+                    .column("publishedInPage", COLDPName::getPublishedInPage)
+                    .column("publishedInYear", COLDPName::getPublishedInYear)
+                    .column("code", COLDPName::getCode)
+                    .column("status", COLDPName::getStatus)
+                    .column("remarks", COLDPName::getRemarks)
+                    .column("link", COLDPName::getLink);
+
+    public static final RowWriter<COLDPNameReference> NAMEREFERENCE
+            = new RowWriter<COLDPNameReference>()
+                    .column("nameID", COLDPNameReference::getNameID)
+                    .column("referenceID", COLDPNameReference::getReferenceID)
+                    .column("page", COLDPNameReference::getPage)
+                    .column("link", COLDPNameReference::getLink)
+                    .column("remarks", COLDPNameReference::getRemarks);
+
+    public static final RowWriter<COLDPNameRelation> NAMERELATION
+            = new RowWriter<COLDPNameRelation>()
+                    .column("nameID", COLDPNameRelation::getNameID)
+                    .column("relatedNameID", COLDPNameRelation::getRelatedNameID)
+                    .column("type", COLDPNameRelation::getType)
+                    .column("referenceID", COLDPNameRelation::getReferenceID)
+                    .column("remarks", COLDPNameRelation::getRemarks);
+
+    public static final RowWriter<COLDPTaxon> TAXON
+            = new RowWriter<COLDPTaxon>()
+                    .column("ID", COLDPTaxon::getID)
+                    .column("parentID", COLDPTaxon::getParentID)
+                    .column("nameID", COLDPTaxon::getNameID)
+                    .column("scrutinizer", COLDPTaxon::getScrutinizer)
+                    .column("scrutinizerDate", COLDPTaxon::getScrutinizerDate)
+                    .column("provisional", t -> t.isProvisional() ? "true" : "false")
+                    .column("referenceID", COLDPTaxon::getReferenceID)
+                    .column("extinct", t -> t.isExtinct() ? "true" : "false")
+                    .column("temporalRangeEnd", COLDPTaxon::getTemporalRangeEnd)
+                    .column("lifezone", COLDPTaxon::getLifezone)
+                    .column("kingdom", COLDPTaxon::getKingdom)
+                    .column("phylum", COLDPTaxon::getPhylum)
+                    .column("class", COLDPTaxon::getClazz)
+                    .column("order", COLDPTaxon::getOrder)
+                    .column("superfamily", COLDPTaxon::getSuperfamily)
+                    .column("family", COLDPTaxon::getFamily)
+                    .column("subfamily", COLDPTaxon::getSubfamily)
+                    .column("tribe", COLDPTaxon::getTribe)
+                    .column("genus", COLDPTaxon::getGenus)
+                    .column("uninomial", COLDPTaxon::getUninomial)
+                    .column("species", COLDPTaxon::getSpecies)
+                    .column("remarks", COLDPTaxon::getRemarks);
+
+    public static final RowWriter<COLDPSynonym> SYNONYM
+            = new RowWriter<COLDPSynonym>()
+                    .column("taxonID", COLDPSynonym::getTaxonID)
+                    .column("nameID", COLDPSynonym::getNameID)
+                    .column("accordingToID", COLDPSynonym::getAccordingToID)
+                    .column("status", COLDPSynonym::getStatus)
+                    .column("referenceID", COLDPSynonym::getReferenceID)
+                    .column("remarks", COLDPSynonym::getRemarks);
+
+    public static final RowWriter<COLDPRegion> REGION
+            = new RowWriter<COLDPRegion>()
+                    .column("ID", COLDPRegion::getID)
+                    .column("name", COLDPRegion::getName);
+
+    public static final RowWriter<COLDPDistribution> DISTRIBUTION
+            = new RowWriter<COLDPDistribution>()
+                    .column("taxonId", COLDPDistribution::getTaxonID)
+                    .column("area", COLDPDistribution::getArea)
+                    .column("gazetteer", COLDPDistribution::getGazetteer)
+                    .column("status", COLDPDistribution::getStatus)
+                    .column("referenceID", COLDPDistribution::getReferenceID)
+                    .column("remarks", COLDPDistribution::getRemarks);
+
+    public static final RowWriter<COLDPSpeciesInteraction> SPECIESINTERACTION
+            = new RowWriter<COLDPSpeciesInteraction>()
+                    .column("taxonID", COLDPSpeciesInteraction::getTaxonID)
+                    .column("relatedTaxonID", COLDPSpeciesInteraction::getRelatedTaxonID)
+                    .column("relatedTaxonScientificName", COLDPSpeciesInteraction::getRelatedTaxonScientificName)
+                    .column("type", COLDPSpeciesInteraction::getType)
+                    .column("referenceID", COLDPSpeciesInteraction::getReferenceID)
+                    .column("remarks", COLDPSpeciesInteraction::getRemarks)
+                    .column("relatedTaxonLink", COLDPSpeciesInteraction::getRelatedTaxonLink)
+                    .column("relatedTaxonOrder", COLDPSpeciesInteraction::getRelatedTaxonOrder)
+                    .column("relatedTaxonFamily", COLDPSpeciesInteraction::getRelatedTaxonFamily)
+                    .column("relatedTaxonFullName", COLDPSpeciesInteraction::getRelatedTaxonFullName)
+                    .column("relatedTaxonHTMLName", COLDPSpeciesInteraction::getRelatedTaxonHTMLName);
+
+    private RowWriters() {
+    }
+}
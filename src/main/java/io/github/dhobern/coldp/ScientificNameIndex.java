@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the names and taxa in a package by scientific name. Homonyms
+ * are held in the order they were added. The index follows the package
+ * as a ChangeListener, so stays current as names are renamed and as taxa
+ * are linked to different names.
+ *
+ * @author dhobern@gmail.com
+ */
+class ScientificNameIndex implements ChangeListener {
+
+    private final Map<String, List<COLDPName>> names = new HashMap<>();
+    private final Map<String, List<COLDPTaxon>> taxa = new HashMap<>();
+
+    ScientificNameIndex(Collection<COLDPName> names, Collection<COLDPTaxon> taxa) {
+        for (COLDPName name : names) {
+            add(this.names, name.getScientificName(), name);
+        }
+        for (COLDPTaxon taxon : taxa) {
+            if (taxon.getName() != null) {
+                add(this.taxa, taxon.getName().getScientificName(), taxon);
+            }
+        }
+    }
+
+    List<COLDPName> getNames(String scientificName) {
+        List<COLDPName> list = names.get(scientificName);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    COLDPName getName(String scientificName) {
+        return first(names.get(scientificName));
+    }
+
+    COLDPTaxon getTaxon(String scientificName) {
+        return first(taxa.get(scientificName));
+    }
+
+    @Override
+    public void added(TableEnum table, Object entity) {
+        if (table == TableEnum.NAME) {
+            COLDPName name = (COLDPName) entity;
+            add(names, name.getScientificName(), name);
+        } else if (table == TableEnum.TAXON) {
+            COLDPTaxon taxon = (COLDPTaxon) entity;
+            if (taxon.getName() != null) {
+                add(taxa, taxon.getName().getScientificName(), taxon);
+            }
+        }
+    }
+
+    @Override
+    public void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+        if (table == TableEnum.NAME && column.equals("scientificName")) {
+            COLDPName name = (COLDPName) entity;
+            remove(names, (String) oldValue, name);
+            add(names, (String) newValue, name);
+            COLDPTaxon taxon = name.getTaxon();
+            if (taxon != null && taxon.getName() == name) {
+                remove(taxa, (String) oldValue, taxon);
+                add(taxa, (String) newValue, taxon);
+            }
+        } else if (table == TableEnum.TAXON && column.equals("nameID")) {
+            COLDPTaxon taxon = (COLDPTaxon) entity;
+            if (oldValue instanceof COLDPName) {
+                remove(taxa, ((COLDPName) oldValue).getScientificName(), taxon);
+            }
+            if (newValue instanceof COLDPName) {
+                add(taxa, ((COLDPName) newValue).getScientificName(), taxon);
+            }
+        }
+    }
+
+    @Override
+    public void deleted(TableEnum table, Object entity) {
+        if (table == TableEnum.NAME) {
+            COLDPName name = (COLDPName) entity;
+            remove(names, name.getScientificName(), name);
+        } else if (table == TableEnum.TAXON) {
+            COLDPTaxon taxon = (COLDPTaxon) entity;
+            if (taxon.getName() != null) {
+                remove(taxa, taxon.getName().getScientificName(), taxon);
+            }
+        }
+    }
+
+    static <T> void add(Map<String, List<T>> index, String key, T entity) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entity);
+        }
+    }
+
+    /*
+     * Entities are matched by identity since their equals methods compare
+     * field values
+     */
+    static <T> void remove(Map<String, List<T>> index, String key, T entity) {
+        List<T> list = key == null ? null : index.get(key);
+        if (list != null) {
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) == entity) {
+                    list.remove(i);
+                    break;
+                }
+            }
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static <T> T first(List<T> list) {
+        return list == null ? null : list.get(0);
+    }
+}
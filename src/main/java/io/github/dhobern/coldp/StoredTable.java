@@ -0,0 +1,360 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * One table of a PackageStore. The rows are copied from the CSV file into
+ * a record file, read back with positional reads, and an index file which
+ * is memory mapped and holds the offset of each row plus a hash index on
+ * each indexed column. Each index has a head row per hash bucket and a 
+ * next row per row, so all rows sharing a value (such as the children of
+ * a taxon) are found by walking one chain and comparing the column. The
+ * files record the size and modification time of the CSV file and are 
+ * rebuilt once it changes. Reads use only absolute positions so a table 
+ * may be read from several threads.
+ *
+ * @author dhobern@gmail.com
+ */
+class StoredTable<T> implements Closeable {
+
+    private static final int MAGIC = 0x434f5354;
+    private static final int VERSION = 1;
+    private static final int NONE = -1;
+
+    private final RowBinder<T> binder;
+    private final FileChannel records;
+    private final MappedByteBuffer index;
+
+    private String[] header;
+    private BiConsumer<T, String>[] setters;
+    private int rowCount;
+    private LongBuffer offsets;
+    private int[] keyColumns;
+    private IntBuffer[] heads;
+    private IntBuffer[] next;
+
+    /**
+     * @param keys columns to index, the first normally being the primary key
+     */
+    StoredTable(PackageSource source, TableEnum table, RowBinder<T> binder,
+            String separator, File folder, String... keys) throws IOException {
+        this.binder = binder;
+        Path csv = source.getTable(table);
+        File recordFile = new File(folder, table.getBaseName() + ".rec");
+        File indexFile = new File(folder, table.getBaseName() + ".idx");
+        long size = Files.size(csv);
+        long modified = Files.getLastModifiedTime(csv).toMillis();
+
+        if (!isCurrent(indexFile, recordFile, size, modified, keys)) {
+            build(source, table, separator, recordFile, indexFile, size, modified, keys);
+        }
+
+        records = FileChannel.open(recordFile.toPath(), StandardOpenOption.READ);
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        readIndex(keys);
+    }
+
+    int size() {
+        return rowCount;
+    }
+
+    /**
+     * @return a new entity holding the row, with foreign keys left as IDs
+     */
+    T get(int row) throws IOException {
+        String[] values = read(row);
+        T entity = binder.newInstance();
+        for (int i = 0; i < values.length && i < setters.length; i++) {
+            if (setters[i] != null && values[i] != null && !values[i].isEmpty()) {
+                setters[i].accept(entity, values[i]);
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * @return rows, in table order, whose value in the indexed column is 
+     * value
+     */
+    List<Integer> find(String column, String value) throws IOException {
+        int k = indexOf(header, column);
+        int i = 0;
+        while (i < keyColumns.length && keyColumns[i] != k) {
+            i++;
+        }
+        if (k < 0 || i == keyColumns.length) {
+            throw new IllegalArgumentException("Column not indexed: " + column);
+        }
+        List<Integer> rows = new ArrayList<>(1);
+        if (value != null) {
+            IntBuffer chain = next[i];
+            for (int row = heads[i].get(bucket(value, heads[i].capacity())); 
+                    row != NONE; row = chain.get(row)) {
+                if (value.equals(read(row)[k])) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+    }
+
+    private String[] read(int row) throws IOException {
+        long offset = offsets.get(row);
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(length, offset);
+        ByteBuffer payload = ByteBuffer.allocate(length.getInt(0));
+        readFully(payload, offset + 4);
+        payload.flip();
+
+        String[] values = new String[header.length];
+        for (int i = 0; i < values.length && payload.hasRemaining(); i++) {
+            int n = payload.getInt();
+            if (n >= 0) {
+                values[i] = new String(payload.array(), payload.position(), n, StandardCharsets.UTF_8);
+                payload.position(payload.position() + n);
+            }
+        }
+        return values;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (records.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Record file truncated at " + position);
+            }
+        }
+    }
+
+    private static int bucket(String value, int capacity) {
+        int h = value.hashCode();
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+
+    private static boolean isCurrent(File indexFile, File recordFile, long size, 
+            long modified, String[] keys) throws IOException {
+        if (!indexFile.exists() || !recordFile.exists()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(28);
+            channel.read(buffer, 0);
+            buffer.flip();
+            return buffer.remaining() == 28 && buffer.getInt() == MAGIC 
+                    && buffer.getInt() == VERSION && buffer.getLong() == size 
+                    && buffer.getLong() == modified && buffer.getInt() == keys.length;
+        }
+    }
+
+    private void readIndex(String[] keys) {
+        index.position(28);
+        header = new String[index.getInt()];
+        for (int i = 0; i < header.length; i++) {
+            byte[] bytes = new byte[index.getInt()];
+            index.get(bytes);
+            header[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        setters = binder.getSetters(header);
+        rowCount = index.getInt();
+        offsets = slice(rowCount * 8).asLongBuffer();
+
+        keyColumns = new int[keys.length];
+        heads = new IntBuffer[keys.length];
+        next = new IntBuffer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyColumns[i] = index.getInt();
+            int capacity = index.getInt();
+            heads[i] = slice(capacity * 4).asIntBuffer();
+            next[i] = slice(rowCount * 4).asIntBuffer();
+        }
+    }
+
+    private ByteBuffer slice(int length) {
+        ByteBuffer slice = index.slice();
+        slice.limit(length);
+        index.position(index.position() + length);
+        return slice;
+    }
+
+    /*
+     * Only the row offsets and key hashes are held while building, not the
+     * rows themselves
+     */
+    private static void build(PackageSource source, TableEnum table, String separator,
+            File recordFile, File indexFile, long size, long modified, String[] keys) 
+            throws IOException {
+        recordFile.getParentFile().mkdirs();
+        long[][] offsets = { new long[1024] };
+        int[][][] hashes = { new int[keys.length][1024] };
+        int[] rowCount = { 0 };
+        String[][] columns = { null };
+        int[] keyColumns = new int[keys.length];
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(recordFile), 1 << 16))) {
+            TableReader<Object> reader = new TableReader<>(source.openTable(table),
+                    null, source.getSeparator(table, separator));
+            long[] position = { 0 };
+            reader.scan((header, fields) -> {
+                if (columns[0] == null) {
+                    columns[0] = header;
+                    for (int i = 0; i < keys.length; i++) {
+                        keyColumns[i] = indexOf(header, keys[i]);
+                    }
+                }
+                int row = rowCount[0]++;
+                if (row == offsets[0].length) {
+                    offsets[0] = Arrays.copyOf(offsets[0], row * 2);
+                    for (int i = 0; i < keys.length; i++) {
+                        hashes[0][i] = Arrays.copyOf(hashes[0][i], row * 2);
+                    }
+                }
+                offsets[0][row] = position[0];
+                for (int i = 0; i < keys.length; i++) {
+                    String key = keyColumns[i] < fields.size() && keyColumns[i] >= 0 
+                            ? fields.get(keyColumns[i]) : null;
+                    hashes[0][i][row] = (key == null || key.isEmpty()) ? NONE : hash(key);
+                }
+                try {
+                    position[0] += writeRecord(out, fields);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        String[] header = columns[0] == null ? new String[0] : columns[0];
+        int rows = rowCount[0];
+        File temporary = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt(keys.length);
+            out.writeInt(header.length);
+            for (String column : header) {
+                byte[] bytes = column.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(rows);
+            for (int row = 0; row < rows; row++) {
+                out.writeLong(offsets[0][row]);
+            }
+            int capacity = 16;
+            while (capacity < rows * 2) {
+                capacity <<= 1;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                // Rows are chained last first so each chain runs in table order
+                int[] head = new int[capacity];
+                int[] chain = new int[rows];
+                Arrays.fill(head, NONE);
+                for (int row = rows - 1; row >= 0; row--) {
+                    int h = hashes[0][i][row];
+                    if (h == NONE) {
+                        chain[row] = NONE;
+                    } else {
+                        int b = h & (capacity - 1);
+                        chain[row] = head[b];
+                        head[b] = row;
+                    }
+                }
+                out.writeInt(keyColumns[i]);
+                out.writeInt(capacity);
+                for (int value : head) {
+                    out.writeInt(value);
+                }
+                for (int value : chain) {
+                    out.writeInt(value);
+                }
+            }
+        }
+        Files.move(temporary.toPath(), indexFile.toPath(), 
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /*
+     * Matches bucket(), but never returns NONE so that it can mark rows with
+     * no key
+     */
+    private static int hash(String value) {
+        int h = value.hashCode();
+        return (h ^ (h >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    private static int indexOf(String[] header, String column) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].trim().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private static int writeRecord(DataOutputStream out, List<String> fields) 
+            throws IOException {
+        byte[][] values = new byte[fields.size()][];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            String value = fields.get(i);
+            values[i] = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+            length += 4 + (value == null ? 0 : values[i].length);
+        }
+        out.writeInt(length);
+        for (byte[] value : values) {
+            if (value == null) {
+                out.writeInt(NONE);
+            } else {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        }
+        return 4 + length;
+    }
+}
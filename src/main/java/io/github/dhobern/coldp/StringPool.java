@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares String instances for columns which repeat a small set of values
+ * (rank, status, classification and so on) across many rows. Each column
+ * has its own pool, which stops accepting new values once it reaches its
+ * bound so that a column with more variety than expected cannot grow
+ * without limit.
+ *
+ * @author dhobern@gmail.com
+ */
+public class StringPool {
+
+    public static final int DEFAULT_MAX_VALUES = 4096;
+
+    // Approximate cost of a separate String with a Latin-1 backing array
+    private static final int STRING_OVERHEAD = 40;
+
+    private final int maxValues;
+    private final Map<String, Column> columns = new ConcurrentHashMap<>();
+
+    public StringPool() {
+        this(DEFAULT_MAX_VALUES);
+    }
+
+    public StringPool(int maxValues) {
+        this.maxValues = maxValues;
+    }
+
+    /**
+     * @param name identifies the column, e.g. "taxon.family"
+     */
+    Column getColumn(String name) {
+        return columns.computeIfAbsent(name.toLowerCase(), n -> new Column());
+    }
+
+    public String intern(String column, String value) {
+        return getColumn(column).intern(value);
+    }
+
+    /**
+     * @return one line per column giving the number of distinct values held
+     * and the number of duplicate strings (and approximate bytes) avoided
+     */
+    public List<String> getReport() {
+        List<String> report = new ArrayList<>();
+        long totalDuplicates = 0;
+        long totalBytes = 0;
+        for (Map.Entry<String, Column> entry : new TreeMap<>(columns).entrySet()) {
+            Column column = entry.getValue();
+            report.add(entry.getKey() + ": " + column.values.size() + " values"
+                    + (column.values.size() >= maxValues ? " (limit reached)" : "")
+                    + ", " + column.duplicates.get() + " duplicates, ~"
+                    + column.savedBytes.get() + " bytes saved");
+            totalDuplicates += column.duplicates.get();
+            totalBytes += column.savedBytes.get();
+        }
+        report.add("Total: " + totalDuplicates + " duplicates, ~" + totalBytes + " bytes saved");
+        return report;
+    }
+
+    class Column {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong savedBytes = new AtomicLong();
+
+        String intern(String value) {
+            if (value == null) {
+                return null;
+            }
+            String pooled = values.get(value);
+            if (pooled == null && values.size() < maxValues) {
+                pooled = values.putIfAbsent(value, value);
+                if (pooled == null) {
+                    return value;
+                }
+            }
+            if (pooled == null) {
+                return value;
+            }
+            duplicates.incrementAndGet();
+            savedBytes.addAndGet(STRING_OVERHEAD + value.length());
+            return pooled;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import static io.github.dhobern.coldp.TaxonStatistics.*;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Running totals of the counts in TaxonStatistics for each taxon and its
+ * descendants. Each taxon holds its own contribution and the total for its
+ * subtree. A change to a taxon, or to its synonyms, distributions or name,
+ * marks the taxon so its contribution is recomputed on the next query and 
+ * the difference applied along its ancestors. Moving a taxon moves its
+ * whole total from the old ancestors to the new ones.
+ *
+ * @author dhobern@gmail.com
+ */
+class SubtreeStatistics implements ChangeListener {
+
+    private static class Counts {
+        final int[] own = new int[SIZE];
+        final int[] total = new int[SIZE];
+    }
+
+    private final Map<COLDPTaxon, Counts> counts = new IdentityHashMap<>();
+    private final Set<COLDPTaxon> stale 
+            = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    SubtreeStatistics(Collection<COLDPTaxon> taxa) {
+        for (COLDPTaxon taxon : taxa) {
+            counts.put(taxon, new Counts());
+        }
+        for (COLDPTaxon taxon : taxa) {
+            update(taxon);
+        }
+    }
+
+    /**
+     * @return the counts for taxon and its descendants, or null if the 
+     * taxon is not in the package
+     */
+    TaxonStatistics get(COLDPTaxon taxon) {
+        if (!stale.isEmpty()) {
+            for (COLDPTaxon t : stale) {
+                update(t);
+            }
+            stale.clear();
+        }
+        Counts c = counts.get(taxon);
+        return c == null ? null : new TaxonStatistics(c.total);
+    }
+
+    @Override
+    public void added(TableEnum table, Object entity) {
+        switch (table) {
+            case TAXON:
+                counts.put((COLDPTaxon) entity, new Counts());
+                stale.add((COLDPTaxon) entity);
+                break;
+            case SYNONYM:
+                markStale(((COLDPSynonym) entity).getTaxon());
+                break;
+            case DISTRIBUTION:
+                markStale(((COLDPDistribution) entity).getTaxon());
+                break;
+        }
+    }
+
+    @Override
+    public void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+        switch (table) {
+            case TAXON:
+                COLDPTaxon taxon = (COLDPTaxon) entity;
+                if (column.equals("parentID")) {
+                    Counts c = counts.get(taxon);
+                    if (c != null) {
+                        if (oldValue instanceof COLDPTaxon) {
+                            apply((COLDPTaxon) oldValue, c.total, -1);
+                        }
+                        if (newValue instanceof COLDPTaxon) {
+                            apply((COLDPTaxon) newValue, c.total, 1);
+                        }
+                    }
+                } else if (column.equals("nameID") || column.equals("extinct")) {
+                    markStale(taxon);
+                }
+                break;
+            case NAME:
+                if (column.equals("rank") || column.equals("referenceID")) {
+                    COLDPName name = (COLDPName) entity;
+                    markStale(name.getTaxon());
+                    if (name.getSynonyms() != null) {
+                        for (COLDPSynonym synonym : name.getSynonyms()) {
+                            markStale(synonym.getTaxon());
+                        }
+                    }
+                }
+                break;
+            case SYNONYM:
+                if (column.equals("taxonID") || column.equals("nameID")) {
+                    markStale(((COLDPSynonym) entity).getTaxon());
+                    markStale(oldValue);
+                    markStale(newValue);
+                }
+                break;
+            case DISTRIBUTION:
+                if (column.equals("taxonID")) {
+                    markStale(oldValue);
+                    markStale(newValue);
+                } else if (column.equals("area")) {
+                    markStale(((COLDPDistribution) entity).getTaxon());
+                }
+                break;
+        }
+    }
+
+    /*
+     * A taxon has already lost its parent, name and links by the time it is
+     * reported deleted
+     */
+    @Override
+    public void deleted(TableEnum table, Object entity) {
+        if (table == TableEnum.TAXON) {
+            counts.remove(entity);
+            stale.remove(entity);
+        }
+    }
+
+    private void markStale(Object taxon) {
+        if (taxon instanceof COLDPTaxon && counts.containsKey(taxon)) {
+            stale.add((COLDPTaxon) taxon);
+        }
+    }
+
+    private void update(COLDPTaxon taxon) {
+        Counts c = counts.get(taxon);
+        int[] own = getOwnCounts(taxon);
+        int[] delta = new int[SIZE];
+        boolean changed = false;
+        for (int i = 0; i < SIZE; i++) {
+            delta[i] = own[i] - c.own[i];
+            changed |= delta[i] != 0;
+        }
+        if (changed) {
+            System.arraycopy(own, 0, c.own, 0, SIZE);
+            apply(taxon, delta, 1);
+        }
+    }
+
+    private void apply(COLDPTaxon taxon, int[] delta, int sign) {
+        for (; taxon != null; taxon = taxon.getParent()) {
+            Counts c = counts.get(taxon);
+            if (c != null) {
+                for (int i = 0; i < SIZE; i++) {
+                    c.total[i] += sign * delta[i];
+                }
+            }
+        }
+    }
+
+    private static int[] getOwnCounts(COLDPTaxon taxon) {
+        int[] own = new int[SIZE];
+        own[TAXA] = 1;
+        COLDPName name = taxon.getName();
+        if (name != null) {
+            if (name.getRankEnum() == RankEnum.species) {
+                own[SPECIES] = 1;
+            }
+            if (isUnreferenced(name)) {
+                own[UNREFERENCED_NAMES]++;
+            }
+        }
+        if (taxon.getSynonyms() != null) {
+            own[SYNONYMS] = taxon.getSynonyms().size();
+            for (COLDPSynonym synonym : taxon.getSynonyms()) {
+                if (synonym.getName() != null && isUnreferenced(synonym.getName())) {
+                    own[UNREFERENCED_NAMES]++;
+                }
+            }
+        }
+        // The display set leaves out rows with no region and keeps one row
+        // per region, so every row is counted instead
+        if (taxon.getDistributionRows() != null) {
+            own[DISTRIBUTIONS] = taxon.getDistributionRows().size();
+        }
+        if (taxon.isExtinct()) {
+            own[EXTINCT] = 1;
+        }
+        return own;
+    }
+
+    private static boolean isUnreferenced(COLDPName name) {
+        return name.getReferenceID() == null || name.getReferenceID().isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+/**
+ * Enumeration of the tables in a COLDP package, in the order in which 
+ * COLDataPackage reads them
+ * 
+ * @author dhobern@gmail.com
+ */
+public enum TableEnum {
+    
+    REFERENCE("reference", true),
+    NAME("name", true),
+    NAMEREFERENCE("namereference", false),
+    NAMERELATION("namerelation", false),
+    TAXON("taxon", true),
+    SYNONYM("synonym", true),
+    REGION("region", false),
+    DISTRIBUTION("distribution", false),
+    SPECIESINTERACTION("speciesinteraction", false);
+    
+    private final String baseName;
+    private final boolean required;
+    
+    private TableEnum(String baseName, boolean required) {
+        this.baseName = baseName;
+        this.required = required;
+    }
+
+    public String getBaseName() {
+        return baseName;
+    }
+    
+    public String getFileName() {
+        return baseName + ".csv";
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+}
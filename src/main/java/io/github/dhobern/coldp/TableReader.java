@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Reads a delimited file into entity objects using a RowBinder. Fields may
+ * be quoted, with doubled quotes for a literal quote and embedded line
+ * breaks. As with CSVReader, the first row holds the column names, empty
+ * cells leave the property unset and blank lines are ignored.
+ *
+ * @author dhobern@gmail.com
+ */
+public class TableReader<T> {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final RowBinder<T> binder;
+    private final char separator;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+    private boolean blank;
+
+    private Predicate<String> columnFilter = column -> true;
+    private boolean[] skipped;
+
+    private StringPool stringPool = null;
+    private String tableName = null;
+
+    public TableReader(String fileName, RowBinder<T> binder, String separator)
+            throws IOException {
+        this(new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8),
+                binder, separator);
+    }
+
+    public TableReader(Reader in, RowBinder<T> binder, String separator) {
+        if (separator == null || separator.length() != 1) {
+            throw new IllegalArgumentException("Separator must be a single character: " + separator);
+        }
+        this.in = in;
+        this.binder = binder;
+        this.separator = separator.charAt(0);
+    }
+
+    /**
+     * Limit binding to the columns accepted by the filter. Cells in other
+     * columns are scanned past without being stored.
+     */
+    public void setColumnFilter(Predicate<String> columnFilter) {
+        this.columnFilter = columnFilter;
+    }
+
+    /**
+     * Share values of pooled columns through the pool, which is keyed by
+     * the table name and column name.
+     */
+    public void setStringPool(StringPool stringPool, String tableName) {
+        this.stringPool = stringPool;
+        this.tableName = tableName;
+    }
+
+    public List<T> getList() throws IOException {
+        List<T> rows = new ArrayList<>();
+        try (Reader reader = in) {
+            if (!readRecord()) {
+                return rows;
+            }
+            String[] header = fields.toArray(new String[fields.size()]);
+            if (header.length > 0 && header[0].startsWith("\uFEFF")) {
+                header[0] = header[0].substring(1);
+            }
+            BiConsumer<T, String>[] setters = binder.getSetters(header, columnFilter);
+            skipped = new boolean[setters.length];
+            StringPool.Column[] pools = new StringPool.Column[setters.length];
+            for (int i = 0; i < setters.length; i++) {
+                skipped[i] = (setters[i] == null);
+                if (stringPool != null && !skipped[i] && binder.isPooled(header[i])) {
+                    pools[i] = stringPool.getColumn(tableName + "." + header[i].trim());
+                }
+            }
+
+            while (readRecord()) {
+                if (blank) {
+                    continue;
+                }
+                T row = binder.newInstance();
+                int count = Math.min(fields.size(), setters.length);
+                for (int i = 0; i < count; i++) {
+                    String value = fields.get(i);
+                    if (value != null && !value.isEmpty()) {
+                        setters[i].accept(row, pools[i] == null ? value : pools[i].intern(value));
+                    }
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Pass each row to the consumer as raw cell values, without binding, so
+     * a table can be streamed without holding its rows. The header is passed
+     * with every row and the list of values is reused between rows.
+     */
+    public void scan(BiConsumer<String[], List<String>> consumer) throws IOException {
+        try (Reader reader = in) {
+            if (!readRecord()) {
+                return;
+            }
+            String[] header = fields.toArray(new String[fields.size()]);
+            if (header.length > 0 && header[0].startsWith("\uFEFF")) {
+                header[0] = header[0].substring(1);
+            }
+            while (readRecord()) {
+                if (!blank) {
+                    consumer.accept(header, fields);
+                }
+            }
+        }
+    }
+
+    /*
+     * Reads the next record into fields, returning false at end of input.
+     * Fields in skipped columns are consumed but recorded as null.
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        blank = (c == '\n' || c == '\r');
+
+        boolean quoted = false;
+        boolean skip = isSkipped(0);
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        if (!skip) {
+                            field.append('"');
+                        }
+                    } else {
+                        quoted = false;
+                        continue;
+                    }
+                } else if (!skip) {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                addField(skip);
+                skip = isSkipped(fields.size());
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                c = read();
+                if (c != '\n' && c >= 0) {
+                    position--;
+                }
+                break;
+            } else if (!skip) {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        addField(skip);
+        return true;
+    }
+
+    private boolean isSkipped(int column) {
+        return skipped != null && (column >= skipped.length || skipped[column]);
+    }
+
+    private void addField(boolean skip) {
+        fields.add(skip ? null : field.toString());
+        field.setLength(0);
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
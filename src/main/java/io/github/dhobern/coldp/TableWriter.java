@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a CSV file with the same quoting as StringUtils.buildCSV. Fields
+ * are appended to a reusable character buffer which is encoded into a
+ * large byte buffer and written to a file channel, so no String is built
+ * per row. Output goes to a temporary file in the target folder and is
+ * only moved over the target by commit(), so an interrupted write leaves
+ * any existing file intact.
+ *
+ * @author dhobern@gmail.com
+ */
+public class TableWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE * 4);
+
+    private boolean rowStarted = false;
+    private boolean committed = false;
+
+    public TableWriter(Path target) throws IOException {
+        this.target = target;
+        this.temp = createTemp(target);
+        this.channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /*
+     * File.createTempFile is used rather than Files.createTempFile so the
+     * file gets the default permissions rather than owner-only access
+     */
+    private static Path createTemp(Path target) throws IOException {
+        File folder = target.toAbsolutePath().getParent().toFile();
+        return File.createTempFile(target.getFileName().toString(), ".tmp", folder).toPath();
+    }
+
+    /**
+     * Append a complete line, such as a header, without quoting.
+     */
+    public void line(String line) throws IOException {
+        append(line);
+        append(LINE_SEPARATOR);
+        rowStarted = false;
+    }
+
+    public void field(String value) throws IOException {
+        if (rowStarted) {
+            append(',');
+        }
+        rowStarted = true;
+        if (value == null) {
+            return;
+        }
+        if (needsQuotes(value)) {
+            append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    append('"');
+                }
+                append(c);
+            }
+            append('"');
+        } else {
+            append(value);
+        }
+    }
+
+    public void endRow() throws IOException {
+        append(LINE_SEPARATOR);
+        rowStarted = false;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put(c);
+    }
+
+    private void append(String s) throws IOException {
+        int offset = 0;
+        while (offset < s.length()) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            int count = Math.min(chars.remaining(), s.length() - offset);
+            chars.put(s, offset, offset + count);
+            offset += count;
+        }
+    }
+
+    /*
+     * Encode the buffered characters, leaving any unpaired high surrogate
+     * in the buffer to be completed by the next append
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isError()) {
+                result.throwException();
+            }
+        } while (result.isOverflow());
+        chars.compact();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Flush all output and move the temporary file over the target.
+     */
+    public void commit() throws IOException {
+        encode(true);
+        while (encoder.flush(bytes).isOverflow()) {
+            drain();
+        }
+        drain();
+        channel.force(false);
+        channel.close();
+        moveIntoPlace(temp, target);
+        committed = true;
+    }
+
+    /**
+     * Discards the temporary file unless the output has been committed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (!committed) {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Copy a file via a temporary file so that the target is replaced in
+     * a single step.
+     */
+    public static void copy(Path source, Path target) throws IOException {
+        Path temp = createTemp(target);
+        try {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Nested interval labelling of the taxon tree. Each taxon is numbered in
+ * a depth-first walk from the roots, and also records the last number
+ * in its subtree, so a taxon is a descendant of another if its number falls
+ * within the other's interval, and a subtree is a contiguous range of the
+ * walk. Each taxon also holds its ancestors at distances 1, 2, 4 and so on,
+ * which with the intervals finds the lowest common ancestor of two taxa in
+ * O(log depth) steps. The labels are dropped when a parent changes or taxa
+ * are added or deleted, and rebuilt on the next query.
+ *
+ * @author dhobern@gmail.com
+ */
+class TaxonIntervals implements ChangeListener {
+
+    private final Collection<COLDPTaxon> roots;
+
+    private Map<COLDPTaxon, Integer> numbers = null;
+    private COLDPTaxon[] order;
+    private int[] last;
+    private int[] depth;
+    private int[][] ancestors;
+
+    TaxonIntervals(Collection<COLDPTaxon> roots) {
+        this.roots = roots;
+    }
+
+    /**
+     * @return true if taxon lies strictly below ancestor in the tree
+     */
+    boolean isDescendant(COLDPTaxon taxon, COLDPTaxon ancestor) {
+        build();
+        Integer t = numbers.get(taxon);
+        Integer a = numbers.get(ancestor);
+        return t != null && a != null && a < t && t <= last[a];
+    }
+
+    /**
+     * @return the number of ancestors of taxon, or -1 if it is not in the tree
+     */
+    int getDepth(COLDPTaxon taxon) {
+        build();
+        Integer t = numbers.get(taxon);
+        return t == null ? -1 : depth[t];
+    }
+
+    /**
+     * @return taxon followed by all its descendants, parents before their 
+     * children, as labelled when the stream was requested
+     */
+    Stream<COLDPTaxon> subtree(COLDPTaxon taxon) {
+        build();
+        Integer t = numbers.get(taxon);
+        return t == null ? Stream.empty() : Arrays.stream(order, t, last[t] + 1);
+    }
+
+    /**
+     * @return the lowest taxon that is first or an ancestor of first and is 
+     * also second or an ancestor of second, or null if there is none
+     */
+    COLDPTaxon getCommonAncestor(COLDPTaxon first, COLDPTaxon second) {
+        build();
+        Integer f = numbers.get(first);
+        Integer s = numbers.get(second);
+        if (f == null || s == null) {
+            return null;
+        }
+        int a = getCommonAncestor(f, s);
+        return a < 0 ? null : order[a];
+    }
+
+    /**
+     * @return the lowest taxon containing all of taxa, or null if taxa is
+     * empty or they share no ancestor
+     */
+    COLDPTaxon getCommonAncestor(Collection<COLDPTaxon> taxa) {
+        build();
+        int a = -1;
+        for (COLDPTaxon taxon : taxa) {
+            Integer t = numbers.get(taxon);
+            if (t == null) {
+                return null;
+            }
+            a = (a == -1) ? t : getCommonAncestor(a, t);
+            if (a < 0) {
+                return null;
+            }
+        }
+        return a < 0 ? null : order[a];
+    }
+
+    /**
+     * @return the taxa from first up to the common ancestor and down to 
+     * second, both included, or an empty list if they share no ancestor
+     */
+    List<COLDPTaxon> getPath(COLDPTaxon first, COLDPTaxon second) {
+        build();
+        Integer f = numbers.get(first);
+        Integer s = numbers.get(second);
+        int a = (f == null || s == null) ? -1 : getCommonAncestor(f, s);
+        if (a < 0) {
+            return Collections.emptyList();
+        }
+        List<COLDPTaxon> path = new ArrayList<>(depth[f] + depth[s] - 2 * depth[a] + 1);
+        for (int t = f; t != a; t = ancestors[0][t]) {
+            path.add(order[t]);
+        }
+        int descent = path.size();
+        for (int t = s; t != a; t = ancestors[0][t]) {
+            path.add(order[t]);
+        }
+        path.add(order[a]);
+        Collections.reverse(path.subList(descent, path.size()));
+        return path;
+    }
+
+    private int getCommonAncestor(int f, int s) {
+        if (contains(f, s)) {
+            return f;
+        }
+        for (int k = ancestors.length - 1; k >= 0; k--) {
+            int a = ancestors[k][f];
+            if (a >= 0 && !contains(a, s)) {
+                f = a;
+            }
+        }
+        return ancestors[0][f];
+    }
+
+    private boolean contains(int ancestor, int taxon) {
+        return ancestor <= taxon && taxon <= last[ancestor];
+    }
+
+    @Override
+    public void added(TableEnum table, Object entity) {
+        if (table == TableEnum.TAXON) {
+            numbers = null;
+        }
+    }
+
+    @Override
+    public void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+        if (table == TableEnum.TAXON && column.equals("parentID")) {
+            numbers = null;
+        }
+    }
+
+    @Override
+    public void deleted(TableEnum table, Object entity) {
+        if (table == TableEnum.TAXON) {
+            numbers = null;
+        }
+    }
+
+    /*
+     * The walk keeps an explicit stack of child iterators so deep trees do
+     * not exhaust the call stack
+     */
+    private void build() {
+        if (numbers != null) {
+            return;
+        }
+
+        Map<COLDPTaxon, Integer> numbers = new IdentityHashMap<>();
+        COLDPTaxon[] order = new COLDPTaxon[16];
+        int[] last = new int[16];
+        int[] depth = new int[16];
+        int[] parents = new int[16];
+        int count = 0;
+        int maxDepth = 0;
+
+        Deque<Integer> path = new ArrayDeque<>();
+        Deque<Iterator<COLDPTaxon>> pending = new ArrayDeque<>();
+        pending.push(roots.iterator());
+        while (!pending.isEmpty()) {
+            Iterator<COLDPTaxon> siblings = pending.peek();
+            if (!siblings.hasNext()) {
+                pending.pop();
+                if (!path.isEmpty()) {
+                    last[path.pop()] = count - 1;
+                }
+                continue;
+            }
+            COLDPTaxon taxon = siblings.next();
+            if (numbers.containsKey(taxon)) {
+                continue;
+            }
+            if (count == order.length) {
+                order = Arrays.copyOf(order, count * 2);
+                last = Arrays.copyOf(last, count * 2);
+                depth = Arrays.copyOf(depth, count * 2);
+                parents = Arrays.copyOf(parents, count * 2);
+            }
+            numbers.put(taxon, count);
+            order[count] = taxon;
+            depth[count] = path.size();
+            parents[count] = path.isEmpty() ? -1 : path.peek();
+            maxDepth = Math.max(maxDepth, path.size());
+            path.push(count++);
+            pending.push(taxon.getChildren() == null 
+                    ? Collections.emptyIterator() : taxon.getChildren().iterator());
+        }
+
+        // Jumps longer than the deepest taxon are never taken
+        int levels = 32 - Integer.numberOfLeadingZeros(maxDepth);
+        int[][] ancestors = new int[Math.max(levels, 1)][];
+        ancestors[0] = parents;
+        for (int k = 1; k < ancestors.length; k++) {
+            int[] previous = ancestors[k - 1];
+            ancestors[k] = new int[count];
+            for (int i = 0; i < count; i++) {
+                ancestors[k][i] = previous[i] < 0 ? -1 : previous[previous[i]];
+            }
+        }
+
+        this.order = order;
+        this.ancestors = ancestors;
+        this.last = last;
+        this.depth = depth;
+        this.numbers = numbers;
+    }
+}
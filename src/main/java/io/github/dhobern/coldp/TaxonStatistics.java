@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+/**
+ * Counts over a taxon and all its descendants, as returned by 
+ * COLDataPackage.getStatistics.
+ *
+ * @author dhobern@gmail.com
+ */
+public class TaxonStatistics {
+
+    static final int TAXA = 0;
+    static final int SPECIES = 1;
+    static final int SYNONYMS = 2;
+    static final int DISTRIBUTIONS = 3;
+    static final int UNREFERENCED_NAMES = 4;
+    static final int EXTINCT = 5;
+    static final int SIZE = 6;
+
+    private final int[] counts;
+
+    TaxonStatistics(int[] counts) {
+        this.counts = counts.clone();
+    }
+
+    public int getTaxonCount() {
+        return counts[TAXA];
+    }
+
+    /**
+     * @return the number of accepted taxa of species rank
+     */
+    public int getSpeciesCount() {
+        return counts[SPECIES];
+    }
+
+    public int getSynonymCount() {
+        return counts[SYNONYMS];
+    }
+
+    public int getDistributionCount() {
+        return counts[DISTRIBUTIONS];
+    }
+
+    /**
+     * @return the number of accepted and synonym names with no reference
+     */
+    public int getUnreferencedNameCount() {
+        return counts[UNREFERENCED_NAMES];
+    }
+
+    public int getExtinctCount() {
+        return counts[EXTINCT];
+    }
+
+    @Override
+    public String toString() {
+        return "taxa: " + getTaxonCount() + ", species: " + getSpeciesCount()
+                + ", synonyms: " + getSynonymCount() + ", distributions: " 
+                + getDistributionCount() + ", unreferenced names: " 
+                + getUnreferencedNameCount() + ", extinct: " + getExtinctCount();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Trigram index over the display strings of the rows in one table, used
+ * to answer substring searches without rendering every row. Candidate rows
+ * are found by intersecting the lists of rows containing each trigram of
+ * the search text and are then checked against the full text.
+ *
+ * Rows are re-indexed lazily: changes reported to the index only mark a
+ * row as stale, and stale rows are rendered again on the next search.
+ *
+ * @author dhobern@gmail.com
+ */
+class TextIndex<T> implements ChangeListener {
+
+    private static final int GRAM = 3;
+
+    private final TableEnum table;
+    private final Function<T, String> display;
+    private TableEnum followedTable = null;
+    private Function<Object, T> follower = null;
+
+    private final List<T> rows = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Map<T, Integer> slots = new IdentityHashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Set<T> stale = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int deadSlots = 0;
+
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void remove(int value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+            }
+        }
+    }
+
+    TextIndex(TableEnum table, Function<T, String> display, Collection<T> rows) {
+        this.table = table;
+        this.display = display;
+        for (T row : rows) {
+            add(row);
+        }
+    }
+
+    /**
+     * Also re-index a row when a row in another table which contributes
+     * to its display string changes.
+     */
+    TextIndex<T> follow(TableEnum followedTable, Function<Object, T> follower) {
+        this.followedTable = followedTable;
+        this.follower = follower;
+        return this;
+    }
+
+    /**
+     * @return rows whose display string contains the text, with exact and
+     * prefix matches first
+     */
+    List<T> find(String text) {
+        refresh();
+
+        List<Integer> matches = new ArrayList<>();
+        if (text.length() < GRAM) {
+            for (int slot = 0; slot < texts.size(); slot++) {
+                if (texts.get(slot) != null && texts.get(slot).contains(text)) {
+                    matches.add(slot);
+                }
+            }
+        } else {
+            IntList[] lists = getPostings(text);
+            if (lists != null) {
+                for (int slot : intersect(lists)) {
+                    if (texts.get(slot).contains(text)) {
+                        matches.add(slot);
+                    }
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingInt((Integer slot) -> rank(texts.get(slot), text))
+                .thenComparingInt(slot -> texts.get(slot).length())
+                .thenComparing(slot -> texts.get(slot)));
+        List<T> found = new ArrayList<>(matches.size());
+        for (int slot : matches) {
+            found.add(rows.get(slot));
+        }
+        return found;
+    }
+
+    /*
+     * 0 for a match of whole words, 1 for a match at the start of a word,
+     * then 2 and 3 for the same within a word
+     */
+    private static int rank(String s, String text) {
+        int start = s.indexOf(text);
+        int end = start + text.length();
+        int rank = (start == 0 || isBoundary(s.charAt(start - 1))) ? 0 : 2;
+        if (end < s.length() && !isBoundary(s.charAt(end))) {
+            rank++;
+        }
+        return rank;
+    }
+
+    private static boolean isBoundary(char c) {
+        return c == ' ' || c == ',' || c == '(' || c == ')';
+    }
+
+    private IntList[] getPostings(String text) {
+        Map<Long, IntList> lists = new HashMap<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            long gram = getGram(text, i);
+            IntList list = postings.get(gram);
+            if (list == null) {
+                return null;
+            }
+            lists.put(gram, list);
+        }
+        IntList[] sorted = lists.values().toArray(new IntList[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(list -> list.size));
+        return sorted;
+    }
+
+    private static int[] intersect(IntList[] lists) {
+        int[] result = Arrays.copyOf(lists[0].values, lists[0].size);
+        int size = result.length;
+        for (int l = 1; l < lists.length && size > 0; l++) {
+            IntList list = lists[l];
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                while (j < list.size && list.values[j] < result[i]) {
+                    j++;
+                }
+                if (j < list.size && list.values[j] == result[i]) {
+                    result[kept++] = result[i];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long getGram(String s, int offset) {
+        return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) 
+                | s.charAt(offset + 2);
+    }
+
+    private void add(T row) {
+        String text = display.apply(row);
+        int slot = rows.size();
+        rows.add(row);
+        texts.add(text);
+        slots.put(row, slot);
+        if (text != null) {
+            for (long gram : getGrams(text)) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(slot);
+            }
+        }
+    }
+
+    private void remove(T row) {
+        Integer slot = slots.remove(row);
+        if (slot != null) {
+            String text = texts.get(slot);
+            if (text != null) {
+                for (long gram : getGrams(text)) {
+                    IntList list = postings.get(gram);
+                    list.remove(slot);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            rows.set(slot, null);
+            texts.set(slot, null);
+            deadSlots++;
+        }
+    }
+
+    private static Set<Long> getGrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(getGram(text, i));
+        }
+        return grams;
+    }
+
+    /*
+     * New rows always take a new slot so that every posting list stays in
+     * order, so the lists are rebuilt once most slots are empty
+     */
+    private void refresh() {
+        for (T row : stale) {
+            Integer slot = slots.get(row);
+            if (slot == null || !Objects.equals(display.apply(row), texts.get(slot))) {
+                remove(row);
+                add(row);
+            }
+        }
+        stale.clear();
+
+        if (deadSlots > 1024 && deadSlots > rows.size() / 2) {
+            List<T> live = new ArrayList<>(slots.size());
+            for (T row : rows) {
+                if (row != null) {
+                    live.add(row);
+                }
+            }
+            rows.clear();
+            texts.clear();
+            slots.clear();
+            postings.clear();
+            deadSlots = 0;
+            for (T row : live) {
+                add(row);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void added(TableEnum table, Object entity) {
+        if (table == this.table) {
+            stale.add((T) entity);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void modified(TableEnum table, Object entity, String column,
+            Object oldValue, Object newValue) {
+        if (table == this.table) {
+            stale.add((T) entity);
+        } else if (table == followedTable) {
+            T row = follower.apply(entity);
+            if (row != null && slots.containsKey(row)) {
+                stale.add(row);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void deleted(TableEnum table, Object entity) {
+        if (table == this.table) {
+            stale.remove((T) entity);
+            remove((T) entity);
+        }
+    }
+}
@@ -17,6 +17,8 @@ package io.github.dhobern.coldp;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -172,4 +174,128 @@ public class COLDPTaxonTest {
         
         assertEquals(before, after);
     }
+
+    @Test
+    public void testChildrenSorted() {
+        COLDPTaxon fasciata = coldp.getTaxa().get("271");
+        COLDPTaxon Ochyrotica = fasciata.getParent();
+        COLDPTaxon Agdistopis = coldp.getTaxa().get("3060");
+
+        List<COLDPTaxon> sorted = Ochyrotica.getChildrenSortedList();
+        assertSorted(Ochyrotica);
+        assertSame(sorted, Ochyrotica.getChildrenSortedList());
+        assertEquals(sorted, new ArrayList<>(Ochyrotica.getChildrenSorted()));
+        try {
+            Ochyrotica.getChildrenSorted().clear();
+            fail("Sorted children should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            sorted.clear();
+            fail("Sorted children should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+
+        fasciata.getName().setScientificName("Ochyrotica aaa");
+        assertNotSame(sorted, Ochyrotica.getChildrenSortedList());
+        assertSame(fasciata, Ochyrotica.getChildrenSortedList().get(0));
+        assertSame(fasciata, Ochyrotica.getChildrenSorted().iterator().next());
+        assertSorted(Ochyrotica);
+
+        sorted = Agdistopis.getChildrenSortedList();
+        fasciata.setParent(Agdistopis);
+        assertFalse(Ochyrotica.getChildrenSorted().contains(fasciata));
+        assertNotSame(sorted, Agdistopis.getChildrenSortedList());
+        assertTrue(Agdistopis.getChildrenSorted().contains(fasciata));
+        assertSorted(Agdistopis);
+    }
+
+    private static void assertSorted(COLDPTaxon taxon) {
+        List<COLDPTaxon> sorted = taxon.getChildrenSortedList();
+        assertEquals(taxon.getChildren().size(), sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            COLDPName a = sorted.get(i - 1).getName();
+            COLDPName b = sorted.get(i).getName();
+            assertTrue((a.getScientificName() + " " + a.getAuthorship())
+                    .compareTo(b.getScientificName() + " " + b.getAuthorship()) <= 0);
+        }
+    }
+
+    @Test
+    public void testCompactClassification() {
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setCompactClassification(true);
+        COLDataPackage compact = new COLDataPackage("mockdata", null, ",", loadProperties);
+
+        for (COLDPTaxon taxon : coldp.getTaxa().values()) {
+            COLDPTaxon other = compact.getTaxa().get(taxon.getID());
+            assertEquals(taxon.getKingdom(), other.getKingdom());
+            assertEquals(taxon.getPhylum(), other.getPhylum());
+            assertEquals(taxon.getClazz(), other.getClazz());
+            assertEquals(taxon.getOrder(), other.getOrder());
+            assertEquals(taxon.getSuperfamily(), other.getSuperfamily());
+            assertEquals(taxon.getFamily(), other.getFamily());
+            assertEquals(taxon.getSubfamily(), other.getSubfamily());
+            assertEquals(taxon.getTribe(), other.getTribe());
+            assertEquals(taxon.getGenus(), other.getGenus());
+            assertEquals(taxon.getSpecies(), other.getSpecies());
+        }
+
+        COLDPTaxon fasciata = compact.getTaxa().get("271");
+        COLDPTaxon Agdistopis = compact.getTaxa().get("3060");
+        fasciata.setParent(Agdistopis);
+        assertEquals("Agdistopis", fasciata.getGenus());
+        assertEquals("Macropiratidae", fasciata.getFamily());
+        assertNull(fasciata.getSubfamily());
+        assertTrue(fasciata.toCsv().contains(",Agdistopis,"));
+
+        fasciata.setParent(null);
+        assertEquals("Agdistopis", fasciata.getGenus());
+        assertEquals("Macropiratidae", fasciata.getFamily());
+        assertEquals("Animalia", fasciata.getKingdom());
+        fasciata.setGenus("Kept");
+        assertEquals("Kept", fasciata.getGenus());
+        fasciata.setParent(Agdistopis);
+        assertEquals("Agdistopis", fasciata.getGenus());
+
+        COLDPTaxon taxon = compact.newTaxon();
+        taxon.setName(compact.newName());
+        taxon.getName().setRank("subfamily");
+        taxon.getName().setScientificName("Novinae");
+        taxon.setParent(compact.getTaxa().get("5"));
+        assertEquals("Pterophoridae", taxon.getFamily());
+        assertEquals("Novinae", taxon.getSubfamily());
+        assertNull(taxon.getGenus());
+    }
+
+    @Test
+    public void testCompactClassificationSetters() {
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setCompactClassification(true);
+        COLDataPackage compact = new COLDataPackage("mockdata", null, ",", loadProperties);
+
+        COLDPTaxon fasciata = compact.getTaxa().get("271");
+        COLDPTaxon Ochyrotica = fasciata.getParent();
+        String family = fasciata.getFamily();
+        fasciata.setGenus(fasciata.getGenus());
+        assertFalse(compact.getChanges().isDirty(TableEnum.TAXON));
+
+        fasciata.setSubfamily("Explicit");
+        assertEquals("Explicit", fasciata.getSubfamily());
+        assertEquals(family, fasciata.getFamily());
+        assertEquals("Ochyrotica", fasciata.getGenus());
+        assertTrue(fasciata.toCsv().contains(",Explicit,"));
+        assertTrue(compact.getChanges().getModified(TableEnum.TAXON).contains(fasciata));
+
+        Ochyrotica.setFamily("Explicitidae");
+        assertEquals("Explicitidae", Ochyrotica.getFamily());
+        assertEquals(family, fasciata.getFamily());
+        COLDPTaxon sibling = null;
+        for (COLDPTaxon child : Ochyrotica.getChildren()) {
+            if (child != fasciata) {
+                sibling = child;
+            }
+        }
+        assertEquals("Explicitidae", sibling.getFamily());
+    }
 }
@@ -7,10 +7,28 @@ package io.github.dhobern.coldp;
 
 import io.github.dhobern.coldp.TreeRenderProperties.ContextType;
 import io.github.dhobern.coldp.TreeRenderProperties.TreeRenderType;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -188,4 +206,656 @@ public class COLDataPackageTest {
         Ochyrotica.render(new PrintWriter(System.out, true), new TreeRenderProperties(TreeRenderType.HTML, ContextType.None, "  ", 0));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testScientificNameIndex() {
+        COLDPName family = coldp.getNames().get("5");
+        assertSame(family, coldp.getNameByScientificName("Pterophoridae"));
+        assertSame(family.getTaxon(), coldp.getTaxonByScientificName("Pterophoridae"));
+
+        family.setScientificName("Pterophoridae Nova");
+        assertNull(coldp.getNameByScientificName("Pterophoridae"));
+        assertNull(coldp.getTaxonByScientificName("Pterophoridae"));
+        assertSame(family, coldp.getNameByScientificName("Pterophoridae Nova"));
+        assertSame(family.getTaxon(), coldp.getTaxonByScientificName("Pterophoridae Nova"));
+
+        COLDPName homonym = coldp.newName();
+        homonym.setScientificName("Pterophoridae Nova");
+        assertEquals(List.of(family, homonym), coldp.getNamesByScientificName("Pterophoridae Nova"));
+
+        COLDPTaxon taxon = family.getTaxon();
+        taxon.setName(homonym);
+        assertSame(taxon, coldp.getTaxonByScientificName("Pterophoridae Nova"));
+        coldp.deleteName(family);
+        assertEquals(List.of(homonym), coldp.getNamesByScientificName("Pterophoridae Nova"));
+        coldp.deleteName(homonym);
+        assertTrue(coldp.getNamesByScientificName("Pterophoridae Nova").isEmpty());
+        assertNull(coldp.getTaxonByScientificName("Pterophoridae Nova"));
+
+        COLDPName genus = coldp.getTaxa().get("268").getName();
+        COLDPName species = coldp.addName(RankEnum.species, genus.getScientificName(), null, "nova", null,
+                "Dylan, 1963", null, null, genus.getTaxon(), null, null, null, null, null, null, null, null);
+        assertSame(species, coldp.getNameByScientificName(species.getScientificName()));
+        assertSame(species.getTaxon(), coldp.getTaxonByScientificName(species.getScientificName()));
+    }
+
+    @Test
+    public void testFindRelations() {
+        List<Optional<COLDPTaxon>> taxa = new ArrayList<>(Arrays.asList(null, Optional.empty()));
+        coldp.getTaxa().values().forEach(t -> taxa.add(Optional.of(t)));
+        List<Optional<COLDPName>> names = new ArrayList<>(Arrays.asList(null, Optional.empty()));
+        coldp.getNames().values().forEach(n -> names.add(Optional.of(n)));
+        List<Optional<COLDPRegion>> regions = new ArrayList<>(Arrays.asList(null, Optional.empty()));
+        coldp.getRegions().values().forEach(r -> regions.add(Optional.of(r)));
+        List<Optional<COLDPReference>> references = Arrays.asList(null, Optional.empty(),
+                Optional.of(coldp.getReferences().get("94")));
+
+        for (Optional<COLDPTaxon> taxon : taxa) {
+            for (Optional<COLDPName> name : names) {
+                assertEquals(new HashSet<>(coldp.getSynonyms().stream()
+                        .filter(s -> taxon == null || taxon.equals(Optional.ofNullable(s.getTaxon())))
+                        .filter(s -> name == null || name.equals(Optional.ofNullable(s.getName())))
+                        .collect(Collectors.toList())),
+                        new HashSet<>(coldp.findSynonyms(taxon, name)));
+            }
+            for (Optional<COLDPRegion> region : regions) {
+                for (Optional<COLDPReference> reference : references) {
+                    assertEquals(new HashSet<>(coldp.getDistributions().stream()
+                            .filter(d -> taxon == null || taxon.equals(Optional.ofNullable(d.getTaxon())))
+                            .filter(d -> region == null || region.equals(Optional.ofNullable(d.getRegion())))
+                            .filter(d -> reference == null || reference.equals(Optional.ofNullable(d.getReference())))
+                            .collect(Collectors.toList())),
+                            new HashSet<>(coldp.findDistributions(taxon, region, reference)));
+                }
+            }
+        }
+
+        // Indexes follow edits made through the setters
+        COLDPTaxon taxon = coldp.getTaxa().get("271");
+        COLDPRegion region = coldp.getRegions().get("PA");
+        COLDPDistribution distribution = coldp.findDistributions(Optional.of(taxon),
+                Optional.of(region), null).get(0);
+        distribution.setTaxon(coldp.getTaxa().get("273"));
+        assertTrue(coldp.findDistributions(Optional.of(taxon), Optional.of(region), null).isEmpty());
+        assertEquals(List.of(distribution), coldp.findDistributions(
+                Optional.of(coldp.getTaxa().get("273")), Optional.of(region), null));
+
+        // Rows with no region and rows sharing a region are still found
+        int count = coldp.findDistributions(Optional.of(taxon), null, null).size();
+        COLDPDistribution unplaced = coldp.newDistribution();
+        unplaced.setTaxon(taxon);
+        COLDPDistribution native1 = coldp.newDistribution();
+        native1.setTaxon(taxon);
+        native1.setRegion(region);
+        native1.setStatus("native");
+        COLDPDistribution native2 = coldp.newDistribution();
+        native2.setRegion(region);
+        native2.setTaxon(taxon);
+        native2.setStatus("introduced");
+        List<COLDPDistribution> found = coldp.findDistributions(Optional.of(taxon), null, null);
+        assertEquals(count + 3, found.size());
+        assertTrue(found.contains(unplaced));
+        assertEquals(2, coldp.findDistributions(Optional.of(taxon), Optional.of(region), null).size());
+        assertEquals(List.of(unplaced), coldp.findDistributions(Optional.of(taxon), Optional.empty(), null));
+
+        coldp.deleteTaxon(taxon);
+        assertFalse(coldp.getDistributions().contains(unplaced));
+        assertTrue(coldp.findDistributions(null, Optional.of(region), null).stream()
+                .noneMatch(d -> d == native1 || d == native2));
+    }
+
+    @Test
+    public void testRootTaxa() {
+        List<COLDPTaxon> roots = coldp.getRootTaxa();
+        assertRoots(roots);
+
+        COLDPTaxon root = roots.get(0);
+        COLDPTaxon child = root.getChildren().iterator().next();
+        child.setParent(null);
+        assertRoots(roots);
+        assertTrue(roots.contains(child));
+        child.setParent(root);
+        assertRoots(roots);
+
+        COLDPTaxon taxon = coldp.newTaxon();
+        assertRoots(roots);
+        taxon.setParent(child);
+        assertRoots(roots);
+        coldp.deleteTaxon(root);
+        assertRoots(roots);
+        coldp.deleteTaxon(child);
+        assertRoots(roots);
+
+        try {
+            roots.clear();
+            fail("Root taxa should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void testTaxonIntervals() {
+        assertIntervals();
+
+        COLDPTaxon taxon = coldp.getTaxa().get("271");
+        COLDPTaxon parent = taxon.getParent();
+        COLDPTaxon grandparent = parent.getParent();
+        assertTrue(coldp.isDescendant(taxon, grandparent));
+        assertEquals(coldp.getDepth(parent) + 1, coldp.getDepth(taxon));
+        assertEquals(taxon, coldp.subtree(taxon).findFirst().get());
+
+        taxon.setParent(null);
+        assertFalse(coldp.isDescendant(taxon, grandparent));
+        assertEquals(0, coldp.getDepth(taxon));
+        assertIntervals();
+        coldp.deleteTaxon(parent);
+        assertEquals(-1, coldp.getDepth(parent));
+        assertEquals(0, coldp.subtree(parent).count());
+        assertIntervals();
+    }
+
+    @Test
+    public void testCommonAncestor() {
+        assertCommonAncestors();
+
+        COLDPTaxon taxon = coldp.getTaxa().get("271");
+        COLDPTaxon parent = taxon.getParent();
+        List<COLDPTaxon> path = coldp.getPath(taxon, parent.getParent());
+        assertEquals(List.of(taxon, parent, parent.getParent()), path);
+        assertEquals(List.of(taxon), coldp.getPath(taxon, taxon));
+
+        taxon.setParent(null);
+        assertNull(coldp.getCommonAncestor(taxon, parent));
+        assertTrue(coldp.getPath(taxon, parent).isEmpty());
+        assertCommonAncestors();
+    }
+
+    private void assertCommonAncestors() {
+        List<COLDPTaxon> taxa = new ArrayList<>(coldp.getTaxa().values());
+        List<COLDPTaxon> first = new ArrayList<>();
+        List<COLDPTaxon> second = new ArrayList<>();
+        List<COLDPTaxon> expected = new ArrayList<>();
+        for (COLDPTaxon f : taxa) {
+            for (COLDPTaxon s : taxa) {
+                Set<COLDPTaxon> ancestors = getLineage(s);
+                COLDPTaxon ancestor = f;
+                while (ancestor != null && !ancestors.contains(ancestor)) {
+                    ancestor = ancestor.getParent();
+                }
+                first.add(f);
+                second.add(s);
+                expected.add(ancestor);
+            }
+        }
+        List<COLDPTaxon> ancestors = coldp.getCommonAncestors(first, second);
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), ancestors.get(i));
+        }
+
+        for (COLDPTaxon taxon : taxa) {
+            if (taxon.getChildren() != null && taxon.getChildren().size() > 1) {
+                assertSame(taxon, coldp.getCommonAncestor(taxon.getChildren()));
+                List<COLDPTaxon> path = coldp.getPath(
+                        coldp.subtree(taxon).reduce((a, b) -> b).get(), 
+                        taxon.getChildren().iterator().next());
+                assertTrue(path.contains(taxon));
+                for (int i = 1; i < path.size(); i++) {
+                    assertTrue(path.get(i).getParent() == path.get(i - 1)
+                            || path.get(i - 1).getParent() == path.get(i));
+                }
+            }
+        }
+    }
+
+    private static Set<COLDPTaxon> getLineage(COLDPTaxon taxon) {
+        Set<COLDPTaxon> lineage = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (; taxon != null; taxon = taxon.getParent()) {
+            lineage.add(taxon);
+        }
+        return lineage;
+    }
+
+    @Test
+    public void testStatistics() {
+        assertStatistics();
+
+        COLDPTaxon taxon = coldp.getTaxa().get("271");
+        COLDPTaxon parent = taxon.getParent();
+        taxon.setParent(parent.getParent());
+        taxon.setExtinct(!taxon.isExtinct());
+        coldp.getSynonyms().get(0).setTaxon(taxon);
+        coldp.deleteDistribution(coldp.getDistributions().get(0));
+        COLDPDistribution distribution = coldp.newDistribution();
+        distribution.setTaxon(parent);
+        taxon.getName().setReference(null);
+        assertStatistics();
+
+        // Rows without a region and rows sharing a region are all counted
+        COLDPDistribution shared = coldp.newDistribution();
+        shared.setTaxon(parent);
+        COLDPRegion region = coldp.getRegions().values().iterator().next();
+        distribution.setRegion(region);
+        shared.setRegion(region);
+        shared.setStatus("introduced");
+        assertStatistics();
+        distribution.setRegion(null);
+        assertStatistics();
+
+        COLDPTaxon child = coldp.newTaxon();
+        child.setName(coldp.newName());
+        child.getName().setRank("species");
+        child.setParent(taxon);
+        coldp.deleteTaxon(parent);
+        coldp.deleteName(coldp.getTaxa().get("16").getName(), true);
+        assertStatistics();
+        assertNull(coldp.getStatistics(parent));
+    }
+
+    private void assertStatistics() {
+        for (COLDPTaxon taxon : coldp.getTaxa().values()) {
+            List<COLDPTaxon> subtree = new ArrayList<>();
+            addSubtree(taxon, subtree);
+            int species = 0, synonyms = 0, distributions = 0, unreferenced = 0, extinct = 0;
+            for (COLDPTaxon t : subtree) {
+                if (t.getName() != null && t.getName().getRankEnum() == RankEnum.species) {
+                    species++;
+                }
+                if (t.getName() != null && t.getName().getReferenceID() == null) {
+                    unreferenced++;
+                }
+                if (t.getSynonyms() != null) {
+                    synonyms += t.getSynonyms().size();
+                    for (COLDPSynonym synonym : t.getSynonyms()) {
+                        if (synonym.getName().getReferenceID() == null) {
+                            unreferenced++;
+                        }
+                    }
+                }
+                distributions += t.getDistributionRows() == null ? 0 : t.getDistributionRows().size();
+                extinct += t.isExtinct() ? 1 : 0;
+            }
+            TaxonStatistics statistics = coldp.getStatistics(taxon);
+            assertEquals(subtree.size(), statistics.getTaxonCount());
+            assertEquals(species, statistics.getSpeciesCount());
+            assertEquals(synonyms, statistics.getSynonymCount());
+            assertEquals(distributions, statistics.getDistributionCount());
+            assertEquals(unreferenced, statistics.getUnreferencedNameCount());
+            assertEquals(extinct, statistics.getExtinctCount());
+        }
+    }
+
+    private void assertIntervals() {
+        for (COLDPTaxon taxon : coldp.getTaxa().values()) {
+            int depth = 0;
+            for (COLDPTaxon a = taxon.getParent(); a != null; a = a.getParent()) {
+                assertTrue(coldp.isDescendant(taxon, a));
+                depth++;
+            }
+            assertEquals(depth, coldp.getDepth(taxon));
+            assertFalse(coldp.isDescendant(taxon, taxon));
+
+            List<COLDPTaxon> expected = new ArrayList<>();
+            addSubtree(taxon, expected);
+            List<COLDPTaxon> subtree = coldp.subtree(taxon).collect(Collectors.toList());
+            assertEquals(expected.size(), subtree.size());
+            assertEquals(new HashSet<>(expected), new HashSet<>(subtree));
+            for (COLDPTaxon descendant : subtree.subList(1, subtree.size())) {
+                assertTrue(coldp.isDescendant(descendant, taxon));
+                assertFalse(coldp.isDescendant(taxon, descendant));
+            }
+        }
+    }
+
+    private static void addSubtree(COLDPTaxon taxon, List<COLDPTaxon> subtree) {
+        subtree.add(taxon);
+        if (taxon.getChildren() != null) {
+            for (COLDPTaxon child : taxon.getChildren()) {
+                addSubtree(child, subtree);
+            }
+        }
+    }
+
+    private void assertRoots(List<COLDPTaxon> roots) {
+        List<COLDPTaxon> expected = coldp.getTaxa().values().stream()
+                .filter(t -> t.getParent() == null).collect(Collectors.toList());
+        assertEquals(expected.size(), roots.size());
+        for (COLDPTaxon taxon : expected) {
+            assertTrue(roots.stream().anyMatch(r -> r == taxon));
+        }
+    }
+
+    @Test
+    public void testGenderAgnosticMatch() {
+        COLDPName fasciata = coldp.getNames().get("271");
+        assertSame(fasciata, coldp.findNameByGenderAgnosticScientific("Ochyrotica fasciata"));
+        assertSame(fasciata, coldp.findNameByGenderAgnosticScientific("Ochyrotica fasciatus"));
+        assertNull(coldp.findNameByGenderAgnosticScientific("Ochyrotica nova"));
+
+        // Edits after the index is built are followed
+        fasciata.setSpecificEpithet("nova");
+        fasciata.setScientificName("Ochyrotica nova");
+        assertNull(coldp.findNameByGenderAgnosticScientific("Ochyrotica fasciatus"));
+        assertSame(fasciata, coldp.findNameByGenderAgnosticScientific("Ochyrotica novus"));
+
+        COLDPName mexicana = coldp.getNames().get("273");
+        Map<String, COLDPName> matches = coldp.findNamesByGenderAgnosticScientific(
+                List.of("Ochyrotica mexicanus", "Ochyrotica novus", "Ochyrotica fasciatus"));
+        assertEquals(Map.of("Ochyrotica mexicanus", mexicana, "Ochyrotica novus", fasciata), matches);
+
+        coldp.deleteName(mexicana);
+        assertTrue(coldp.findNamesByStem("Ochyrotica mexican").isEmpty());
+    }
+
+    @Test
+    public void testParallelLoad() {
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setParallel(true);
+        COLDataPackage parallel = new COLDataPackage("mockdata", null, ",", loadProperties);
+        
+        assertEquals(coldp.getNames().keySet(), parallel.getNames().keySet());
+        assertEquals(coldp.getTaxa().keySet(), parallel.getTaxa().keySet());
+        assertEquals(coldp.getReferences().keySet(), parallel.getReferences().keySet());
+        assertEquals(coldp.getRegions().keySet(), parallel.getRegions().keySet());
+        assertEquals(coldp.getSynonyms().size(), parallel.getSynonyms().size());
+        assertEquals(coldp.getDistributions().size(), parallel.getDistributions().size());
+        assertEquals(coldp.getNameReferences().size(), parallel.getNameReferences().size());
+        assertEquals(coldp.getNameRelations().size(), parallel.getNameRelations().size());
+        
+        COLDPTaxon taxon = parallel.getTaxa().get("271");
+        assertEquals("268", taxon.getParent().getID());
+        assertEquals(coldp.getTaxa().get("271").getDistributions().size(), taxon.getDistributions().size());
+        
+        assertTrue(parallel.getLoadTimes().containsKey(TableEnum.NAME));
+        assertFalse(parallel.getLoadTimes().containsKey(TableEnum.SPECIESINTERACTION));
+    }
+
+    @Test
+    public void testBulkLink() {
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setParallel(true);
+        loadProperties.setBulkLink(true);
+        COLDataPackage bulk = new COLDataPackage("mockdata", null, ",", loadProperties);
+        
+        for (COLDPTaxon expected : coldp.getTaxa().values()) {
+            COLDPTaxon taxon = bulk.getTaxa().get(expected.getID());
+            assertEquals(expected.getParentID(), taxon.getParentID());
+            assertEquals(expected.getNameID(), taxon.getNameID());
+            assertSame(taxon, taxon.getName().getTaxon());
+            assertEquals(expected.getChildren(), taxon.getChildren());
+            assertEquals(sizeOf(expected.getSynonyms()), sizeOf(taxon.getSynonyms()));
+            assertEquals(sizeOf(expected.getDistributions()), sizeOf(taxon.getDistributions()));
+        }
+        for (COLDPName expected : coldp.getNames().values()) {
+            COLDPName name = bulk.getNames().get(expected.getID());
+            assertEquals(expected.getBasionymID(), name.getBasionymID());
+            assertEquals(expected.getCombinations(), name.getCombinations());
+            assertEquals(sizeOf(expected.getNameReferences()), sizeOf(name.getNameReferences()));
+            assertEquals(sizeOf(expected.getNameRelations()), sizeOf(name.getNameRelations()));
+        }
+        for (COLDPReference expected : coldp.getReferences().values()) {
+            COLDPReference reference = bulk.getReferences().get(expected.getID());
+            assertEquals(sizeOf(expected.getNames()), sizeOf(reference.getNames()));
+            assertEquals(sizeOf(expected.getTaxa()), sizeOf(reference.getTaxa()));
+        }
+    }
+    
+    @Test
+    public void testSnapshot() throws IOException {
+        File folder = TestPackages.copyMockData();
+        
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setSnapshot(true);
+        
+        COLDataPackage fromCsv = new COLDataPackage(folder.getPath(), null, ",", loadProperties);
+        PackageSource source = PackageSource.open(folder.getPath());
+        PackageSnapshot snapshot = new PackageSnapshot(source, ",");
+        assertTrue(snapshot.isCurrent());
+        assertFalse(new PackageSnapshot(source, "\t").isCurrent());
+        
+        COLDataPackage fromSnapshot = new COLDataPackage(folder.getPath(), null, ",", loadProperties);
+        assertTrue(fromSnapshot.getLoadTimes().isEmpty());
+        assertEquals(fromCsv.getNames().keySet(), fromSnapshot.getNames().keySet());
+        assertEquals(fromCsv.getReferences().keySet(), fromSnapshot.getReferences().keySet());
+        assertEquals(fromCsv.getRegions().keySet(), fromSnapshot.getRegions().keySet());
+        assertEquals(fromCsv.getSynonyms().size(), fromSnapshot.getSynonyms().size());
+        assertEquals(fromCsv.getNameRelations().size(), fromSnapshot.getNameRelations().size());
+        for (COLDPTaxon expected : fromCsv.getTaxa().values()) {
+            COLDPTaxon taxon = fromSnapshot.getTaxa().get(expected.getID());
+            assertEquals(expected.toCsv(), taxon.toCsv());
+            assertEquals(expected.getChildren(), taxon.getChildren());
+            assertSame(taxon, taxon.getName().getTaxon());
+            assertEquals(sizeOf(expected.getDistributions()), sizeOf(taxon.getDistributions()));
+        }
+        for (COLDPName expected : fromCsv.getNames().values()) {
+            COLDPName name = fromSnapshot.getNames().get(expected.getID());
+            assertEquals(expected.toCSV(), name.toCSV());
+            assertEquals(expected.getCombinations(), name.getCombinations());
+        }
+        
+        File taxonFile = new File(folder, TableEnum.TAXON.getFileName());
+        assertTrue(taxonFile.setLastModified(taxonFile.lastModified() - 60000));
+        assertFalse(snapshot.isCurrent());
+        
+        COLDataPackage reloaded = new COLDataPackage(folder.getPath(), null, ",", loadProperties);
+        assertTrue(reloaded.getLoadTimes().containsKey(TableEnum.TAXON));
+        assertTrue(snapshot.isCurrent());
+        
+        TestPackages.delete(folder);
+    }
+    
+    @Test
+    public void testZipSource() throws IOException {
+        File zip = File.createTempFile("coldp", ".zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            for (File csv : new File("mockdata").listFiles()) {
+                List<String> lines = Files.readAllLines(csv.toPath());
+                String entryName = csv.getName();
+                if (entryName.equals("region.csv")) {
+                    // Store one table tab-separated to check the extension is honoured
+                    entryName = "region.tsv";
+                    lines.replaceAll(line -> line.replace("ID,name", "ID\tname")
+                            .replace("\",\"", "\"\t\""));
+                }
+                out.putNextEntry(new ZipEntry("package/" + entryName));
+                out.write(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        
+        try (PackageSource source = PackageSource.open(zip.getPath())) {
+            assertTrue(source.isArchive());
+            assertTrue(source.hasTable(TableEnum.NAME));
+            assertFalse(source.hasTable(TableEnum.SPECIESINTERACTION));
+            assertEquals("\t", source.getSeparator(TableEnum.REGION, ","));
+            assertEquals(",", source.getSeparator(TableEnum.NAME, ","));
+        }
+        
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setParallel(true);
+        COLDataPackage zipped = new COLDataPackage(zip.getPath(), null, ",", loadProperties);
+        
+        assertEquals(coldp.getNames().keySet(), zipped.getNames().keySet());
+        assertEquals(coldp.getTaxa().keySet(), zipped.getTaxa().keySet());
+        assertEquals(coldp.getRegions().keySet(), zipped.getRegions().keySet());
+        assertEquals(coldp.getDistributions().size(), zipped.getDistributions().size());
+        assertEquals(coldp.getRegions().get("AU").getName(), zipped.getRegions().get("AU").getName());
+        
+        zip.delete();
+    }
+    
+    @Test
+    public void testProjection() {
+        Projection projection = new Projection()
+                .include(TableEnum.NAME, "scientificName")
+                .include(TableEnum.TAXON);
+        assertTrue(projection.includes(TableEnum.NAME, "ScientificName"));
+        assertTrue(projection.includes(TableEnum.NAME, "basionymID"));
+        assertFalse(projection.includes(TableEnum.NAME, "authorship"));
+        assertTrue(projection.includes(TableEnum.REFERENCE, "title"));
+        
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setProjection(projection);
+        COLDataPackage projected = new COLDataPackage("mockdata", null, ",", loadProperties);
+        
+        assertEquals(coldp.getNames().keySet(), projected.getNames().keySet());
+        assertEquals(coldp.getTaxa().keySet(), projected.getTaxa().keySet());
+        assertEquals(coldp.getSynonyms().size(), projected.getSynonyms().size());
+        
+        COLDPTaxon expected = coldp.getTaxa().get("271");
+        COLDPTaxon taxon = projected.getTaxa().get("271");
+        assertEquals(expected.getParentID(), taxon.getParentID());
+        assertEquals(expected.getName().getScientificName(), taxon.getName().getScientificName());
+        assertEquals(expected.getName().getBasionymID(), taxon.getName().getBasionymID());
+        assertNotNull(expected.getName().getAuthorship());
+        assertNull(taxon.getName().getAuthorship());
+        assertNotNull(expected.getFamily());
+        assertNull(taxon.getFamily());
+        assertEquals(expected.getName().getReference().getTitle(), 
+                taxon.getName().getReference().getTitle());
+    }
+    
+    @Test
+    public void testProjectedWrite() throws IOException {
+        File folder = TestPackages.copyMockData();
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setProjection(new Projection()
+                .include(TableEnum.NAME, "scientificName")
+                .include(TableEnum.TAXON));
+        COLDataPackage projected = new COLDataPackage(folder.getPath(), null, ",", loadProperties);
+        projected.getTaxa().get("271").setRemarks("Projected");
+        projected.getNames().get("271").setScientificName("Projected");
+        projected.getDistributions().get(0).setRemarks("Projected");
+
+        // Restricted tables are only copied, never serialised from the 
+        // columns that were read
+        File taxonFile = new File(folder, TableEnum.TAXON.getFileName());
+        String taxa = Files.readString(taxonFile.toPath());
+        projected.write(folder.getPath(), "-NEW");
+        projected.write(folder.getPath(), "");
+        assertEquals(taxa, Files.readString(taxonFile.toPath()));
+        for (TableEnum table : TableEnum.values()) {
+            File original = new File(folder, table.getFileName());
+            File written = new File(folder, table.getBaseName() + "-NEW.csv");
+            if (table == TableEnum.NAME || table == TableEnum.TAXON) {
+                assertFalse(table.toString(), written.exists());
+            } else if (original.exists()) {
+                assertEquals(Files.readAllLines(original.toPath()).get(0), 
+                        Files.readAllLines(written.toPath()).get(0));
+            }
+        }
+        assertTrue(Files.readString(new File(folder, TableEnum.DISTRIBUTION.getFileName()).toPath())
+                .contains("Projected"));
+
+        TestPackages.delete(folder);
+    }
+
+    @Test
+    public void testLazyTables() throws Exception {
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setLazyTables(true);
+        COLDataPackage lazy = new COLDataPackage("mockdata", null, ",", loadProperties);
+
+        assertEquals(coldp.getTaxa().keySet(), lazy.getTaxa().keySet());
+        assertFalse(lazy.isLoaded(TableEnum.DISTRIBUTION));
+        assertFalse(lazy.isLoaded(TableEnum.NAMEREFERENCE));
+        assertFalse(lazy.getLoadTimes().containsKey(TableEnum.DISTRIBUTION));
+
+        // Entities load the table they ask for and no other
+        COLDPTaxon taxon = lazy.getTaxa().get("271");
+        assertEquals(coldp.getTaxa().get("271").getDistributions().size(), 
+                taxon.getDistributions().size());
+        assertTrue(lazy.isLoaded(TableEnum.DISTRIBUTION));
+        assertFalse(lazy.isLoaded(TableEnum.NAMEREFERENCE));
+        assertEquals(coldp.getDistributions().size(), lazy.getDistributions().size());
+        assertSame(taxon, taxon.getDistributions().iterator().next().getTaxon());
+
+        COLDPName name = lazy.getNames().get(coldp.getNameReferences().get(0).getNameID());
+        assertEquals(sizeOf(coldp.getNames().get(name.getID()).getNameReferences()), 
+                sizeOf(name.getNameReferences()));
+        assertTrue(lazy.isLoaded(TableEnum.NAMEREFERENCE));
+        assertFalse(lazy.getChanges().isDirty(TableEnum.NAMEREFERENCE));
+
+        // Concurrent first use loads the table once, registering each row once
+        COLDataPackage shared = new COLDataPackage("mockdata", null, ",", loadProperties);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<COLDPDistribution>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(shared::getDistributions));
+            }
+            for (Future<List<COLDPDistribution>> result : results) {
+                assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (COLDPTaxon expected : coldp.getTaxa().values()) {
+            assertEquals(sizeOf(expected.getDistributions()), 
+                    sizeOf(shared.getTaxa().get(expected.getID()).getDistributions()));
+        }
+
+        // Changing an identifier links unloaded rows before the change
+        COLDataPackage renamed = new COLDataPackage("mockdata", null, ",", loadProperties);
+        renamed.getTaxa().get("271").setID("Renamed");
+        assertTrue(renamed.isLoaded(TableEnum.DISTRIBUTION));
+        assertEquals(coldp.getTaxa().get("271").getDistributions().size(), 
+                renamed.getTaxa().get("271").getDistributions().size());
+        for (COLDPDistribution distribution : renamed.getTaxa().get("271").getDistributions()) {
+            assertEquals("Renamed", distribution.getTaxonID());
+        }
+    }
+
+    @Test
+    public void testIncrementalWrite() throws IOException {
+        File folder = TestPackages.copyMockData();
+        COLDataPackage edited = new COLDataPackage(folder.getPath());
+        assertTrue(edited.getChanges().getDirtyTables().isEmpty());
+
+        COLDPDistribution distribution = edited.getDistributions().get(0);
+        distribution.setRemarks(distribution.getRemarks());
+        assertTrue(edited.getChanges().getDirtyTables().isEmpty());
+        distribution.setRemarks("Edited");
+        COLDPSynonym synonym = edited.getSynonyms().get(0);
+        edited.deleteSynonym(synonym);
+        COLDPReference reference = edited.newReference();
+        reference.setTitle("Added");
+
+        assertEquals(Set.of(TableEnum.DISTRIBUTION, TableEnum.SYNONYM, TableEnum.REFERENCE),
+                edited.getChanges().getDirtyTables());
+        assertEquals(Set.of(distribution), edited.getChanges().getModified(TableEnum.DISTRIBUTION));
+        assertEquals(Set.of(synonym), edited.getChanges().getDeleted(TableEnum.SYNONYM));
+        assertEquals(Set.of(reference), edited.getChanges().getAdded(TableEnum.REFERENCE));
+        assertTrue(edited.getChanges().getModified(TableEnum.REFERENCE).isEmpty());
+        assertEquals(3, edited.getChanges().getReport().size());
+
+        assertTrue(edited.write(folder.getPath(), "-NEW"));
+        for (TableEnum table : TableEnum.values()) {
+            File original = new File(folder, table.getFileName());
+            File written = new File(folder, table.getBaseName() + "-NEW.csv");
+            if (edited.getChanges().isDirty(table)) {
+                assertFalse(Files.readString(original.toPath()).equals(Files.readString(written.toPath())));
+            } else if (original.exists()) {
+                assertEquals(Files.readString(original.toPath()), Files.readString(written.toPath()));
+            }
+        }
+
+        // Neither unchanged nor changed tables may replace existing files
+        COLDataPackage unedited = new COLDataPackage(folder.getPath());
+        long written = new File(folder, TableEnum.TAXON.getBaseName() + "-NEW.csv").lastModified();
+        assertFalse(unedited.write(folder.getPath(), "-NEW", false));
+        assertFalse(edited.write(folder.getPath(), "-NEW", false));
+        assertEquals(written, new File(folder, TableEnum.TAXON.getBaseName() + "-NEW.csv").lastModified());
+
+        // Changing an identifier alters every row linked to it
+        edited.getTaxa().get("271").setID("9271");
+        assertTrue(edited.getChanges().isDirty(TableEnum.TAXON));
+        assertTrue(edited.getChanges().isDirty(TableEnum.SPECIESINTERACTION));
+        assertFalse(edited.getChanges().isDirty(TableEnum.NAME));
+
+        TestPackages.delete(folder);
+    }
+
+    private static int sizeOf(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class IntKeyMapTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IntKeyMapTest.class);
+
+    @Test
+    public void testParse() {
+        assertEquals(0, IntKeyMap.parse("0"));
+        assertEquals(271, IntKeyMap.parse("271"));
+        assertEquals(Integer.MAX_VALUE, IntKeyMap.parse("2147483647"));
+        assertEquals(-1, IntKeyMap.parse("2147483648"));
+        assertEquals(-1, IntKeyMap.parse("007"));
+        assertEquals(-1, IntKeyMap.parse("-5"));
+        assertEquals(-1, IntKeyMap.parse(""));
+        assertEquals(-1, IntKeyMap.parse("PA"));
+        assertEquals(-1, IntKeyMap.parse(271));
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        Random random = new Random(42);
+        Map<String, String> expected = new HashMap<>();
+        IntKeyMap<String> map = new IntKeyMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int n = random.nextInt(2000);
+            String key = (n % 50 == 0) ? "0" + n : String.valueOf(n);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    assertEquals(expected.containsKey(key), map.containsKey(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(new ArrayList<>(map.values()).size(), expected.size());
+
+        // Removal through iterators, including the non-integer keys
+        Iterator<Map.Entry<String, String>> entries = map.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, String> entry = entries.next();
+            if (entry.getKey().startsWith("0") || entry.getKey().endsWith("3")) {
+                entries.remove();
+                expected.remove(entry.getKey());
+            }
+        }
+        assertEquals(expected, map);
+        map.values().removeIf(v -> v.endsWith("7"));
+        expected.values().removeIf(v -> v.endsWith("7"));
+        assertEquals(expected, map);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get("1"));
+    }
+
+    @Test
+    public void testStridedKeys() {
+        for (int stride : new int[] { 1, 10, 1000, 1024, 65536 }) {
+            IntKeyMap<String> map = new IntKeyMap<>();
+            for (int i = 1; i <= 20000; i++) {
+                map.put(String.valueOf(i * stride), "v" + i);
+            }
+            for (int i = 1; i <= 20000; i++) {
+                assertEquals("v" + i, map.get(String.valueOf(i * stride)));
+            }
+            assertTrue("Stride " + stride + " probes " + map.getMaxProbeLength(), 
+                    map.getMaxProbeLength() < 64);
+        }
+    }
+
+    @Test
+    public void testPackageMaps() {
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        assertTrue(coldp.getTaxa() instanceof IntKeyMap);
+        assertTrue(coldp.getNames() instanceof IntKeyMap);
+        assertTrue(coldp.getReferences() instanceof IntKeyMap);
+        assertFalse(coldp.getRegions() instanceof IntKeyMap);
+        assertEquals("271", coldp.getTaxa().get("271").getID());
+
+        coldp.tidyIdentifiers();
+        assertTrue(coldp.getTaxa() instanceof IntKeyMap);
+        for (Map.Entry<String, COLDPTaxon> entry : coldp.getTaxa().entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().getID());
+        }
+    }
+
+    /**
+     * Compares retained heap and lookup time for HashMap and IntKeyMap 
+     * holding the given number of sequential identifiers. Skipped unless the
+     * coldp.benchmark.intKeys system property gives the number of keys.
+     */
+    @Test
+    public void benchmark() {
+        Integer count = Integer.getInteger("coldp.benchmark.intKeys");
+        Assume.assumeNotNull(count);
+
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add(String.valueOf(i));
+        }
+        Object value = new Object();
+
+        long before = usedHeap();
+        Map<String, Object> hashMap = new HashMap<>();
+        keys.forEach(k -> hashMap.put(k, value));
+        long hashHeap = usedHeap() - before;
+
+        before = usedHeap();
+        Map<String, Object> intKeyMap = new IntKeyMap<>();
+        keys.forEach(k -> intKeyMap.put(k, value));
+        long intHeap = usedHeap() - before;
+
+        // Lookups use fresh key Strings, as they would after parsing a row
+        List<String> lookups = new ArrayList<>(count);
+        Random random = new Random(1);
+        for (int i = 0; i < count; i++) {
+            lookups.add(new String(keys.get(random.nextInt(count))));
+        }
+        long hashTime = time(hashMap, lookups);
+        long intTime = time(intKeyMap, lookups);
+
+        LOG.info(count + " keys: HashMap " + (hashHeap >> 10) + " KB, " 
+                + (hashTime / 1000000) + " ms; IntKeyMap " + (intHeap >> 10) + " KB, " 
+                + (intTime / 1000000) + " ms");
+    }
+
+    private static long time(Map<String, Object> map, List<String> lookups) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (String key : lookups) {
+                if (map.get(key) != null) {
+                    found++;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(lookups.size(), found);
+        }
+        return best;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
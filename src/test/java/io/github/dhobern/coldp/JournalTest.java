@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class JournalTest {
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = TestPackages.copyMockData();
+    }
+
+    @After
+    public void tearDown() {
+        TestPackages.delete(folder);
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        COLDataPackage edited = new COLDataPackage(folder.getPath());
+        Journal journal = Journal.open(edited, folder.getPath());
+        assertFalse(journal.hasSavedEdits());
+
+        COLDPReference reference = edited.newReference();
+        reference.setTitle("Journalled, with \"quotes\"");
+        edited.getTaxa().get("16").setRemarks("Replayed");
+        edited.getTaxa().get("5").setProvisional(true);
+        edited.getSynonyms().get(0).setReference(reference);
+        edited.deleteDistribution(edited.getDistributions().get(0));
+        COLDPSynonym synonym = edited.newSynonym();
+        synonym.setTaxon(edited.getTaxa().get("5"));
+        synonym.setName(edited.getNames().get("7"));
+        synonym.setStatus("synonym");
+        edited.deleteName(edited.getTaxa().get("268").getName(), true);
+        assertTrue(journal.hasUnsavedEdits());
+        journal.save();
+        assertFalse(journal.hasUnsavedEdits());
+        Map<TableEnum, List<String>> expected = getImage(edited);
+
+        // Unsaved edits and a torn batch are lost
+        edited.getTaxa().get("16").setRemarks("Unsaved");
+        journal.close();
+        Files.write(new File(folder, Journal.FILE_NAME).toPath(), new byte[] { 0, 0, 1, 0, 42 },
+                StandardOpenOption.APPEND);
+
+        COLDataPackage replayed = new COLDataPackage(folder.getPath());
+        journal = Journal.open(replayed, folder.getPath());
+        assertTrue(journal.hasSavedEdits());
+        assertEquals(expected, getImage(replayed));
+        assertEquals("Replayed", replayed.getTaxa().get("16").getRemarks());
+        assertEquals(1,
+                replayed.getChanges().getAdded(TableEnum.REFERENCE).size());
+
+        journal.compact();
+        assertFalse(journal.hasSavedEdits());
+        journal.close();
+
+        COLDataPackage compacted = new COLDataPackage(folder.getPath());
+        journal = Journal.open(compacted, folder.getPath());
+        assertFalse(journal.hasSavedEdits());
+        assertEquals(expected, getImage(compacted));
+        journal.close();
+    }
+
+    @Test
+    public void testRenamedReplay() throws IOException {
+        COLDataPackage edited = new COLDataPackage(folder.getPath());
+        Journal journal = Journal.open(edited, folder.getPath());
+        COLDPTaxon taxon = edited.getTaxa().get("16");
+        taxon.setID("9016");
+        taxon.setRemarks("Renamed");
+        edited.getTaxa().get("5").setParent(taxon);
+        journal.save();
+        Map<TableEnum, List<String>> expected = getImage(edited);
+        journal.close();
+
+        COLDataPackage replayed = new COLDataPackage(folder.getPath());
+        journal = Journal.open(replayed, folder.getPath());
+        assertEquals(expected, getImage(replayed));
+        assertEquals("9016", replayed.getTaxa().get("5").getParent().getID());
+        journal.close();
+    }
+
+    @Test
+    public void testCompactCheckpoint() throws IOException {
+        File file = new File(folder, Journal.FILE_NAME);
+        COLDataPackage edited = new COLDataPackage(folder.getPath());
+        Journal journal = Journal.open(edited, folder.getPath());
+
+        edited.getTaxa().get("16").setRemarks("Compacted");
+        edited.deleteDistribution(edited.getDistributions().get(0));
+        journal.save();
+        assertTrue(file.length() > getHeaderSize());
+        assertFalse(edited.getChanges().getDirtyTables().isEmpty());
+
+        journal.compact();
+        assertEquals(getHeaderSize(), file.length());
+        assertTrue(edited.getChanges().getDirtyTables().isEmpty());
+        assertFalse(journal.hasSavedEdits());
+
+        edited.getTaxa().get("271").setRemarks("After compact");
+        assertEquals(Collections.singleton(TableEnum.TAXON), 
+                edited.getChanges().getDirtyTables());
+        journal.save();
+        journal.close();
+
+        COLDataPackage reloaded = new COLDataPackage(folder.getPath());
+        journal = Journal.open(reloaded, folder.getPath());
+        assertEquals("Compacted", reloaded.getTaxa().get("16").getRemarks());
+        assertEquals("After compact", reloaded.getTaxa().get("271").getRemarks());
+        journal.close();
+    }
+
+    @Test
+    public void testStaleJournal() throws IOException {
+        COLDataPackage edited = new COLDataPackage(folder.getPath());
+        Journal journal = Journal.open(edited, folder.getPath());
+        edited.getTaxa().get("271").setRemarks("Stale");
+        journal.save();
+        journal.close();
+
+        File taxa = new File(folder, TableEnum.TAXON.getFileName());
+        taxa.setLastModified(taxa.lastModified() - 60000);
+
+        COLDataPackage reloaded = new COLDataPackage(folder.getPath());
+        journal = Journal.open(reloaded, folder.getPath());
+        assertFalse(journal.hasSavedEdits());
+        assertFalse("Stale".equals(reloaded.getTaxa().get("271").getRemarks()));
+        assertTrue(new File(folder, Journal.FILE_NAME + ".stale").exists());
+        journal.close();
+    }
+
+    /*
+     * Magic, version and count followed by the time of each table file
+     */
+    private long getHeaderSize() {
+        long size = 3 * Integer.BYTES;
+        for (TableEnum table : TableEnum.values()) {
+            if (new File(folder, table.getFileName()).exists()) {
+                size += 1 + Long.BYTES;
+            }
+        }
+        return size;
+    }
+
+    private static Map<TableEnum, List<String>> getImage(COLDataPackage coldp) {
+        Map<TableEnum, List<String>> image = new EnumMap<>(TableEnum.class);
+        image.put(TableEnum.REFERENCE, getRows(coldp.getReferences().values(), COLDPReference::toCsv));
+        image.put(TableEnum.NAME, getRows(coldp.getNames().values(), COLDPName::toCSV));
+        image.put(TableEnum.NAMEREFERENCE, getRows(coldp.getNameReferences(), COLDPNameReference::toCsv));
+        image.put(TableEnum.NAMERELATION, getRows(coldp.getNameRelations(), COLDPNameRelation::toCsv));
+        image.put(TableEnum.TAXON, getRows(coldp.getTaxa().values(), COLDPTaxon::toCsv));
+        image.put(TableEnum.SYNONYM, getRows(coldp.getSynonyms(), COLDPSynonym::toCsv));
+        image.put(TableEnum.REGION, getRows(coldp.getRegions().values(), COLDPRegion::toCsv));
+        image.put(TableEnum.DISTRIBUTION, getRows(coldp.getDistributions(), COLDPDistribution::toCsv));
+        image.put(TableEnum.SPECIESINTERACTION, getRows(coldp.getSpeciesInteractions(), COLDPSpeciesInteraction::toCsv));
+        return image;
+    }
+
+    private static <T> List<String> getRows(Collection<T> rows, Function<T, String> toCsv) {
+        List<String> csv = new ArrayList<>();
+        for (T row : rows) {
+            csv.add(toCsv.apply(row));
+        }
+        Collections.sort(csv);
+        return csv;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class NameColumnsTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NameColumnsTest.class);
+
+    @Test
+    public void testScans() {
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        NameColumns columns = coldp.getNameColumns();
+        List<COLDPName> names = new ArrayList<>(coldp.getNames().values());
+        assertEquals(names.size(), columns.size());
+
+        for (int row = 0; row < columns.size(); row++) {
+            COLDPName name = columns.getName(row);
+            assertEquals(name.getScientificName(), columns.getValue("scientificName", row));
+            assertEquals(name.getRemarks(), columns.getValue("remarks", row));
+            assertSame(name.getReference(), columns.getReference(row));
+            int basionym = columns.getBasionymRow(row);
+            if (name.getBasionym() == null) {
+                assertEquals(-1, basionym);
+            } else {
+                assertSame(name.getBasionym(), columns.getName(basionym));
+            }
+        }
+
+        assertEquals(select(names, n -> "species".equals(n.getRank())),
+                columns.getNames(columns.select("rank", "species")));
+        assertEquals(select(names, n -> n.getAuthorship() != null && n.getAuthorship().contains("Gielis")),
+                columns.getNames(columns.select("authorship", a -> a != null && a.contains("Gielis"))));
+        assertEquals(select(names, n -> n.getLink() == null),
+                columns.getNames(columns.select("link", (String) null)));
+        assertEquals(select(names, n -> n.getReference() == null),
+                columns.getNames(columns.selectUnreferenced()));
+        assertTrue(columns.select("rank", "no such rank").isEmpty());
+
+        Map<String, Integer> expected = new HashMap<>();
+        names.forEach(n -> expected.merge(n.getRank(), 1, Integer::sum));
+        assertEquals(expected, columns.count("rank"));
+        Map<String, Long> years = names.stream().filter(n -> n.getPublishedInYear() != null)
+                .collect(Collectors.groupingBy(COLDPName::getPublishedInYear, Collectors.counting()));
+        assertEquals(select(names, n -> years.getOrDefault(n.getPublishedInYear(), 0L) > 1),
+                columns.getNames(columns.selectDuplicates("publishedInYear")));
+
+        try {
+            columns.select("nameID", "1");
+            fail("Unknown column should be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+
+        // Edits to names replace the copy
+        assertSame(columns, coldp.getNameColumns());
+        names.get(0).setRemarks("Changed");
+        assertNotSame(columns, coldp.getNameColumns());
+        assertEquals(List.of(names.get(0)), coldp.getNameColumns().getNames(
+                coldp.getNameColumns().select("remarks", "Changed")));
+    }
+
+    /**
+     * Compares a predicate over every name applied to the objects and to the
+     * columns. Skipped unless the coldp.benchmark.names system property gives
+     * the number of names to generate.
+     */
+    @Test
+    public void benchmark() {
+        Integer count = Integer.getInteger("coldp.benchmark.names");
+        Assume.assumeNotNull(count);
+
+        String[] ranks = { "genus", "species", "subspecies" };
+        List<COLDPName> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            COLDPName name = new COLDPName();
+            name.setID(String.valueOf(i));
+            name.setRank(ranks[i % ranks.length]);
+            name.setGenus("Genus" + (i % 5000));
+            name.setSpecificEpithet("epithet" + (i % 20000));
+            name.setPublishedInYear(String.valueOf(1758 + i % 260));
+            names.add(name);
+        }
+        long start = System.nanoTime();
+        NameColumns columns = new NameColumns(names);
+        long build = System.nanoTime() - start;
+
+        long objectTime = Long.MAX_VALUE;
+        long columnTime = Long.MAX_VALUE;
+        int objectCount = 0;
+        int columnCount = 0;
+        for (int round = 0; round < 5; round++) {
+            start = System.nanoTime();
+            objectCount = 0;
+            for (COLDPName name : names) {
+                if ("species".equals(name.getRank()) 
+                        && name.getPublishedInYear().compareTo("1900") < 0) {
+                    objectCount++;
+                }
+            }
+            objectTime = Math.min(objectTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            BitSet selection = columns.select("rank", "species");
+            selection.and(columns.select("publishedInYear", y -> y != null && y.compareTo("1900") < 0));
+            columnCount = selection.cardinality();
+            columnTime = Math.min(columnTime, System.nanoTime() - start);
+        }
+        assertEquals(objectCount, columnCount);
+
+        LOG.info(count + " names: columns built in " + (build / 1000000) 
+                + " ms; scan " + (objectTime / 1000000) + " ms over objects, " 
+                + (columnTime / 1000000) + " ms over columns");
+    }
+
+    private static List<COLDPName> select(List<COLDPName> names, Function<COLDPName, Boolean> test) {
+        List<COLDPName> selected = new ArrayList<>();
+        for (COLDPName name : names) {
+            if (test.apply(name)) {
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+}
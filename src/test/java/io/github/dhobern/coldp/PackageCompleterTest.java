@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jline.reader.Candidate;
+import org.jline.reader.impl.DefaultParser;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class PackageCompleterTest {
+
+    private final DefaultParser parser = new DefaultParser().escapeChars(null).quoteChars(new char[0]);
+
+    @Test
+    public void testComplete() {
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        PackageCompleter completer = new PackageCompleter(coldp);
+
+        List<String> names = complete(completer, "n ochyrotica fas");
+        assertEquals(List.of("Ochyrotica fasciata"), displays(completer, "n ochyrotica fas"));
+        assertEquals(List.of("fasciata"), names);
+        assertEquals(List.of("fasciata"), complete(completer, "Ochyrotica fas"));
+        List<String> regions = complete(completer, "a Pa");
+        assertEquals("PA", regions.get(0));
+        assertTrue(regions.contains("Panama"));
+        assertEquals(List.of("Arenberger, E., 1990"), displays(completer, "r Arenberger"));
+        assertEquals(List.of("E., 1990"), complete(completer, "r Arenberger, E"));
+
+        COLDPName name = coldp.getNames().get("271");
+        name.setScientificName("Ochyrotica fasciatissima");
+        assertEquals(List.of("fasciatissima"), complete(completer, "n Ochyrotica fas"));
+        COLDPName added = coldp.newName();
+        added.setScientificName("Ochyrotica fasciata");
+        assertEquals(List.of("fasciata", "fasciatissima"), complete(completer, "n Ochyrotica fas"));
+        coldp.deleteName(added);
+        coldp.deleteName(name);
+        assertTrue(complete(completer, "n Ochyrotica fas").isEmpty());
+    }
+
+    private List<String> complete(PackageCompleter completer, String line) {
+        List<Candidate> candidates = new ArrayList<>();
+        completer.complete(null, parser.parse(line, line.length()), candidates);
+        return candidates.stream().map(Candidate::value).collect(Collectors.toList());
+    }
+
+    private List<String> displays(PackageCompleter completer, String line) {
+        List<Candidate> candidates = new ArrayList<>();
+        completer.complete(null, parser.parse(line, line.length()), candidates);
+        return candidates.stream().map(Candidate::displ).collect(Collectors.toList());
+    }
+}
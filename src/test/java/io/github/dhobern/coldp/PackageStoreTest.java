@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class PackageStoreTest {
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = TestPackages.copyMockData();
+    }
+
+    @After
+    public void tearDown() {
+        TestPackages.delete(folder);
+    }
+
+    @Test
+    public void testMatchesPackage() throws IOException {
+        COLDataPackage coldp = new COLDataPackage(folder.getPath());
+        try (PackageStore store = PackageStore.open(folder.getPath(), ",", 10)) {
+            assertEquals(coldp.getNames().size(), store.size(TableEnum.NAME));
+            assertEquals(coldp.getTaxa().size(), store.size(TableEnum.TAXON));
+            assertEquals(coldp.getSynonyms().size(), store.size(TableEnum.SYNONYM));
+
+            for (COLDPName name : coldp.getNames().values()) {
+                assertEquals(name.toCSV(), store.getName(name.getID()).toCSV());
+            }
+            for (COLDPReference reference : coldp.getReferences().values()) {
+                assertEquals(reference.toCsv(), store.getReference(reference.getID()).toCsv());
+            }
+            for (COLDPTaxon taxon : coldp.getTaxa().values()) {
+                COLDPTaxon stored = store.getTaxon(taxon.getID());
+                assertEquals(taxon.toCsv(), stored.toCsv());
+                assertEquals(taxon.getNameID(), store.getName(stored.getNameID()).getID());
+                if (taxon.getParent() != null) {
+                    assertEquals(taxon.getParent().getID(), store.getParent(stored).getID());
+                }
+                assertEquals(getIDs(taxon.getChildren()), 
+                        getIDs(store.getChildren(stored)));
+                List<String> synonyms = new ArrayList<>();
+                for (COLDPSynonym synonym : store.getSynonyms(stored)) {
+                    synonyms.add(synonym.getNameID());
+                }
+                List<String> expected = new ArrayList<>();
+                if (taxon.getSynonyms() != null) {
+                    for (COLDPSynonym synonym : taxon.getSynonyms()) {
+                        expected.add(synonym.getNameID());
+                    }
+                }
+                assertEquals(sorted(expected), sorted(synonyms));
+                assertTrue(store.getCachedCount() <= 30);
+            }
+            assertNull(store.getTaxon("NoSuchTaxon"));
+
+            int[] count = { 0 };
+            store.forEachName(name -> count[0]++);
+            assertEquals(coldp.getNames().size(), count[0]);
+        }
+    }
+
+    @Test
+    public void testRebuild() throws IOException {
+        File taxa = new File(folder, TableEnum.TAXON.getFileName());
+        File index = new File(new File(folder, PackageStore.FOLDER_NAME), 
+                TableEnum.TAXON.getBaseName() + ".idx");
+        try (PackageStore store = PackageStore.open(folder.getPath(), ",", 10)) {
+            assertNotNull(store.getTaxon("16"));
+        }
+        long built = index.lastModified();
+        index.setLastModified(built - 60000);
+        try (PackageStore store = PackageStore.open(folder.getPath(), ",", 10)) {
+            assertNotNull(store.getTaxon("16"));
+        }
+        assertEquals(built - 60000, index.lastModified());
+
+        List<String> lines = Files.readAllLines(taxa.toPath());
+        lines.removeIf(line -> line.startsWith("16,"));
+        Files.write(taxa.toPath(), lines);
+        try (PackageStore store = PackageStore.open(folder.getPath(), ",", 10)) {
+            assertNull(store.getTaxon("16"));
+            assertEquals(lines.size() - 1, store.size(TableEnum.TAXON));
+        }
+    }
+
+    @Test
+    public void testHeaderCase() throws IOException {
+        File taxa = new File(folder, TableEnum.TAXON.getFileName());
+        File synonyms = new File(folder, TableEnum.SYNONYM.getFileName());
+        List<String> lines = Files.readAllLines(taxa.toPath());
+        lines.set(0, lines.get(0).replace(",parentID,", ", parentid ,"));
+        Files.write(taxa.toPath(), lines);
+        lines = Files.readAllLines(synonyms.toPath());
+        lines.set(0, lines.get(0).replace("taxonID,", "TAXONID,"));
+        Files.write(synonyms.toPath(), lines);
+
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        COLDPTaxon taxon = coldp.getTaxa().get("5");
+        try (PackageStore store = PackageStore.open(folder.getPath(), ",", 10)) {
+            COLDPTaxon stored = store.getTaxon("5");
+            assertEquals(getIDs(taxon.getChildren()), getIDs(store.getChildren(stored)));
+            assertEquals(taxon.getSynonyms() == null ? 0 : taxon.getSynonyms().size(),
+                    store.getSynonyms(stored).size());
+        }
+    }
+
+    private static List<String> getIDs(Iterable<COLDPTaxon> taxa) {
+        List<String> ids = new ArrayList<>();
+        if (taxa != null) {
+            for (COLDPTaxon taxon : taxa) {
+                ids.add(taxon.getID());
+            }
+        }
+        return sorted(ids);
+    }
+
+    private static List<String> sorted(List<String> list) {
+        list.sort(null);
+        return list;
+    }
+}
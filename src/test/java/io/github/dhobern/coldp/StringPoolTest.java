@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class StringPoolTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StringPoolTest.class);
+
+    private static final Set<String> KEY_COLUMNS = Set.of(
+            "id", "parentid", "nameid", "basionymid", "referenceid",
+            "taxonid", "relatednameid", "relatedtaxonid");
+
+    @Test
+    public void testIntern() {
+        StringPool pool = new StringPool(2);
+
+        String species = pool.intern("name.rank", new String("species"));
+        assertSame(species, pool.intern("name.rank", new String("species")));
+        assertSame(species, pool.intern("NAME.rank", new String("species")));
+        assertNotSame(species, pool.intern("taxon.rank", new String("species")));
+
+        String genus = pool.intern("name.rank", new String("genus"));
+        assertSame(genus, pool.intern("name.rank", new String("genus")));
+
+        // Pool for the column is full so new values pass through unshared
+        String family = new String("family");
+        assertSame(family, pool.intern("name.rank", family));
+        assertNotSame(family, pool.intern("name.rank", new String("family")));
+    }
+
+    @Test
+    public void testPooledLoad() {
+        LoadProperties loadProperties = new LoadProperties();
+        loadProperties.setPoolStrings(true);
+        COLDataPackage coldp = new COLDataPackage("mockdata", null, ",", loadProperties);
+
+        COLDPTaxon first = coldp.getTaxa().get("5");
+        COLDPTaxon second = coldp.getTaxa().get("7");
+        assertEquals(first.getFamily(), second.getFamily());
+        assertSame(first.getFamily(), second.getFamily());
+        assertTrue(coldp.getStringPool().getReport().size() > 1);
+    }
+
+    /**
+     * Compares retained heap with and without the pool for a package built
+     * by repeating the mock data. Skipped unless the coldp.heapReport system
+     * property gives the number of copies to generate.
+     */
+    @Test
+    public void reportHeap() throws IOException {
+        Integer copies = Integer.getInteger("coldp.heapReport");
+        Assume.assumeNotNull(copies);
+
+        File folder = TestPackages.copyMockData(
+                (source, target) -> generateTable(source, target, copies));
+
+        LoadProperties loadProperties = new LoadProperties();
+        long before = usedHeap();
+        COLDataPackage plain = new COLDataPackage(folder.getPath(), null, ",", loadProperties);
+        long plainHeap = usedHeap() - before;
+        int names = plain.getNames().size();
+        plain = null;
+
+        loadProperties.setPoolStrings(true);
+        before = usedHeap();
+        COLDataPackage pooled = new COLDataPackage(folder.getPath(), null, ",", loadProperties);
+        long pooledHeap = usedHeap() - before;
+
+        LOG.info(names + " names: retained heap " + (plainHeap >> 20)
+                + " MB without pool, " + (pooledHeap >> 20) + " MB with pool");
+        for (String line : pooled.getStringPool().getReport()) {
+            LOG.info("  " + line);
+        }
+
+        TestPackages.delete(folder);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /*
+     * Writes the given number of copies of the rows in a table, prefixing
+     * identifiers and foreign keys with the copy number so that each copy is
+     * a separate tree
+     */
+    private static void generateTable(File source, File target, int copies)
+            throws IOException {
+        List<String> lines = Files.readAllLines(source.toPath(), StandardCharsets.UTF_8);
+        List<String> header = split(lines.get(0));
+        try (PrintWriter writer = new PrintWriter(target, "UTF-8")) {
+            writer.println(lines.get(0));
+            for (int copy = 0; copy < copies; copy++) {
+                for (String line : lines.subList(1, lines.size())) {
+                    List<String> fields = split(line);
+                    for (int i = 0; i < fields.size() && i < header.size(); i++) {
+                        String column = header.get(i).toLowerCase();
+                        if (!fields.get(i).isEmpty() && KEY_COLUMNS.contains(column)
+                                && !(source.getName().equals("region.csv"))) {
+                            fields.set(i, copy + "-" + fields.get(i));
+                        }
+                    }
+                    writer.println(join(fields));
+                }
+            }
+        }
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append(c);
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String join(List<String> fields) {
+        List<String> quoted = new ArrayList<>();
+        for (String field : fields) {
+            quoted.add("\"" + field.replace("\"", "\"\"") + "\"");
+        }
+        return String.join(",", quoted);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import io.github.dhobern.utils.CSVReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class TableReaderTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TableReaderTest.class);
+
+    @Test
+    public void testMatchesCSVReader() throws IOException {
+        compare("mockdata/name.csv", COLDPName.class, RowBinders.NAME, COLDPName::toCSV);
+        compare("mockdata/taxon.csv", COLDPTaxon.class, RowBinders.TAXON, COLDPTaxon::toCsv);
+        compare("mockdata/reference.csv", COLDPReference.class, RowBinders.REFERENCE, COLDPReference::toCsv);
+        compare("mockdata/synonym.csv", COLDPSynonym.class, RowBinders.SYNONYM, COLDPSynonym::toCsv);
+        compare("mockdata/distribution.csv", COLDPDistribution.class, RowBinders.DISTRIBUTION, COLDPDistribution::toCsv);
+        compare("mockdata/region.csv", COLDPRegion.class, RowBinders.REGION, COLDPRegion::toCsv);
+        compare("mockdata/namereference.csv", COLDPNameReference.class, RowBinders.NAMEREFERENCE, COLDPNameReference::toCsv);
+        compare("mockdata/namerelation.csv", COLDPNameRelation.class, RowBinders.NAMERELATION, COLDPNameRelation::toCsv);
+    }
+
+    @Test
+    public void testQuoting() throws IOException {
+        String csv = "\uFEFFID,Scientificname,authorship,unknown\r\n"
+                + "1,\"Aus bus\",\"(Smith, 1900)\",x\r\n"
+                + "\r\n"
+                + "2,Aus cus,\"line one\nsays \"\"two\"\"\",\n"
+                + "3,,,";
+        List<COLDPName> names
+                = new TableReader<>(new StringReader(csv), RowBinders.NAME, ",").getList();
+
+        assertEquals(3, names.size());
+        assertEquals("1", names.get(0).getID());
+        assertEquals("Aus bus", names.get(0).getScientificName());
+        assertEquals("(Smith, 1900)", names.get(0).getAuthorship());
+        assertEquals("line one\nsays \"two\"", names.get(1).getAuthorship());
+        assertEquals("3", names.get(2).getID());
+        assertNull(names.get(2).getScientificName());
+    }
+
+    /**
+     * Compares parsing throughput with CSVReader. Skipped unless the
+     * coldp.benchmark system property names a name.csv file to read.
+     */
+    @Test
+    public void benchmarkNameTable() throws IOException {
+        String fileName = System.getProperty("coldp.benchmark");
+        Assume.assumeNotNull(fileName);
+        int iterations = Integer.getInteger("coldp.benchmark.iterations", 5);
+
+        // Warm up both readers before timing
+        new CSVReader<>(fileName, COLDPName.class, ",").getList();
+        new TableReader<>(fileName, RowBinders.NAME, ",").getList();
+
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < iterations; i++) {
+            rows = new CSVReader<>(fileName, COLDPName.class, ",").getList().size();
+        }
+        long reflective = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            rows = new TableReader<>(fileName, RowBinders.NAME, ",").getList().size();
+        }
+        long bound = (System.nanoTime() - start) / iterations;
+
+        LOG.info(String.format("%s: %d rows, CSVReader %d ms, TableReader %d ms (%.1fx)",
+                fileName, rows, reflective / 1000000, bound / 1000000,
+                (double) reflective / Math.max(1, bound)));
+    }
+
+    private static <T> void compare(String fileName, Class<T> type,
+            RowBinder<T> binder, Function<T, String> toCsv) throws IOException {
+        List<T> expected = new CSVReader<>(fileName, type, ",").getList();
+        List<T> actual = new TableReader<>(fileName, binder, ",").getList();
+
+        assertEquals(fileName, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(fileName, toCsv.apply(expected.get(i)), toCsv.apply(actual.get(i)));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class TableWriterTest {
+
+    @Test
+    public void testMatchesToCsv() throws IOException {
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        compare(RowWriters.NAME, COLDPName.getCsvHeader(), coldp.getNames().values(), COLDPName::toCSV);
+        compare(RowWriters.REFERENCE, COLDPReference.getCsvHeader(), coldp.getReferences().values(), COLDPReference::toCsv);
+        compare(RowWriters.NAMEREFERENCE, COLDPNameReference.getCsvHeader(), coldp.getNameReferences(), COLDPNameReference::toCsv);
+        compare(RowWriters.NAMERELATION, COLDPNameRelation.getCsvHeader(), coldp.getNameRelations(), COLDPNameRelation::toCsv);
+        compare(RowWriters.TAXON, COLDPTaxon.getCsvHeader(), coldp.getTaxa().values(), COLDPTaxon::toCsv);
+        compare(RowWriters.SYNONYM, COLDPSynonym.getCsvHeader(), coldp.getSynonyms(), COLDPSynonym::toCsv);
+        compare(RowWriters.REGION, COLDPRegion.getCsvHeader(), coldp.getRegions().values(), COLDPRegion::toCsv);
+        compare(RowWriters.DISTRIBUTION, COLDPDistribution.getCsvHeader(), coldp.getDistributions(), COLDPDistribution::toCsv);
+        compare(RowWriters.SPECIESINTERACTION, COLDPSpeciesInteraction.getCsvHeader(),
+                coldp.getSpeciesInteractions(), COLDPSpeciesInteraction::toCsv);
+    }
+
+    @Test
+    public void testLargeValues() throws IOException {
+        // Values spanning the buffer, including a surrogate pair at its edge
+        StringBuilder remarks = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            remarks.append("a\"b,");
+        }
+        remarks.append("🦋");
+        List<COLDPRegion> regions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            COLDPRegion region = new COLDPRegion();
+            region.setID(String.valueOf(i));
+            region.setName(remarks.substring(i));
+            regions.add(region);
+        }
+        compare(RowWriters.REGION, COLDPRegion.getCsvHeader(), regions, COLDPRegion::toCsv);
+    }
+
+    @Test
+    public void testUncommitted() throws IOException {
+        Path folder = Files.createTempDirectory("coldp");
+        Path target = folder.resolve("region.csv");
+        Files.writeString(target, "ID,name\n");
+
+        try (TableWriter writer = new TableWriter(target)) {
+            writer.line("ID,name");
+            writer.field("AU");
+            writer.field("Australia");
+            writer.endRow();
+        }
+
+        assertEquals("ID,name\n", Files.readString(target));
+        assertEquals(1, folder.toFile().list().length);
+        Files.delete(target);
+        Files.delete(folder);
+    }
+
+    private static <T> void compare(RowWriter<T> rowWriter, String header,
+            Collection<T> rows, Function<T, String> toCsv) throws IOException {
+        assertEquals(header, rowWriter.getHeader());
+
+        Path file = Files.createTempFile("coldp", ".csv");
+        try (TableWriter writer = new TableWriter(file)) {
+            rowWriter.write(writer, rows);
+            writer.commit();
+        }
+
+        StringBuilder expected = new StringBuilder(header).append(System.lineSeparator());
+        for (T row : rows) {
+            expected.append(toCsv.apply(row)).append(System.lineSeparator());
+        }
+        assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        Files.delete(file);
+    }
+}
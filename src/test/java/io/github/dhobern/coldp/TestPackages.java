@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Scratch copies of the mockdata package for tests which write to or 
+ * alter the files of a package.
+ *
+ * @author dhobern@gmail.com
+ */
+final class TestPackages {
+
+    interface TableCopier {
+        void copy(File source, File target) throws IOException;
+    }
+
+    private TestPackages() {
+    }
+
+    /**
+     * @return a new temporary folder holding a copy of each mockdata table
+     */
+    static File copyMockData() throws IOException {
+        return copyMockData((source, target) -> Files.copy(source.toPath(), target.toPath()));
+    }
+
+    /**
+     * @return a new temporary folder holding the output of the copier for
+     * each mockdata table
+     */
+    static File copyMockData(TableCopier copier) throws IOException {
+        File folder = Files.createTempDirectory("coldp").toFile();
+        // Only the tables themselves, not output other tests write alongside
+        for (TableEnum table : TableEnum.values()) {
+            File csv = new File("mockdata", table.getFileName());
+            if (csv.exists()) {
+                copier.copy(csv, new File(folder, csv.getName()));
+            }
+        }
+        return folder;
+    }
+
+    /**
+     * Delete a folder and everything in it
+     */
+    static void delete(File folder) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                delete(file);
+            }
+        }
+        folder.delete();
+    }
+}
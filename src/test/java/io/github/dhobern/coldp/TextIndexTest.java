@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 dhobern@gmail.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dhobern.coldp;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author dhobern@gmail.com
+ */
+public class TextIndexTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TextIndexTest.class);
+
+    private static final String[] FILTERS = { "Ochyrotica", "ata", "Walsingham, 1891",
+        "271 ", "a", "Zz", "Pterophor", "(Durrant", "1990" };
+
+    @Test
+    public void testMatchesScan() {
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        for (String filter : FILTERS) {
+            assertEquals(filter, scan(coldp.getNames().values(), filter), 
+                    new HashSet<>(coldp.findNames(filter)));
+            assertEquals(filter, scan(coldp.getTaxa().values(), filter), 
+                    new HashSet<>(coldp.findTaxa(filter)));
+            assertEquals(filter, scan(coldp.getReferences().values(), filter), 
+                    new HashSet<>(coldp.findReferences(filter)));
+            assertEquals(filter, scan(coldp.getRegions().values(), filter), 
+                    new HashSet<>(coldp.findRegions(filter)));
+        }
+    }
+
+    @Test
+    public void testRanking() {
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        COLDPName fasciata = coldp.getNames().get("271");
+        List<COLDPName> matches = coldp.findNames("Ochyrotica");
+        assertTrue(matches.size() > 1);
+        assertEquals("Ochyrotica", matches.get(0).getScientificName());
+
+        matches = coldp.findNames("fasciat");
+        assertSame(fasciata, matches.get(0));
+        for (COLDPName name : matches.subList(1, matches.size())) {
+            assertFalse(name.toString().contains(" fasciata "));
+        }
+    }
+
+    @Test
+    public void testEdits() {
+        COLDataPackage coldp = new COLDataPackage("mockdata");
+        COLDPName fasciata = coldp.getNames().get("271");
+        assertEquals(List.of(fasciata.getTaxon()), coldp.findTaxa("Ochyrotica fasciata"));
+
+        fasciata.setScientificName("Ochyrotica fasciatissima");
+        assertTrue(coldp.findNames("Ochyrotica fasciata").isEmpty());
+        assertEquals(List.of(fasciata), coldp.findNames("fasciatissima"));
+        assertEquals(List.of(fasciata.getTaxon()), coldp.findTaxa("fasciatissima"));
+
+        COLDPName added = coldp.newName();
+        added.setScientificName("Ochyrotica fasciatissima");
+        assertEquals(2, coldp.findNames("fasciatissima").size());
+        coldp.deleteName(fasciata);
+        assertEquals(List.of(added), coldp.findNames("fasciatissima"));
+        assertTrue(coldp.findTaxa("fasciatissima").isEmpty());
+    }
+
+    @Test
+    public void benchmarkSearch() {
+        String packageName = System.getProperty("coldp.benchmark.package");
+        Assume.assumeNotNull(packageName);
+        COLDataPackage coldp = new COLDataPackage(packageName);
+
+        long start = System.nanoTime();
+        coldp.findNames("xyz");
+        long build = System.nanoTime() - start;
+
+        for (String filter : FILTERS) {
+            start = System.nanoTime();
+            int scanned = scan(coldp.getNames().values(), filter).size();
+            long scan = System.nanoTime() - start;
+            start = System.nanoTime();
+            int found = coldp.findNames(filter).size();
+            long indexed = System.nanoTime() - start;
+            assertEquals(scanned, found);
+            LOG.info(String.format("'%s': %d names, scan %d us, index %d us (index built in %d ms)",
+                    filter, found, scan / 1000, indexed / 1000, build / 1000000));
+        }
+    }
+
+    private static <T> HashSet<T> scan(Collection<T> instances, String filter) {
+        return instances.stream()
+                .filter(r -> r.toString().contains(filter))
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+}